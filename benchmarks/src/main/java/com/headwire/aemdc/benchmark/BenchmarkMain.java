@@ -0,0 +1,56 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks Main Class.
+ * Runs the benchmarks selected by the JMH command line options (all by default) with the GC profiler,
+ * so allocation rate and GC counts are reported next to the times, and writes the results to
+ * "jmh-result.json" unless another result format is given.
+ *
+ */
+public class BenchmarkMain {
+
+  private static final String RESULT_FILE = "jmh-result.json";
+
+  /**
+   * Main start method.
+   *
+   * @param args
+   *          - JMH command line options, for ex. "ReplacerBenchmark -p size=1024"
+   * @throws CommandLineOptionException
+   *           - invalid command line options
+   * @throws IOException
+   *           - help can't be printed
+   * @throws RunnerException
+   *           - benchmarks failed
+   */
+  public static void main(final String[] args) throws CommandLineOptionException, IOException, RunnerException {
+    final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+    if (cmdOptions.shouldHelp()) {
+      cmdOptions.showHelp();
+      return;
+    }
+    if (cmdOptions.shouldList()) {
+      new Runner(cmdOptions).list();
+      return;
+    }
+
+    final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions).addProfiler(GCProfiler.class);
+    if (!cmdOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON).result(RESULT_FILE);
+    }
+
+    new Runner(options.build()).run();
+  }
+}
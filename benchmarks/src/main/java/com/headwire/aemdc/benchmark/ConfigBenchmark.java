@@ -0,0 +1,71 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.headwire.aemdc.companion.Config;
+
+
+/**
+ * Config construction over synthetic template trees with 10, 100 and 1000 component templates.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigBenchmark {
+
+  @Param({ "10", "100", "1000" })
+  public int templates;
+
+  private TemplateFixture fixture;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fixture = new TemplateFixture(templates);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fixture.close();
+  }
+
+  /**
+   * Construct the config, the dynamic type configs are loaded on demand.
+   */
+  @Benchmark
+  public Config construct() {
+    return fixture.loadConfig();
+  }
+
+  /**
+   * Construct the config and load all types, template names and dynamic configs, like the GUI does.
+   */
+  @Benchmark
+  public void loadAll(final Blackhole blackhole) {
+    final Config config = fixture.loadConfig();
+    for (final String type : config.getDynamicTypes()) {
+      for (final String name : config.getTemplateNames(type)) {
+        blackhole.consume(config.getDynamicProperties(type, name));
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.headwire.aemdc.replacer.PlaceHolderDictionary;
+import com.headwire.aemdc.replacer.Replacer;
+
+
+/**
+ * Escaping of the CRX XML property values, called for every xml place holder value.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrxXmlValueBenchmark {
+
+  @Param({ "plain", "special", "options" })
+  public String kind;
+
+  private final CrxValueReplacer replacer = new CrxValueReplacer();
+  private String value;
+
+  @Setup
+  public void setup() {
+    if ("plain".equals(kind)) {
+      value = "my-aem-project/components/content/title";
+    } else if ("special".equals(kind)) {
+      value = "Title & \"Subtitle\" <b>bold</b> C:\\path";
+    } else {
+      // list of select options with value/text pairs
+      final StringBuilder options = new StringBuilder("[");
+      for (int i = 0; i < 20; i++) {
+        if (i > 0) {
+          options.append(',');
+        }
+        options.append("{\"value\":\"key").append(i).append("\",\"text\":\"key").append(i).append("value\"}");
+      }
+      value = options.append(']').toString();
+    }
+  }
+
+  @Benchmark
+  public String getCrxXMLValue() {
+    return replacer.getCrxXMLValue(value);
+  }
+
+  /**
+   * Replacer without own place holders to access the escaping of the xml values.
+   */
+  private static class CrxValueReplacer extends Replacer {
+
+    @Override
+    protected void addCustomXmlPlaceHolders(final PlaceHolderDictionary dictionary,
+        final Map<String, String> placeholders) {
+      // no custom place holders
+    }
+
+    @Override
+    protected void addCustomTextPlaceHolders(final PlaceHolderDictionary dictionary,
+        final Map<String, String> placeholders, final File targetFile) {
+      // no custom place holders
+    }
+
+    @Override
+    protected String getCrxXMLValue(final String value) {
+      return super.getCrxXMLValue(value);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Reflection;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.runner.BasisRunner;
+import com.headwire.aemdc.util.Help;
+
+
+/**
+ * Discovery of the template place holders for the help and the GUI, for a dynamic and a compound template.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HelpBenchmark {
+
+  @Param({ TemplateFixture.COMPONENT + ":tpl0", TemplateFixture.COMPOUND + ":both" })
+  public String template;
+
+  private TemplateFixture fixture;
+  private Help help;
+  private BasisRunner runner;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fixture = new TemplateFixture(10);
+    final String[] typeName = template.split(":");
+
+    final Config config = fixture.loadConfig();
+    final Resource resource = new Resource(fixture.getArgs(typeName[0], typeName[1], 0));
+    runner = new Reflection(config).getRunner(resource);
+    help = new Help(resource, config);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fixture.close();
+  }
+
+  @Benchmark
+  public List<String> getPlaceHolders() {
+    return help.getPlaceHolders(runner);
+  }
+}
@@ -0,0 +1,88 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.runner.DynamicRunner;
+
+
+/**
+ * Place holders replacing in small, medium and huge html templates with few and many place holders.
+ * The huge template is bigger than the streaming threshold and is replaced in the streaming mode.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplacerBenchmark {
+
+  private static final String TEMPLATE_NAME = "text";
+
+  @Param({ "1024", "65536", "4194304" })
+  public int size;
+
+  @Param({ "4", "256" })
+  public int placeholders;
+
+  private TemplateFixture fixture;
+  private Replacer replacer;
+  private File templateFile;
+  private File targetFile;
+  private String text;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fixture = new TemplateFixture(1);
+    templateFile = fixture.addTextTemplate(TEMPLATE_NAME, size, placeholders);
+    text = TemplateFixture.getText(size, placeholders);
+
+    final Config config = fixture.loadConfig();
+    final Resource resource = new Resource(fixture.getArgs(TemplateFixture.COMPONENT, TEMPLATE_NAME, placeholders));
+    final DynamicRunner runner = new DynamicRunner(resource, config);
+    replacer = runner.getPlaceHolderReplacer();
+    targetFile = new File(resource.getTargetFolderPath(), resource.getTargetName() + ".html");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fixture.close();
+  }
+
+  /**
+   * Replace place holders in the text already read into memory.
+   */
+  @Benchmark
+  public String replaceText() {
+    return replacer.replacePlaceHolders(text, targetFile);
+  }
+
+  /**
+   * Replace place holders in the template file from the compiled templates cache or in the streaming mode.
+   */
+  @Benchmark
+  public void replaceFile() throws IOException {
+    replacer.replacePlaceHolders(templateFile, targetFile, NullOutputStream.NULL_OUTPUT_STREAM);
+  }
+}
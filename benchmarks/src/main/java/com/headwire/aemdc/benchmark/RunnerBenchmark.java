@@ -0,0 +1,79 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Reflection;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.runner.BasisRunner;
+
+
+/**
+ * End-to-end generation of a dynamic and a compound template into a new temp folder for every run,
+ * including the runner construction and all its commands.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunnerBenchmark {
+
+  @Param({ TemplateFixture.COMPONENT + ":tpl0", TemplateFixture.SERVICE + ":simple",
+      TemplateFixture.COMPOUND + ":both" })
+  public String template;
+
+  @Param({ "0", "16" })
+  public int placeholders;
+
+  private TemplateFixture fixture;
+  private Reflection reflection;
+  private String type;
+  private String name;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    fixture = new TemplateFixture(10);
+    final String[] typeName = template.split(":");
+    type = typeName[0];
+    name = typeName[1];
+
+    final Config config = fixture.loadConfig();
+    reflection = new Reflection(config);
+  }
+
+  @TearDown(Level.Iteration)
+  public void cleanTarget() throws IOException {
+    fixture.cleanTarget();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    fixture.close();
+  }
+
+  @Benchmark
+  public BasisRunner run() throws IOException {
+    final Resource resource = new Resource(fixture.getArgs(type, name, placeholders));
+    final BasisRunner runner = reflection.getRunner(resource);
+    runner.run();
+    return runner;
+  }
+}
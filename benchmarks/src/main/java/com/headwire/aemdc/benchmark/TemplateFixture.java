@@ -0,0 +1,218 @@
+package com.headwire.aemdc.benchmark;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Synthetic aemdc project in a temp folder: configuration file and template types
+ * "component" with the given number of templates, "service" and "compound".
+ * The component templates are named "tpl0", "tpl1", ... and the compound template "both"
+ * combines "component:tpl0" with "service:simple".
+ *
+ */
+public class TemplateFixture implements Closeable {
+
+  public static final String CONFIG_FILENAME = "aemdc-config.properties";
+  public static final String COMPONENT = "component";
+  public static final String SERVICE = "service";
+  public static final String COMPOUND = "compound";
+
+  private final File root;
+  private final File typesDir;
+  private final File targetDir;
+  private int targetCount;
+
+  /**
+   * Create the project with the templates
+   *
+   * @param templates
+   *          - number of the component templates
+   * @throws IOException
+   *           - IOException
+   */
+  public TemplateFixture(final int templates) throws IOException {
+    root = Files.createTempDirectory("aemdc-benchmark").toFile();
+    typesDir = new File(root, "aemdc-files");
+    targetDir = new File(root, "target");
+
+    // no configuration snapshots from previous runs
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, new File(root, "cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+
+    write(CONFIG_FILENAME, "SOURCE_FOLDER=" + getPath(typesDir) + "\n"
+        + "SOURCE_TYPES_FOLDER={{SOURCE_FOLDER}}\n"
+        + "TARGET_UI_FOLDER=ui.apps/src/main/content/jcr_root\n"
+        + "TARGET_PROJECT_APPS_FOLDER=myproj\n"
+        + "TARGET_PROJECT_CONF_FOLDER=myproj\n"
+        + "TARGET_PROJECT_DESIGN_FOLDER=myproj\n"
+        + "TARGET_PROJECT_ROOT={{TARGET_UI_FOLDER}}/apps/{{TARGET_PROJECT_APPS_FOLDER}}\n"
+        + "TARGET_OSGI_SUBFOLDER=/configuration\n"
+        + "TARGET_JAVA_FOLDER=core/src/main/java\n"
+        + "TARGET_JAVA_PACKAGE=com.example\n"
+        + "TARGET_JAVA_PACKAGE_FOLDER={{TARGET_JAVA_FOLDER}}/com/example\n"
+        + "TARGET_JAVA_MODEL_SUBPACKAGE=model\n"
+        + "FILES_WITH_PLACEHOLDERS_EXTENSIONS=xml,java,html,jsp,js,css,properties\n"
+        + "FORBIDDEN_TEMPLATE_TYPES=.git,.settings,target,help,.idea\n"
+        + "EXISTING_DESTINATION_RESOURCES_REPLACEMENT=MERGE\n"
+        + "LOG_LEVEL=WARN\n");
+
+    write("aemdc-files/component/config.properties", "TARGET_TYPE_FOLDER={{TARGET_PROJECT_ROOT}}/components\n"
+        + "COMMAND_MENU=COPY_DIR,REPLACE_PH,REPLACE_PATH_PH\n"
+        + "TEMPLATE_STRUCTURE=DIR\n"
+        + "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/component\n"
+        + "_componentGroup=Default Group\n");
+    write("aemdc-files/component/help/help-gui.txt", "Component help");
+    for (int i = 0; i < templates; i++) {
+      addComponent("tpl" + i);
+    }
+
+    write("aemdc-files/service/config.properties", "TARGET_TYPE_FOLDER={{TARGET_JAVA_PACKAGE_FOLDER}}/services\n"
+        + "COMMAND_MENU=COPY_FILES,REPLACE_PH,REPLACE_PATH_PH\n"
+        + "TEMPLATE_STRUCTURE=FILE\n"
+        + "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/service\n");
+    write("aemdc-files/service/simple/config.properties",
+        "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/service/simple/files\n_author=nobody\n");
+    write("aemdc-files/service/simple/files/simple/{{java-class}}.java",
+        "package {{ java-package }};\n/** {{ author }} {{ desc }} */\npublic interface {{ java-class }} {}\n");
+    write("aemdc-files/service/simple/files/simple/impl/{{java-class}}Impl.java",
+        "package {{ java-package }}.impl;\n/** {{ author }} */\npublic class {{ java-class }}Impl {}\n");
+
+    write("aemdc-files/compound/config.properties", "TARGET_TYPE_FOLDER=\nCOMMAND_MENU=\nTEMPLATE_STRUCTURE=DIR\n"
+        + "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/compound\n");
+    write("aemdc-files/compound/both/config.properties",
+        "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/compound/both\nCOMPOUND=component:tpl0,service:simple\n");
+  }
+
+  /**
+   * Add component template with the .content.xml, html and js files
+   *
+   * @param name
+   *          - template name
+   * @throws IOException
+   *           - IOException
+   */
+  private void addComponent(final String name) throws IOException {
+    final String path = "aemdc-files/component/" + name;
+    write(path + "/config.properties", "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/component/" + name + "/files\n"
+        + "_jcr\\:title=Default {{targetname}} title & \"more\"\n"
+        + "_sling\\:resourceSuperType=core/{{targetCompModel}}\n");
+    write(path + "/files/" + name + "/.content.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<jcr:root jcr:primaryType=\"cq:Component\"\n"
+        + "    jcr:title=\"{{ jcr:title }}\"\n"
+        + "    sling:resourceSuperType=\"{{ sling:resourceSuperType }}\"\n"
+        + "    componentGroup=\"{{ componentGroup }}\"/>\n");
+    write(path + "/files/" + name + "/{{targetname}}.html",
+        "<div data-sly-use.m=\"{{ java-class }}\">{{ jcr:title }} {{ desc }}</div>\n");
+    write(path + "/files/" + name + "/sub/{{targetname}}.js", "// {{ targetname }} {{ desc }}\n");
+  }
+
+  /**
+   * Add component template with one html file of the given size and place holders
+   * {{ p0 }}, {{ p1 }}, ... spread evenly over the file.
+   *
+   * @param name
+   *          - template name
+   * @param size
+   *          - approximate file size in bytes
+   * @param placeholders
+   *          - number of distinct place holders
+   * @return template file
+   * @throws IOException
+   *           - IOException
+   */
+  public File addTextTemplate(final String name, final int size, final int placeholders) throws IOException {
+    final String path = "aemdc-files/component/" + name;
+    write(path + "/config.properties", "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/component/" + name + "/files\n");
+    return write(path + "/files/" + name + "/{{targetname}}.html", getText(size, placeholders));
+  }
+
+  /**
+   * Get text of the given size with place holders {{ p0 }}, {{ p1 }}, ... spread evenly over the lines.
+   *
+   * @param size
+   *          - approximate text size in bytes
+   * @param placeholders
+   *          - number of distinct place holders
+   * @return text
+   */
+  public static String getText(final int size, final int placeholders) {
+    final String line = "<p class=\"text\">Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p>\n";
+    final int lines = Math.max(1, size / line.length());
+    final StringBuilder text = new StringBuilder(size + placeholders * 16);
+    for (int i = 0; i < lines; i++) {
+      text.append(line);
+      // one occurrence of each place holder
+      final int from = (int) ((long) i * placeholders / lines);
+      final int to = (int) ((long) (i + 1) * placeholders / lines);
+      for (int p = from; p < to; p++) {
+        text.append("<span>{{ p").append(p).append(" }}</span>\n");
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Get arguments with values of place holders {{ p0 }}, {{ p1 }}, ...
+   *
+   * @param type
+   *          - template type
+   * @param name
+   *          - template name
+   * @param placeholders
+   *          - number of place holders
+   * @return arguments "type name targetname p0=... p1=..." with a new temp folder
+   */
+  public String[] getArgs(final String type, final String name, final int placeholders) {
+    final String[] args = new String[placeholders + 4];
+    args[0] = Constants.PARAM_OPTION_TEMP + "=" + getPath(new File(targetDir, String.valueOf(targetCount++)));
+    args[1] = type;
+    args[2] = name;
+    args[3] = "my-" + name;
+    for (int p = 0; p < placeholders; p++) {
+      args[p + 4] = "p" + p + "=value \"" + p + "\" & more";
+    }
+    return args;
+  }
+
+  /**
+   * Load configuration of the project
+   *
+   * @return configuration
+   */
+  public Config loadConfig() {
+    return new Config(root, CONFIG_FILENAME);
+  }
+
+  /**
+   * Delete all generated target folders
+   *
+   * @throws IOException
+   *           - IOException
+   */
+  public void cleanTarget() throws IOException {
+    FileUtils.deleteDirectory(targetDir);
+  }
+
+  @Override
+  public void close() throws IOException {
+    FileUtils.deleteDirectory(root);
+  }
+
+  private File write(final String path, final String text) throws IOException {
+    final File file = new File(root, path);
+    FileUtils.writeStringToFile(file, text, Constants.ENCODING);
+    return file;
+  }
+
+  private static String getPath(final File file) {
+    return file.getAbsolutePath().replace("\\", "/");
+  }
+}
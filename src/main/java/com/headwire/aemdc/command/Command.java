@@ -21,6 +21,8 @@ interface Command {
 
   void execute() throws IOException;
 
+  String getName();
+
   Resource getResource();
 
   Config getConfig();
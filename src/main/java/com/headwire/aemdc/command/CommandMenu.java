@@ -1,6 +1,9 @@
 package com.headwire.aemdc.command;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -9,7 +12,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.companion.Stats;
+import com.headwire.aemdc.jfr.CommandEvent;
+import com.headwire.aemdc.jfr.FlightEvents;
 import com.headwire.aemdc.replacer.Replacer;
 
 
@@ -33,14 +40,19 @@ public class CommandMenu {
   public void setCommands(final String[] operations, final Resource resource, final Replacer replacer,
       final Config config) {
     int i = 0;
-    for (final String operation : operations) {
+    final String[] menuOperations = resource.getOutput() != null ? getOutputOperations(operations) : operations;
+    // copying with replacing is merged for the target output
+    final boolean merged = menuOperations != operations;
+    // merged path place holders are replaced only if it's configured
+    final boolean toReplacePaths = !merged || Arrays.asList(operations).contains(ReplacePathPlaceHoldersCommand.NAME);
+    for (final String operation : menuOperations) {
       final Command command;
       switch (operation) {
         case CopyDirCommand.NAME:
           command = new CopyDirCommand(resource, config);
           break;
         case CopyFileCommand.NAME:
-          command = new CopyFileCommand(resource, config);
+          command = merged ? new CopyFileCommand(resource, config, replacer) : new CopyFileCommand(resource, config);
           break;
         case CopyFilesCommand.NAME:
           command = new CopyFilesCommand(resource, config);
@@ -54,6 +66,9 @@ public class CommandMenu {
         case ReplacePathPlaceHoldersCommand.NAME:
           command = new ReplacePathPlaceHoldersCommand(resource, config, replacer);
           break;
+        case CopyReplaceCommand.NAME:
+          command = new CopyReplaceCommand(resource, config, replacer, toReplacePaths);
+          break;
         case HelpCommand.NAME:
           command = new HelpCommand(resource, config);
           break;
@@ -66,10 +81,55 @@ public class CommandMenu {
     }
   }
 
+  /**
+   * Get operations for the target output. Copying with the following replacing of place holders
+   * is done at once by COPY_REPLACE or by COPY_FILE with the replacer, which stream the rendered
+   * files into the output. The written entries of the output can't be read back.
+   *
+   * @param operations
+   *          - configured operations
+   * @return operations without intermediate files
+   */
+  static String[] getOutputOperations(final String[] operations) {
+    final List<String> operationList = Arrays.asList(operations);
+    if (!operationList.contains(ReplacePlaceHoldersCommand.NAME) || !operationList.contains(CopyDirCommand.NAME)
+        && !operationList.contains(CopyFilesCommand.NAME) && !operationList.contains(CopyFileCommand.NAME)) {
+      return operations;
+    }
+
+    final List<String> result = new ArrayList<String>();
+    for (final String operation : operations) {
+      switch (operation) {
+        case CopyDirCommand.NAME:
+        case CopyFilesCommand.NAME:
+          result.add(CopyReplaceCommand.NAME);
+          break;
+        case ReplacePlaceHoldersCommand.NAME:
+        case ReplacePathPlaceHoldersCommand.NAME:
+          break;
+        default:
+          result.add(operation);
+      }
+    }
+    LOG.debug("Commands {} run as {} for the target output.", operationList, result);
+    return result.toArray(new String[result.size()]);
+  }
+
   public void runCommands() throws IOException {
     for (final Map.Entry<Integer, Command> entry : menuItems.entrySet()) {
       final Command command = entry.getValue();
-      command.execute();
+      final Progress progress = command.getResource().getProgress();
+      progress.commandStarted(command.getName(), command.getResource());
+
+      final Stats stats = progress.getStats();
+      final Stats.Sample sample = stats.start(Stats.TIMER_COMMAND + command.getName());
+      final CommandEvent event = FlightEvents.beginCommand();
+      try {
+        command.execute();
+      } finally {
+        FlightEvents.endCommand(event, command.getName(), command.getResource());
+        stats.stop(sample);
+      }
     }
   }
 
@@ -9,8 +9,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.util.ArchiveUtil;
 import com.headwire.aemdc.util.FilesDirsUtil;
+import com.headwire.aemdc.util.TargetOutput;
 
 
 /**
@@ -60,6 +63,12 @@ public class CopyDirCommand implements Command {
    *           - IOException
    */
   private void copyDirectory(final File srcDir, final File destDir) throws IOException {
+    final TargetOutput output = resource.getOutput();
+    if (output != null && output.contains(destDir)) {
+      copyDirectory(srcDir, destDir, output);
+      return;
+    }
+
     try {
       if (resource.isToWarnDestDir() && destDir.exists()) {
         final String message = "Directory " + destDir + " already exists and will be not overwritten.";
@@ -73,14 +82,15 @@ public class CopyDirCommand implements Command {
         }
       }
 
-      if (!srcDir.exists()) {
+      if (!ArchiveUtil.exists(srcDir)) {
         LOG.error("Can't get available templates. Directory {} doesn't exist.", srcDir);
       } else {
+        final List<String> copiedTemplateNames = FilesDirsUtil.copyDirectory(srcDir, destDir,
+            resource.getParallelThreads());
+        reportCopiedFiles(destDir, copiedTemplateNames);
+
         // set copied template names
-        final List<String> copiedTemplateNames = FilesDirsUtil.getTemplateNames(srcDir);
         resource.setCopiedTemplateNames(copiedTemplateNames);
-
-        FileUtils.copyDirectory(srcDir, destDir);
         LOG.info("Directory {} created.", destDir);
       }
 
@@ -90,6 +100,57 @@ public class CopyDirCommand implements Command {
     }
   }
 
+  /**
+   * Copy source directory files to the target output
+   *
+   * @param srcDir
+   *          - source directory
+   * @param destDir
+   *          - destination directory
+   * @param output
+   *          - target output
+   * @throws IOException
+   *           - IOException
+   */
+  private void copyDirectory(final File srcDir, final File destDir, final TargetOutput output) throws IOException {
+    if (!ArchiveUtil.exists(srcDir)) {
+      LOG.error("Can't get available templates. Directory {} doesn't exist.", srcDir);
+      return;
+    }
+    final List<String> copiedTemplateNames = FilesDirsUtil.getTemplateNames(srcDir);
+    FilesDirsUtil.copyFiles(srcDir, destDir, copiedTemplateNames, output, resource.getProgress());
+    output.addRoot(destDir, resource.isToMergeDestDir());
+
+    // set copied template names
+    resource.setCopiedTemplateNames(copiedTemplateNames);
+    LOG.info("Directory {} written to {}.", destDir, output);
+  }
+
+  /**
+   * Report the files copied in parallel to the progress
+   *
+   * @param destDir
+   *          - destination directory
+   * @param copiedTemplateNames
+   *          - copied template names incl. subfolders
+   * @throws IOException
+   *           - if the generation is cancelled
+   */
+  private void reportCopiedFiles(final File destDir, final List<String> copiedTemplateNames) throws IOException {
+    final Progress progress = resource.getProgress();
+    progress.addFiles(copiedTemplateNames.size());
+    for (final String nextName : copiedTemplateNames) {
+      final File destFile = new File(destDir, nextName);
+      progress.getStats().fileRead(destFile);
+      progress.fileDone(destFile);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
@@ -2,17 +2,25 @@ package com.headwire.aemdc.command;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.util.ArchiveUtil;
+import com.headwire.aemdc.util.FilesDirsUtil;
+import com.headwire.aemdc.util.TargetOutput;
 
 
 /**
- * Concrete command to copy file
+ * Concrete command to copy file.
+ * If the replacer is set, the file with place holders is rendered directly into the target output,
+ * so COPY_FILE,REPLACE_PH is done at once without reading the written file back.
  *
  */
 public class CopyFileCommand implements Command {
@@ -22,6 +30,7 @@ public class CopyFileCommand implements Command {
 
   private final Resource resource;
   private final Config config;
+  private final Replacer replacer;
 
   /**
    * Constructor
@@ -30,8 +39,21 @@ public class CopyFileCommand implements Command {
    *          - resource
    */
   public CopyFileCommand(final Resource resource, final Config config) {
+    this(resource, config, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param resource
+   *          - resource
+   * @param replacer
+   *          - replacer to render the file into the target output or null to copy it as it is
+   */
+  public CopyFileCommand(final Resource resource, final Config config, final Replacer replacer) {
     this.resource = resource;
     this.config = config;
+    this.replacer = replacer;
   }
 
   @Override
@@ -58,18 +80,43 @@ public class CopyFileCommand implements Command {
    *           - IOException
    */
   private void copyFile(final File srcFile, final File destFile) throws IOException {
+    final Progress progress = resource.getProgress();
+    progress.addFiles(1);
     try {
+      final TargetOutput output = resource.getOutput();
+      if (output != null && output.contains(destFile)) {
+        final long size;
+        if (isToRender(destFile)) {
+          size = output.write(destFile, new TargetOutput.Content() {
+
+            @Override
+            public void write(final OutputStream out) throws IOException {
+              replacer.replacePlaceHolders(srcFile, destFile, out);
+            }
+          });
+        } else {
+          size = FilesDirsUtil.copyFile(srcFile, destFile, output);
+          progress.getStats().fileRead(size);
+        }
+        output.addRoot(destFile, resource.isToMergeDestDir());
+        LOG.info("File {} written to {}.", destFile, output);
+        progress.fileDone(destFile, size);
+        return;
+      }
+
       if (resource.isToWarnDestDir() && destFile.exists()) {
         final String message = "File " + destFile + " already exists and will be not overwritten.";
         LOG.error(message);
         throw new IllegalStateException(message);
       }
 
-      if (!srcFile.exists()) {
+      if (!ArchiveUtil.exists(srcFile)) {
         LOG.error("Can't get available templates. File {} doesn't exist.", srcFile);
       } else {
-        FileUtils.copyFile(srcFile, destFile);
+        FilesDirsUtil.copyFile(srcFile, destFile);
         LOG.info("File {} created.", destFile);
+        progress.getStats().fileRead(destFile);
+        progress.fileDone(destFile);
       }
 
     } catch (final IOException e) {
@@ -78,6 +125,23 @@ public class CopyFileCommand implements Command {
     }
   }
 
+  /**
+   * Check if place holders are replaced in the destination file
+   *
+   * @param destFile
+   *          - destination file
+   * @return true if the replacer is set and the file has one of the configured extensions
+   */
+  private boolean isToRender(final File destFile) {
+    return replacer != null
+        && resource.getExtensionsList().contains(FilenameUtils.getExtension(destFile.getName()));
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
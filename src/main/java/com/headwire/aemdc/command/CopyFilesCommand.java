@@ -5,13 +5,15 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.util.ArchiveUtil;
 import com.headwire.aemdc.util.FilesDirsUtil;
+import com.headwire.aemdc.util.TargetOutput;
 
 
 /**
@@ -48,54 +50,70 @@ public class CopyFilesCommand implements Command {
 
     LOG.debug("Copying files from [{}] to [{}] ...", sourcePath, targetPath);
 
-    if (!srcDir.exists()) {
+    if (!ArchiveUtil.exists(srcDir)) {
       LOG.error("Can't get available templates. Directory {} doesn't exist.", srcDir);
     } else {
-      final Collection<File> fileList = FileUtils.listFiles(srcDir, null, true);
+      final Collection<File> fileList = FilesDirsUtil.listFiles(srcDir);
 
       // set copied template names
       final List<String> copiedTemplateNames = FilesDirsUtil.getTemplateNames(srcDir, fileList);
       resource.setCopiedTemplateNames(copiedTemplateNames);
 
+      // copy files to the target output
+      final File targetDir = new File(targetPath);
+      final TargetOutput output = resource.getOutput();
+      if (output != null && output.contains(targetDir)) {
+        FilesDirsUtil.copyFiles(srcDir, targetDir, copiedTemplateNames, output, resource.getProgress());
+        for (final String nextName : copiedTemplateNames) {
+          output.addRoot(new File(targetDir, nextName), resource.isToMergeDestDir());
+          LOG.info("File {} written to {}.", new File(targetPath + "/" + nextName), output);
+        }
+        return;
+      }
+
+      // check all destination files before copying
+      for (final String nextName : copiedTemplateNames) {
+        checkDestFile(new File(targetDir, nextName));
+      }
+
       // copy files
-      for (final File nextFile : fileList) {
-        final File targetFile = new File(targetPath + "/" + FilesDirsUtil.getTemplateName(srcDir, nextFile));
-        copyFile(nextFile, targetFile);
+      try {
+        FilesDirsUtil.copyFiles(srcDir, targetDir, copiedTemplateNames, resource.getParallelThreads());
+      } catch (final IOException e) {
+        LOG.error("Can't copy source files from [{}] to destination directory [{}]", srcDir, targetDir);
+        throw new IOException(e);
+      }
+
+      final Progress progress = resource.getProgress();
+      progress.addFiles(copiedTemplateNames.size());
+      for (final String nextName : copiedTemplateNames) {
+        final File targetFile = new File(targetPath + "/" + nextName);
+        LOG.info("File {} created.", targetFile);
+        progress.getStats().fileRead(targetFile);
+        progress.fileDone(targetFile);
       }
     }
   }
 
   /**
-   * Copy source file to destination file
+   * Check existing destination file
    *
-   * @param srcFile
-   *          - source file
    * @param destFile
    *          - destination file
-   * @throws IOException
-   *           - IOException
    */
-  private void copyFile(final File srcFile, final File destFile) throws IOException {
-    try {
-      if (resource.isToWarnDestDir() && destFile.exists()) {
-        final String message = "File " + destFile + " already exists and will be not overwritten.";
-        LOG.error(message);
-        throw new IllegalStateException(message);
-      }
-
-      if (!srcFile.exists()) {
-        LOG.error("Can't get available templates. File {} doesn't exist.", srcFile);
-      } else {
-        FileUtils.copyFile(srcFile, destFile);
-        LOG.info("File {} created.", destFile);
-      }
-
-    } catch (final IOException e) {
-      LOG.error("Can't copy source file [{}] to destination file [{}]", srcFile, destFile);
-      throw new IOException(e);
+  private void checkDestFile(final File destFile) {
+    if (resource.isToWarnDestDir() && destFile.exists()) {
+      final String message = "File " + destFile + " already exists and will be not overwritten.";
+      LOG.error(message);
+      throw new IllegalStateException(message);
     }
   }
 
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
@@ -0,0 +1,262 @@
+package com.headwire.aemdc.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.util.ArchiveUtil;
+import com.headwire.aemdc.util.FilesDirsUtil;
+import com.headwire.aemdc.util.TargetOutput;
+
+
+/**
+ * Concrete command to copy templates, replace place holders and path place holders at once.
+ * It does the same as COPY_DIR/COPY_FILES,REPLACE_PH,REPLACE_PATH_PH, but reads
+ * each template file once and writes it directly to the final destination.
+ * If the target output is set, for ex. a content package, its files are streamed into the output.
+ * Without REPLACE_PATH_PH in the merged commands the path place holders are kept.
+ *
+ */
+public class CopyReplaceCommand implements Command {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CopyReplaceCommand.class);
+  public static final String NAME = "COPY_REPLACE";
+
+  private final Resource resource;
+  private final Config config;
+  private final Replacer replacer;
+  private final boolean toReplacePathPlaceHolders;
+
+  /**
+   * Constructor
+   *
+   * @param resource
+   *          - resource
+   */
+  public CopyReplaceCommand(final Resource resource, final Config config, final Replacer replacer) {
+    this(resource, config, replacer, true);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param resource
+   *          - resource
+   * @param toReplacePathPlaceHolders
+   *          - true to replace path place holders in the destination file names
+   */
+  public CopyReplaceCommand(final Resource resource, final Config config, final Replacer replacer,
+      final boolean toReplacePathPlaceHolders) {
+    this.resource = resource;
+    this.config = config;
+    this.replacer = replacer;
+    this.toReplacePathPlaceHolders = toReplacePathPlaceHolders;
+  }
+
+  @Override
+  public void execute() throws IOException {
+    final String sourcePath = resource.getSourceFolderPath() + "/" + resource.getSourceName();
+    final File srcDir = new File(sourcePath);
+
+    final boolean dirStructure = config.isDirTemplateStructure(resource.getType(), resource.getSourceName());
+    final String targetPath;
+    if (dirStructure) {
+      targetPath = resource.getTargetFolderPath() + "/" + getTargetNameAsPath(resource, config);
+    } else {
+      // add target sub package "own" from target name "own/MyServlet"
+      targetPath = resource.getTargetFolderPath() + getTargetSubPath();
+    }
+    final File targetDir = new File(targetPath);
+    final TargetOutput output = resource.getOutput();
+    final boolean toOutput = output != null && output.contains(targetDir);
+
+    LOG.debug("Copying files with replacing place holders from [{}] to [{}] ...", sourcePath, targetPath);
+
+    try {
+      if (dirStructure && !toOutput) {
+        prepareDestDirectory(targetDir);
+      }
+
+      if (!ArchiveUtil.exists(srcDir)) {
+        LOG.error("Can't get available templates. Directory {} doesn't exist.", srcDir);
+        return;
+      }
+
+      final Collection<File> fileList = FilesDirsUtil.listFiles(srcDir);
+
+      // set copied template names
+      final List<String> copiedTemplateNames = FilesDirsUtil.getTemplateNames(srcDir, fileList);
+      resource.setCopiedTemplateNames(copiedTemplateNames);
+
+      final List<String> allExtList = resource.getExtensionsList();
+      resource.getProgress().addFiles(fileList.size());
+      for (final File nextFile : fileList) {
+        final File targetFile = new File(targetPath + "/" + FilesDirsUtil.getTemplateName(srcDir, nextFile));
+        final String extension = FilenameUtils.getExtension(targetFile.getName());
+        if (toOutput) {
+          writeToOutput(nextFile, targetFile, allExtList.contains(extension), !dirStructure);
+        } else if (allExtList.contains(extension)) {
+          copyWithReplacing(nextFile, targetFile);
+        } else {
+          copyFile(nextFile, targetFile);
+        }
+      }
+
+      if (dirStructure && toOutput) {
+        output.addRoot(targetDir, resource.isToMergeDestDir());
+        LOG.info("Directory {} written to {}.", targetDir, output);
+      } else if (dirStructure) {
+        LOG.info("Directory {} created.", targetDir);
+      }
+
+    } catch (final IOException e) {
+      LOG.error("Can't create destination directory [{}] from source directory [{}]", srcDir, targetDir);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Check or delete existing destination directory
+   *
+   * @param destDir
+   *          - destination directory
+   * @throws IOException
+   *           - IOException
+   */
+  private void prepareDestDirectory(final File destDir) throws IOException {
+    if (resource.isToWarnDestDir() && destDir.exists()) {
+      final String message = "Directory " + destDir + " already exists and will be not overwritten.";
+      LOG.error(message);
+      throw new IllegalStateException(message);
+    }
+    if (resource.isToDeleteDestDir() && destDir.exists()) {
+      FileUtils.deleteDirectory(destDir);
+    }
+  }
+
+  /**
+   * Render template with replaced place holders to the destination file with replaced path place holders
+   *
+   * @param srcFile
+   *          - source template file
+   * @param destFile
+   *          - destination file with path place holders
+   * @throws IOException
+   *           - IOException
+   */
+  private void copyWithReplacing(final File srcFile, final File destFile) throws IOException {
+    final File newDestFile = getNewDestFile(destFile);
+
+    if (resource.isToWarnDestDir() && newDestFile.exists()) {
+      final String message = "File " + newDestFile + " already exists and will be not overwritten.";
+      LOG.error(message);
+      throw new IllegalStateException(message);
+    }
+
+    replacer.replacePlaceHolders(srcFile, destFile, newDestFile);
+    LOG.info("File {} created.", newDestFile);
+    resource.getProgress().fileDone(newDestFile);
+  }
+
+  /**
+   * Copy source file to destination file
+   *
+   * @param srcFile
+   *          - source file
+   * @param destFile
+   *          - destination file
+   * @throws IOException
+   *           - IOException
+   */
+  private void copyFile(final File srcFile, final File destFile) throws IOException {
+    if (resource.isToWarnDestDir() && destFile.exists()) {
+      final String message = "File " + destFile + " already exists and will be not overwritten.";
+      LOG.error(message);
+      throw new IllegalStateException(message);
+    }
+    FilesDirsUtil.copyFile(srcFile, destFile);
+    LOG.info("File {} created.", destFile);
+    resource.getProgress().getStats().fileRead(destFile);
+    resource.getProgress().fileDone(destFile);
+  }
+
+  /**
+   * Stream the template file into the target output
+   *
+   * @param srcFile
+   *          - source template file
+   * @param destFile
+   *          - destination file with path place holders
+   * @param withReplacing
+   *          - true to replace place holders
+   * @param withRoot
+   *          - true to add the file as root of the generated resource
+   * @throws IOException
+   *           - IOException
+   */
+  private void writeToOutput(final File srcFile, final File destFile, final boolean withReplacing,
+      final boolean withRoot) throws IOException {
+    final File newDestFile = withReplacing ? getNewDestFile(destFile) : destFile;
+    final TargetOutput output = resource.getOutput();
+
+    final long size;
+    if (withReplacing) {
+      size = output.write(newDestFile, new TargetOutput.Content() {
+
+        @Override
+        public void write(final OutputStream out) throws IOException {
+          replacer.replacePlaceHolders(srcFile, destFile, out);
+        }
+      });
+    } else {
+      size = FilesDirsUtil.copyFile(srcFile, newDestFile, output);
+      resource.getProgress().getStats().fileRead(size);
+    }
+
+    if (withRoot) {
+      output.addRoot(newDestFile, resource.isToMergeDestDir());
+    }
+    LOG.info("File {} written to {}.", newDestFile, output);
+    resource.getProgress().fileDone(newDestFile, size);
+  }
+
+  /**
+   * Get destination file with replaced path place holders
+   *
+   * @param destFile
+   *          - destination file with path place holders
+   * @return destination file with replaced path place holders or the same file if they are not replaced
+   */
+  private File getNewDestFile(final File destFile) {
+    if (!toReplacePathPlaceHolders) {
+      return destFile;
+    }
+    return new File(replacer.replacePathPlaceHolders(destFile.getPath()));
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public Resource getResource() {
+    return resource;
+  }
+
+  @Override
+  public Config getConfig() {
+    return config;
+  }
+
+}
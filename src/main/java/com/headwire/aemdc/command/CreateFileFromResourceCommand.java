@@ -3,13 +3,17 @@ package com.headwire.aemdc.command;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.util.TargetOutput;
 
 
 /**
@@ -59,14 +63,34 @@ public class CreateFileFromResourceCommand implements Command {
   private void createFile(final String sourcePath, final String targetPath) throws IOException {
     InputStream input = null;
     final File destFile = new File(targetPath);
+    final TargetOutput output = resource.getOutput();
+    final Progress progress = resource.getProgress();
+    progress.addFiles(1);
 
     try {
-      if (destFile.exists()) {
+      if (output != null && output.contains(destFile)) {
+        final long size = output.write(destFile, new TargetOutput.Content() {
+
+          @Override
+          public void write(final OutputStream out) throws IOException {
+            try (InputStream resourceInput = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(sourcePath)) {
+              IOUtils.copy(resourceInput, out);
+            }
+          }
+        });
+        output.addRoot(destFile, resource.isToMergeDestDir());
+        LOG.info("File {} written to {}.", destFile, output);
+        progress.getStats().fileRead(size);
+        progress.fileDone(destFile, size);
+      } else if (destFile.exists()) {
         LOG.error("File [{}] already exists and will be not overwritten.", destFile);
       } else {
         input = Thread.currentThread().getContextClassLoader().getResourceAsStream(sourcePath);
         FileUtils.copyInputStreamToFile(input, destFile);
         LOG.info("File {} created.", destFile);
+        progress.getStats().fileRead(destFile);
+        progress.fileDone(destFile);
       }
     } catch (final IOException e) {
       LOG.error("Can't create destination file [{}] from source file [{}]", destFile, sourcePath);
@@ -83,6 +107,11 @@ public class CreateFileFromResourceCommand implements Command {
     }
   }
 
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
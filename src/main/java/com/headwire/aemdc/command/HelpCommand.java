@@ -40,6 +40,11 @@ public class HelpCommand implements Command {
     help.showHelp();
   }
 
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
@@ -2,16 +2,23 @@ package com.headwire.aemdc.command;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
 import com.headwire.aemdc.companion.Resource;
 import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.util.FilesDirsUtil;
 
 
 /**
@@ -61,16 +68,35 @@ public class ReplacePathPlaceHoldersCommand implements Command {
     final List<String> allExtList = resource.getExtensionsList();
 
     if (dest.isDirectory()) {
-      // replace PH in only copied files
+      // replace PH in only copied files with the configured extensions
       final List<String> copiedTemplateNames = resource.getCopiedTemplateNames();
+      final Set<String> renamedNames = new HashSet<String>();
       for (final String nextName : copiedTemplateNames) {
-        final File targetFile = new File(targetPath + "/" + nextName);
-        final String extension = FilenameUtils.getExtension(targetFile.getName());
-        if (allExtList.contains(extension)) {
-          // replace path place holders
-          replacePathPlaceHolders(targetFile);
+        if (allExtList.contains(FilenameUtils.getExtension(nextName))) {
+          renamedNames.add(nextName);
         }
       }
+
+      // rename place holder directories at once, if they contain only the renamed files
+      renamePathPlaceHolderDirs(dest, renamedNames);
+
+      final List<String> newTemplateNames = new ArrayList<String>(copiedTemplateNames.size());
+      for (final String nextName : copiedTemplateNames) {
+        if (!allExtList.contains(FilenameUtils.getExtension(nextName))) {
+          // other files keep their path
+          newTemplateNames.add(nextName);
+          continue;
+        }
+        final String newDirName = replacer.replacePathPlaceHolders(getDirName(nextName));
+        final String fileName = FilenameUtils.getName(nextName);
+        final String newName = StringUtils.isEmpty(newDirName) ? fileName : newDirName + "/" + fileName;
+
+        // replace path place holders
+        final File targetFile = new File(targetPath + "/" + newName);
+        newTemplateNames.add(FilesDirsUtil.getTemplateName(dest, replacePathPlaceHolders(targetFile)));
+      }
+      resource.setCopiedTemplateNames(newTemplateNames);
+
     } else {
       final String extension = FilenameUtils.getExtension(dest.getName());
       if (allExtList.contains(extension)) {
@@ -80,14 +106,149 @@ public class ReplacePathPlaceHoldersCommand implements Command {
   }
 
   /**
-   * Replace path place holders in file
+   * Rename directories with path place holders from the deepest to the root directory.
+   *
+   * @param rootDir
+   *          - root target directory
+   * @param templateNames
+   *          - template names incl. subfolders to be renamed, updated to the new names
+   * @throws IOException
+   *           - IOException
+   */
+  private void renamePathPlaceHolderDirs(final File rootDir, final Set<String> templateNames) throws IOException {
+    // get all parent directories
+    final Set<String> dirNames = new TreeSet<String>(Collections.reverseOrder());
+    for (final String nextName : templateNames) {
+      String dirName = getDirName(nextName);
+      while (StringUtils.isNotEmpty(dirName)) {
+        dirNames.add(dirName);
+        dirName = getDirName(dirName);
+      }
+    }
+
+    // reverse order has subfolders before their parents
+    for (final String dirName : dirNames) {
+      final String lastName = FilenameUtils.getName(dirName);
+      final String newLastName = replacer.replacePathPlaceHolders(lastName);
+      if (!lastName.equals(newLastName)) {
+        final String parentName = getDirName(dirName);
+        final String newDirName = StringUtils.isEmpty(parentName) ? newLastName : parentName + "/" + newLastName;
+        moveDirectory(rootDir, dirName, newDirName, templateNames);
+      }
+    }
+  }
+
+  /**
+   * Move the template files of the directory to the new directory.
+   * The directory is moved at once, if the new directory doesn't exist and it contains only the template files.
+   * Otherwise the template files are moved one by one and all other files are kept.
+   *
+   * @param rootDir
+   *          - root target directory
+   * @param dirName
+   *          - directory name incl. subfolders
+   * @param newDirName
+   *          - new directory name incl. subfolders
+   * @param templateNames
+   *          - template names incl. subfolders to be renamed, updated to the new names
+   * @throws IOException
+   *           - IOException
+   */
+  private void moveDirectory(final File rootDir, final String dirName, final String newDirName,
+      final Set<String> templateNames) throws IOException {
+    final File srcDir = new File(rootDir, dirName);
+    final File destDir = new File(rootDir, newDirName);
+    try {
+      if (!srcDir.exists()) {
+        LOG.error("Can't get available templates. Directory {} doesn't exist.", srcDir);
+        return;
+      }
+
+      final String prefix = dirName + "/";
+      final List<String> dirTemplateNames = new ArrayList<String>();
+      for (final String nextName : templateNames) {
+        if (nextName.startsWith(prefix)) {
+          dirTemplateNames.add(nextName);
+        }
+      }
+
+      if (!destDir.exists() && containsOnly(rootDir, srcDir, templateNames)) {
+        FilesDirsUtil.move(srcDir, destDir);
+        LOG.debug("Directory {} moved to {}", srcDir, destDir);
+      } else {
+        for (final String nextName : dirTemplateNames) {
+          final File destFile = new File(destDir, nextName.substring(prefix.length()));
+          if (resource.isToWarnDestDir() && destFile.exists()) {
+            final String message = "File " + destFile + " already exists and will be not overwritten.";
+            LOG.error(message);
+            throw new IllegalStateException(message);
+          }
+          FilesDirsUtil.move(new File(rootDir, nextName), destFile);
+        }
+        deleteEmptyDirs(srcDir);
+        LOG.debug("Directory {} merged into {}", srcDir, destDir);
+      }
+
+      for (final String nextName : dirTemplateNames) {
+        templateNames.remove(nextName);
+        templateNames.add(newDirName + "/" + nextName.substring(prefix.length()));
+      }
+
+    } catch (final IOException e) {
+      LOG.error("Can't move directory [{}] to [{}]", srcDir, destDir);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Does the directory contain only the template files?
+   *
+   * @param rootDir
+   *          - root target directory
+   * @param dir
+   *          - directory under the root directory
+   * @param templateNames
+   *          - template names incl. subfolders
+   * @return true if all files of the directory are template files
+   */
+  private static boolean containsOnly(final File rootDir, final File dir, final Set<String> templateNames) {
+    for (final File file : FileUtils.listFiles(dir, null, true)) {
+      if (!templateNames.contains(FilesDirsUtil.getTemplateName(rootDir, file))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Delete the directory and its sub directories, if they are empty
+   *
+   * @param dir
+   *          - directory
+   */
+  private static void deleteEmptyDirs(final File dir) {
+    final File[] subDirs = dir.listFiles();
+    if (subDirs != null) {
+      for (final File subDir : subDirs) {
+        if (subDir.isDirectory()) {
+          deleteEmptyDirs(subDir);
+        }
+      }
+    }
+    // only empty directory is deleted
+    dir.delete();
+  }
+
+  /**
+   * Replace path place holders in file name
    *
    * @param srcFile
-   *          - file to be renamed/removed
+   *          - file to be renamed
+   * @return renamed file
    * @throws IOException
    *           - IOException
    */
-  private void replacePathPlaceHolders(final File srcFile) throws IOException {
+  private File replacePathPlaceHolders(final File srcFile) throws IOException {
     try {
       final String filePath = srcFile.getPath();
       final String newPath = replacer.replacePathPlaceHolders(filePath);
@@ -105,11 +266,12 @@ public class ReplacePathPlaceHoldersCommand implements Command {
         if (!srcFile.exists()) {
           LOG.error("Can't get available templates. File {} doesn't exist.", srcFile);
         } else {
-          FileUtils.copyFile(srcFile, destFile);
-          FileUtils.deleteQuietly(srcFile);
-          LOG.debug("File {} removed to {}", srcFile, destFile);
+          FilesDirsUtil.move(srcFile, destFile);
+          LOG.debug("File {} moved to {}", srcFile, destFile);
+          return destFile;
         }
       }
+      return srcFile;
 
     } catch (final IOException e) {
       LOG.error("Can't replace path place holders in the file [{}]", srcFile);
@@ -117,6 +279,23 @@ public class ReplacePathPlaceHoldersCommand implements Command {
     }
   }
 
+  /**
+   * Get parent directory name of the template name
+   *
+   * @param templateName
+   *          - template name incl. subfolders
+   * @return parent directory name or empty string
+   */
+  private String getDirName(final String templateName) {
+    final int index = templateName.lastIndexOf('/');
+    return index < 0 ? "" : templateName.substring(0, index);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
@@ -2,15 +2,23 @@ package com.headwire.aemdc.command;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.companion.Stats;
 import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.util.ArchiveUtil;
+import com.headwire.aemdc.util.ParallelUtil;
+import com.headwire.aemdc.util.TargetOutput;
 
 
 /**
@@ -51,6 +59,11 @@ public class ReplacePlaceHoldersCommand implements Command {
     LOG.debug("Replacing place holders in the directory/file [{}] ...", targetPath);
 
     final File dest = new File(targetPath);
+    final TargetOutput output = resource.getOutput();
+    if (output != null && output.contains(dest) && !dest.isDirectory()) {
+      replacePlaceHolders(dest, output);
+      return;
+    }
 
     if (!dest.exists()) {
       final String message = "Can't replace place holders. Directory/file " + dest + " doesn't exist.";
@@ -62,15 +75,41 @@ public class ReplacePlaceHoldersCommand implements Command {
 
     if (dest.isDirectory()) {
       // replace PH in only copied files
+      final String sourcePath = resource.getSourceFolderPath() + "/" + resource.getSourceName();
       final List<String> copiedTemplateNames = resource.getCopiedTemplateNames();
+      final List<String> replacedNames = new ArrayList<String>();
+      final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
       for (final String nextName : copiedTemplateNames) {
         final File targetFile = new File(targetPath + "/" + nextName);
         final String extension = FilenameUtils.getExtension(targetFile.getName());
         if (allExtList.contains(extension)) {
-          replacer.replacePlaceHolders(targetFile);
+          // copied file is equal to the template file, so use the compiled template
+          final File templateFile = new File(sourcePath + "/" + nextName);
+          replacedNames.add(nextName);
+          tasks.add(new Callable<Void>() {
+
+            @Override
+            public Void call() throws IOException {
+              resource.getProgress().checkCancelled();
+              if (ArchiveUtil.isFile(templateFile)) {
+                replacer.replacePlaceHolders(templateFile, targetFile);
+              } else {
+                replacer.replacePlaceHolders(targetFile);
+              }
+              return null;
+            }
+          });
         }
       }
 
+      ParallelUtil.invokeAll(tasks, resource.getParallelThreads(), NAME);
+
+      // summary in the order of copied files
+      for (final String nextName : replacedNames) {
+        LOG.debug("Place holders replaced in [{}]", nextName);
+      }
+      LOG.debug("Place holders replaced in {} files in the directory [{}]", replacedNames.size(), targetPath);
+
     } else {
       final String extension = FilenameUtils.getExtension(dest.getName());
       if (allExtList.contains(extension)) {
@@ -79,6 +118,42 @@ public class ReplacePlaceHoldersCommand implements Command {
     }
   }
 
+  /**
+   * Replace place holders in the file of the target output
+   *
+   * @param dest
+   *          - destination file
+   * @param output
+   *          - target output
+   * @throws IOException
+   *           - IOException
+   */
+  private void replacePlaceHolders(final File dest, final TargetOutput output) throws IOException {
+    final String extension = FilenameUtils.getExtension(dest.getName());
+    if (!resource.getExtensionsList().contains(extension)) {
+      return;
+    }
+    final byte[] content = output.read(dest);
+    final String text = new String(content, Constants.ENCODING);
+    final String fileText = replacer.replacePlaceHolders(text, dest);
+    final long size = output.write(dest, new TargetOutput.Content() {
+
+      @Override
+      public void write(final OutputStream out) throws IOException {
+        out.write(fileText.getBytes(Constants.ENCODING));
+      }
+    });
+    final Stats stats = resource.getProgress().getStats();
+    stats.fileRead(content.length);
+    stats.fileWritten(size);
+    LOG.debug("Place holders replaced in the file [{}]", dest);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
   @Override
   public Resource getResource() {
     return resource;
@@ -0,0 +1,213 @@
+package com.headwire.aemdc.companion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.runner.BasisRunner;
+import com.headwire.aemdc.util.ParallelUtil;
+import com.headwire.aemdc.util.TargetOutput;
+
+
+/**
+ * Batch Companion runs all rows of a manifest file in one process.
+ * Config and Reflection are created once and shared by all rows.
+ *
+ */
+public class BatchCompanion {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchCompanion.class);
+
+  private final Config config;
+  private final Reflection reflection;
+  private TargetOutput output;
+  private Progress progress;
+
+  /**
+   * Constructor
+   *
+   * @param config
+   *          - properties config
+   */
+  public BatchCompanion(final Config config) {
+    this.config = config;
+    this.reflection = new Reflection(config);
+
+    // read dynamic types once before the parallel run
+    config.getDynamicTypes();
+  }
+
+  /**
+   * Set output for the generated files of all rows
+   *
+   * @param output
+   *          - content package, memory output or null to create the files in the file system
+   */
+  public void setOutput(final TargetOutput output) {
+    this.output = output;
+  }
+
+  /**
+   * Set progress shared by all rows
+   *
+   * @param progress
+   *          - progress of the generation or null
+   */
+  public void setProgress(final Progress progress) {
+    this.progress = progress;
+  }
+
+  /**
+   * Run all manifest rows and log the report.
+   * Rows run in parallel, if PARALLEL_THREADS config property is bigger than 1.
+   *
+   * @param manifestFile
+   *          - CSV or JSON manifest file
+   * @param tempFolder
+   *          - temp folder to create all templates under or null
+   * @return row results in the order of the manifest
+   * @throws IOException
+   *           - if the manifest can't be read or any row failed
+   */
+  public List<Result> run(final File manifestFile, final String tempFolder) throws IOException {
+    final List<String[]> rows = BatchManifest.read(manifestFile);
+    final long start = System.nanoTime();
+
+    final List<Callable<Result>> tasks = new ArrayList<Callable<Result>>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      final int number = i + 1;
+      final String[] rowArgs = rows.get(i);
+      tasks.add(new Callable<Result>() {
+
+        @Override
+        public Result call() {
+          return runRow(number, rowArgs, tempFolder);
+        }
+      });
+    }
+
+    final List<Result> results = ParallelUtil.invokeAll(tasks, config.getParallelThreads(), "batch");
+    final long time = (System.nanoTime() - start) / 1000000;
+
+    // report in the order of the manifest
+    int failed = 0;
+    LOG.info("Batch report for manifest {}:", manifestFile);
+    for (final Result result : results) {
+      LOG.info(String.format("%5d %-6s %8d ms  %s", result.getNumber(), result.isSuccess() ? "OK" : "FAILED",
+          result.getTime(), StringUtils.join(result.getArgs(), " ")));
+      if (!result.isSuccess()) {
+        failed++;
+        LOG.error("Row {} failed: {}", result.getNumber(), result.getError());
+      }
+    }
+    LOG.info("{} rows done, {} failed in {} ms.", results.size(), failed, time);
+
+    if (failed > 0) {
+      throw new IOException(failed + " of " + results.size() + " manifest rows failed.");
+    }
+    return results;
+  }
+
+  /**
+   * Run one manifest row
+   *
+   * @param number
+   *          - row number
+   * @param args
+   *          - row arguments
+   * @param tempFolder
+   *          - temp folder to create the templates under or null
+   * @return row result
+   */
+  private Result runRow(final int number, final String[] args, final String tempFolder) {
+    final long start = System.nanoTime();
+    String error = null;
+    try {
+      String[] cmdArgs = args;
+      if (StringUtils.isNotBlank(tempFolder)) {
+        cmdArgs = ArrayUtils.add(args, 0, Constants.PARAM_OPTION_TEMP + "=" + tempFolder);
+      }
+      final Resource resource = new Resource(cmdArgs);
+      resource.setOutput(output);
+      if (progress != null) {
+        resource.setProgress(progress);
+      }
+      final BasisRunner runner = resource.isHelp() ? null : reflection.getRunner(resource);
+      if (runner == null) {
+        error = "Unknown or incomplete arguments.";
+      } else {
+        final Stats stats = resource.getProgress().getStats();
+        final Stats.Sample sample = stats
+            .start(Stats.TIMER_RUNNER + resource.getType() + ":" + resource.getSourceName());
+        try {
+          runner.run();
+        } finally {
+          stats.stop(sample);
+        }
+      }
+    } catch (final Exception e) {
+      error = String.valueOf(e.getMessage());
+    }
+    return new Result(number, args, error, (System.nanoTime() - start) / 1000000);
+  }
+
+  /**
+   * Result of one manifest row
+   */
+  public static class Result {
+
+    private final int number;
+    private final String[] args;
+    private final String error;
+    private final long time;
+
+    Result(final int number, final String[] args, final String error, final long time) {
+      this.number = number;
+      this.args = args;
+      this.error = error;
+      this.time = time;
+    }
+
+    /**
+     * @return the row number
+     */
+    public int getNumber() {
+      return number;
+    }
+
+    /**
+     * @return the row arguments
+     */
+    public String[] getArgs() {
+      return args;
+    }
+
+    /**
+     * @return the error message or null
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * @return the running time in ms
+     */
+    public long getTime() {
+      return time;
+    }
+
+    /**
+     * @return true if the row was successful
+     */
+    public boolean isSuccess() {
+      return error == null;
+    }
+  }
+}
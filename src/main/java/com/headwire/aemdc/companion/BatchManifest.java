@@ -0,0 +1,267 @@
+package com.headwire.aemdc.companion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Batch manifest reader. Every manifest row has the same arguments as the command line:
+ * {@code <type> [name] [targetname] [args...]}
+ * <p>
+ * CSV manifest: one row per line, comma separated, values with commas or quotes in double quotes,
+ * empty lines and lines starting with # are ignored.<br>
+ * JSON manifest: array of rows, every row is an array of strings.
+ * </p>
+ *
+ */
+public class BatchManifest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchManifest.class);
+
+  public static final String EXTENSION_JSON = "json";
+
+  /**
+   * Constructor
+   *
+   */
+  private BatchManifest() {
+  }
+
+  /**
+   * Read manifest rows from CSV or JSON file
+   *
+   * @param manifestFile
+   *          - manifest file
+   * @return manifest rows with arguments
+   * @throws IOException
+   *           - IOException
+   */
+  public static List<String[]> read(final File manifestFile) throws IOException {
+    try {
+      final String text = FileUtils.readFileToString(manifestFile, Constants.ENCODING);
+      final List<String[]> rows;
+      if (EXTENSION_JSON.equalsIgnoreCase(FilenameUtils.getExtension(manifestFile.getName()))) {
+        rows = parseJson(text);
+      } else {
+        rows = parseCsv(text);
+      }
+      LOG.debug("{} rows read from manifest [{}]", rows.size(), manifestFile);
+      return rows;
+
+    } catch (final IOException e) {
+      LOG.error("Can't read manifest file [{}]", manifestFile);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Parse CSV manifest
+   *
+   * @param text
+   *          - manifest text
+   * @return manifest rows
+   */
+  public static List<String[]> parseCsv(final String text) {
+    final List<String[]> rows = new ArrayList<String[]>();
+    final List<String> row = new ArrayList<String>();
+    final StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    boolean lineStart = true;
+    boolean comment = false;
+
+    for (int i = 0; i <= text.length(); i++) {
+      final char c = i < text.length() ? text.charAt(i) : '\n';
+
+      if (comment) {
+        if (c == '\n') {
+          comment = false;
+        }
+        continue;
+      }
+      if (lineStart && c == '#') {
+        comment = true;
+        continue;
+      }
+      lineStart = false;
+
+      if (quoted) {
+        if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+          value.append(c);
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          value.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        row.add(value.toString().trim());
+        value.setLength(0);
+      } else if (c == '\n') {
+        row.add(value.toString().trim());
+        value.setLength(0);
+        addRow(rows, row);
+        row.clear();
+        lineStart = true;
+      } else if (c != '\r') {
+        value.append(c);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Parse JSON manifest
+   *
+   * @param text
+   *          - manifest text
+   * @return manifest rows
+   * @throws IOException
+   *           - if the text isn't an array of string arrays
+   */
+  public static List<String[]> parseJson(final String text) throws IOException {
+    final List<String[]> rows = new ArrayList<String[]>();
+    final JsonReader reader = new JsonReader(text);
+
+    reader.expect('[');
+    if (!reader.next(']')) {
+      do {
+        final List<String> row = new ArrayList<String>();
+        reader.expect('[');
+        if (!reader.next(']')) {
+          do {
+            row.add(reader.readString());
+          } while (reader.next(','));
+          reader.expect(']');
+        }
+        addRow(rows, row);
+      } while (reader.next(','));
+      reader.expect(']');
+    }
+    reader.expectEnd();
+    return rows;
+  }
+
+  /**
+   * Add not empty row
+   *
+   * @param rows
+   *          - manifest rows
+   * @param row
+   *          - row values
+   */
+  private static void addRow(final List<String[]> rows, final List<String> row) {
+    final List<String> args = new ArrayList<String>(row);
+    // remove empty trailing values
+    while (!args.isEmpty() && StringUtils.isEmpty(args.get(args.size() - 1))) {
+      args.remove(args.size() - 1);
+    }
+    if (!args.isEmpty()) {
+      rows.add(args.toArray(new String[args.size()]));
+    }
+  }
+
+  /**
+   * Minimal reader for JSON arrays of strings
+   */
+  private static class JsonReader {
+
+    private final String text;
+    private int pos;
+
+    JsonReader(final String text) {
+      this.text = text;
+    }
+
+    boolean next(final char c) {
+      skipWhitespace();
+      if (pos < text.length() && text.charAt(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    void expect(final char c) throws IOException {
+      if (!next(c)) {
+        throw error("'" + c + "' expected");
+      }
+    }
+
+    void expectEnd() throws IOException {
+      skipWhitespace();
+      if (pos < text.length()) {
+        throw error("end of manifest expected");
+      }
+    }
+
+    String readString() throws IOException {
+      expect('"');
+      final StringBuilder value = new StringBuilder();
+      while (pos < text.length()) {
+        final char c = text.charAt(pos++);
+        if (c == '"') {
+          return value.toString();
+        }
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        if (pos >= text.length()) {
+          break;
+        }
+        final char escaped = text.charAt(pos++);
+        switch (escaped) {
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'u':
+            if (pos + 4 > text.length()) {
+              throw error("wrong unicode escape");
+            }
+            try {
+              value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+            } catch (final NumberFormatException e) {
+              throw error("wrong unicode escape");
+            }
+            pos += 4;
+            break;
+          default:
+            value.append(escaped);
+        }
+      }
+      throw error("unterminated string");
+    }
+
+    private void skipWhitespace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    private IOException error(final String message) {
+      return new IOException("Wrong JSON manifest at position " + pos + ": " + message);
+    }
+  }
+}
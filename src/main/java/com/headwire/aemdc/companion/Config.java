@@ -1,13 +1,19 @@
 package com.headwire.aemdc.companion;
 
+import com.headwire.aemdc.jfr.ConfigLoadEvent;
+import com.headwire.aemdc.jfr.FlightEvents;
 import com.headwire.aemdc.runner.ConfigPropsRunner;
+import com.headwire.aemdc.util.ArchiveUtil;
 import com.headwire.aemdc.util.FilesDirsUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -24,8 +30,17 @@ public class Config {
   private final String configPropertiesFileName;
   private final Properties defaultConfigProps;
   private final Properties configProps;
-  private final Map<String, Properties> dynamicConfigs = new HashMap<String, Properties>();
-  private Collection<String> dynamicTypes;
+  // resolved global path place holders reused for all dynamic configs
+  private final PathPlaceHolderResolver pathResolver;
+  // dynamic configs are loaded on demand and memoized per key
+  private final ConcurrentMap<String, Properties> dynamicConfigs = new ConcurrentHashMap<String, Properties>();
+  private final ConcurrentMap<String, Collection<String>> templateNames = new ConcurrentHashMap<String, Collection<String>>();
+  private volatile Collection<String> dynamicTypes;
+  // source files and folders of everything loaded so far
+  private final ConfigSnapshot.Fingerprint fingerprint = new ConfigSnapshot.Fingerprint();
+  private final File configFile;
+  // true if something was loaded after the snapshot was read or written
+  private volatile boolean snapshotOutdated;
 
   /**
    * Constructor
@@ -50,29 +65,32 @@ public class Config {
 
     this.baseFolder = baseFolder;
     this.configPropertiesFileName = configPropertiesFileName;
+    final ConfigLoadEvent event = FlightEvents.beginConfigLoad();
 
     // init default configuration file properties from resources folder
     defaultConfigProps = FilesDirsUtil
         .getPropertiesFromContextClassLoader(
             ConfigPropsRunner.SOURCE_NAME_FOLDER + "/" + ConfigPropsRunner.CONFIG_PROPS_FILENAME);
 
-    // init config properties
-    configProps = replacePathPlaceHolders(
-        FilesDirsUtil.getProperties(baseFolder.getPath() + "/" + configPropertiesFileName));
-
-    // init dynamic configs
-    for (final String type : getDynamicTypes()) {
-      Properties dynProps = readDynamicProperties(type, null);
-
-      Key key = new Key(type, "");
-      dynamicConfigs.put(key.getKey(), dynProps);
-
-      for (final String name : getTemplateNames(type)) {
-        dynProps = readDynamicProperties(type, name);
-        key = new Key(type, name);
-        dynamicConfigs.put(key.getKey(), dynProps);
-      }
+    // init config properties and dynamic configs from the snapshot, if the configuration is unchanged
+    configFile = new File(baseFolder.getPath() + "/" + configPropertiesFileName);
+    final ConfigSnapshot snapshot = readSnapshot(configFile);
+    if (snapshot != null) {
+      fingerprint.addAll(snapshot.fingerprint);
+      configProps = snapshot.configProps;
+      pathResolver = getDynamicPathResolver(configProps);
+      dynamicTypes = snapshot.dynamicTypes;
+      templateNames.putAll(snapshot.templateNames);
+      dynamicConfigs.putAll(snapshot.dynamicConfigs);
+    } else {
+      // init config properties, the snapshot is written by saveSnapshot() with the configs loaded until then
+      fingerprint.add(configFile);
+      final Properties props = FilesDirsUtil.getProperties(baseFolder.getPath() + "/" + configPropertiesFileName);
+      configProps = replacePathPlaceHolders(props);
+      pathResolver = getDynamicPathResolver(configProps);
+      snapshotOutdated = true;
     }
+    FlightEvents.endConfigLoad(event, configFile, snapshot != null);
   }
 
   /**
@@ -117,7 +135,8 @@ public class Config {
    * @return true - if all paths exist, false - otherwise
    */
   public boolean checkConfiguration() {
-    final List<String> validationReports = validateConfiguration();
+    // dynamic configs are checked on loading
+    final List<String> validationReports = validateConfiguration(false);
     final boolean status = validationReports.isEmpty();
     if (!status) {
       for (final String report : validationReports) {
@@ -142,11 +161,22 @@ public class Config {
   }
 
   /**
-   * Check the Configuration and report any issues
+   * Check the Configuration incl. all dynamic configs and report any issues
    *
    * @return List of Configuration Issues or empty if OK
    */
   public List<String> validateConfiguration() {
+    return validateConfiguration(true);
+  }
+
+  /**
+   * Check the Configuration and report any issues
+   *
+   * @param fullLoad
+   *          - true to load and check all dynamic configs, false to check only already loaded ones
+   * @return List of Configuration Issues or empty if OK
+   */
+  public List<String> validateConfiguration(final boolean fullLoad) {
     final List<String> answer = new ArrayList<>();
     // String configPath = baseFolder.getPath() + "/" + configPropertiesFileName;
     if (!configProps.isEmpty()) {
@@ -159,7 +189,7 @@ public class Config {
                   + configPropertiesFileName + "].");
         } else {
           final File file = new File(path);
-          if (!file.exists()) {
+          if (!ArchiveUtil.exists(file)) {
             answer.add(
                 "The path [" + path + "] of key [" + pathKey + "] from configuration properties file ["
                     + configPropertiesFileName + "] doesn't exist.");
@@ -177,39 +207,11 @@ public class Config {
       }
 
       // validate dynamic config properties
-      for (final Map.Entry<String, Properties> entry : dynamicConfigs.entrySet()) {
-        final Properties dynProps = entry.getValue();
-        final Key key = new Key(entry.getKey());
-        final String dynType = key.getType();
-        final String dynName = key.getName();
-
-        for (final String pathKey : Constants.DYN_SOURCE_PATHS) {
-          final String path = dynProps.getProperty(pathKey);
-          if (StringUtils.isBlank(path)) {
-            answer.add(
-                "Please configure the source key [" + pathKey + "] for the template type [" + dynType + "] " +
-                    "and name [" + dynName + "] in the configuration properties file ["
-                    + getDynamicConfigPath(dynType, dynName) + "].");
-          } else {
-            final File file = new File(path);
-            if (!file.exists()) {
-              answer.add(
-                  "The path [" + pathKey + "] for the template type [" + dynType + "] and name [" + dynName + "] " +
-                      "from the configuration property files [" + getDynamicConfigPath(dynType, null) + "] " +
-                      "and [" + getDynamicConfigPath(dynType, dynName) + "] doesn't exist.");
-            }
-          }
-        }
-
-        for (final String pathKey : Constants.DYN_CONFIGPROPS_OTHER) {
-          if (!dynProps.containsKey(pathKey)) {
-            answer.add(
-                "Please configure the key [" + pathKey + "] for the template type [" + dynType + "] and name ["
-                    + dynName + "] " +
-                    "in the configuration property files [+ " + getDynamicConfigPath(dynType, null) + "] " +
-                    " or [" + getDynamicConfigPath(dynType, dynName) + "].");
-          }
-        }
+      if (fullLoad) {
+        loadAllDynamicProperties();
+      }
+      for (final Map.Entry<String, Properties> entry : new TreeMap<String, Properties>(dynamicConfigs).entrySet()) {
+        answer.addAll(validateDynamicProperties(new Key(entry.getKey()), entry.getValue()));
       }
     } else {
       answer.add(
@@ -219,6 +221,50 @@ public class Config {
     return answer;
   }
 
+  /**
+   * Check the dynamic configuration properties and report any issues
+   *
+   * @param key
+   *          - dynamic config key
+   * @param dynProps
+   *          - dynamic configuration properties
+   * @return List of Configuration Issues or empty if OK
+   */
+  private List<String> validateDynamicProperties(final Key key, final Properties dynProps) {
+    final List<String> answer = new ArrayList<>();
+    final String dynType = key.getType();
+    final String dynName = key.getName();
+
+    for (final String pathKey : Constants.DYN_SOURCE_PATHS) {
+      final String path = dynProps.getProperty(pathKey);
+      if (StringUtils.isBlank(path)) {
+        answer.add(
+            "Please configure the source key [" + pathKey + "] for the template type [" + dynType + "] " +
+                "and name [" + dynName + "] in the configuration properties file ["
+                + getDynamicConfigPath(dynType, dynName) + "].");
+      } else {
+        final File file = new File(path);
+        if (!ArchiveUtil.exists(file)) {
+          answer.add(
+              "The path [" + pathKey + "] for the template type [" + dynType + "] and name [" + dynName + "] " +
+                  "from the configuration property files [" + getDynamicConfigPath(dynType, null) + "] " +
+                  "and [" + getDynamicConfigPath(dynType, dynName) + "] doesn't exist.");
+        }
+      }
+    }
+
+    for (final String pathKey : Constants.DYN_CONFIGPROPS_OTHER) {
+      if (!dynProps.containsKey(pathKey)) {
+        answer.add(
+            "Please configure the key [" + pathKey + "] for the template type [" + dynType + "] and name ["
+                + dynName + "] " +
+                "in the configuration property files [+ " + getDynamicConfigPath(dynType, null) + "] " +
+                " or [" + getDynamicConfigPath(dynType, dynName) + "].");
+      }
+    }
+    return answer;
+  }
+
   /**
    * Get property value
    *
@@ -306,17 +352,71 @@ public class Config {
    * @return dynamic type configuration properties
    */
   public Properties getDynamicProperties(final String type, final String name) {
+    if (!isDynamicType(type)) {
+      return null;
+    }
+
     Key key = new Key(type, name);
     Properties dynProps = dynamicConfigs.get(key.getKey());
 
     if (dynProps == null) {
-      LOG.debug("Unknown [name] argument [{}].", name);
-      key = new Key(type, null);
-      dynProps = dynamicConfigs.get(key.getKey());
+      if (StringUtils.isNotBlank(name) && getTemplateNames(type).contains(name)) {
+        dynProps = loadDynamicProperties(key);
+      } else {
+        LOG.debug("Unknown [name] argument [{}].", name);
+        key = new Key(type, null);
+        dynProps = dynamicConfigs.get(key.getKey());
+        if (dynProps == null) {
+          dynProps = loadDynamicProperties(key);
+        }
+      }
+    }
+    return dynProps;
+  }
+
+  /**
+   * Read dynamic configuration properties once and report their issues
+   *
+   * @param key
+   *          - dynamic config key
+   * @return dynamic configuration properties
+   */
+  private Properties loadDynamicProperties(final Key key) {
+    final Properties dynProps = readDynamicProperties(key.getType(), key.getName());
+    final Properties oldProps = dynamicConfigs.putIfAbsent(key.getKey(), dynProps);
+    if (oldProps != null) {
+      // loaded by another thread
+      return oldProps;
+    }
+
+    LOG.debug("Dynamic config [{}] loaded.", key.getKey());
+    if (!configProps.isEmpty()) {
+      for (final String report : validateDynamicProperties(key, dynProps)) {
+        LOG.error(report);
+      }
     }
     return dynProps;
   }
 
+  /**
+   * Load all not yet loaded dynamic configs of all types and templates
+   */
+  private void loadAllDynamicProperties() {
+    for (final String type : getDynamicTypes()) {
+      Key key = new Key(type, null);
+      if (!dynamicConfigs.containsKey(key.getKey())) {
+        dynamicConfigs.putIfAbsent(key.getKey(), readDynamicProperties(type, null));
+      }
+
+      for (final String name : getTemplateNames(type)) {
+        key = new Key(type, name);
+        if (!dynamicConfigs.containsKey(key.getKey())) {
+          dynamicConfigs.putIfAbsent(key.getKey(), readDynamicProperties(type, name));
+        }
+      }
+    }
+  }
+
   /**
    * Get dynamic types from placeholders aemdc-files project
    *
@@ -331,7 +431,13 @@ public class Config {
 
       if (StringUtils.isNotBlank(typesDirPath)) {
         final File dir = new File(typesDirPath);
-        if (dir.exists()) {
+        fingerprint.add(dir);
+        // any change of the templates archive invalidates the loaded types
+        final File archive = ArchiveUtil.getArchive(dir);
+        if (archive != null) {
+          fingerprint.add(archive);
+        }
+        if (ArchiveUtil.exists(dir)) {
           list = FilesDirsUtil.listRootDirNames(dir);
         }
       }
@@ -342,6 +448,7 @@ public class Config {
       }
 
       dynamicTypes = list;
+      snapshotOutdated = true;
     }
     return dynamicTypes;
   }
@@ -361,6 +468,22 @@ public class Config {
    * @return template names list
    */
   public Collection<String> getTemplateNames(final String type) {
+    Collection<String> list = templateNames.get(type);
+    if (list == null) {
+      list = readTemplateNames(type);
+      templateNames.putIfAbsent(type, list);
+    }
+    return new ArrayList<String>(list);
+  }
+
+  /**
+   * Read template names from placeholders aemdc-files project
+   *
+   * @param type
+   *          - dynamic template type
+   * @return template names list
+   */
+  private Collection<String> readTemplateNames(final String type) {
     Collection<String> list = new ArrayList<String>();
 
     // Get type templates dir
@@ -368,7 +491,8 @@ public class Config {
 
     if (StringUtils.isNotBlank(path)) {
       final File dir = new File(path);
-      if (dir.exists()) {
+      fingerprint.add(dir);
+      if (ArchiveUtil.exists(dir)) {
         list = FilesDirsUtil.listRootDirNames(dir);
       }
     }
@@ -378,6 +502,7 @@ public class Config {
       list.remove(denyType);
     }
 
+    snapshotOutdated = true;
     return list;
   }
 
@@ -412,6 +537,52 @@ public class Config {
     return extensions;
   }
 
+  /**
+   * Get file size in bytes, above which the place holders are replaced in the streaming mode
+   *
+   * @return streaming threshold in bytes
+   */
+  public long getStreamingThreshold() {
+    return getNumberProperty(Constants.CONFIGPROP_STREAMING_THRESHOLD, Constants.STREAMING_THRESHOLD_DEFAULT);
+  }
+
+  /**
+   * Get max number of threads to process files in parallel.
+   * 1 means sequential processing, 0 or less means number of available processors.
+   *
+   * @return number of threads
+   */
+  public int getParallelThreads() {
+    final int threads = (int) getNumberProperty(Constants.CONFIGPROP_PARALLEL_THREADS,
+        Constants.PARALLEL_THREADS_DEFAULT);
+    if (threads < 1) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    return threads;
+  }
+
+  /**
+   * Get number value of the configuration property
+   *
+   * @param key
+   *          - configuration property key
+   * @param defaultValue
+   *          - default value if the property is empty or wrong
+   * @return number value
+   */
+  private long getNumberProperty(final String key, final long defaultValue) {
+    final String valueAsString = configProps.getProperty(key);
+    long value = defaultValue;
+    if (StringUtils.isNotBlank(valueAsString)) {
+      try {
+        value = Long.parseLong(valueAsString.trim());
+      } catch (final NumberFormatException e) {
+        LOG.error("Wrong number [{}] of the configuration key [{}].", valueAsString, key);
+      }
+    }
+    return value;
+  }
+
   /**
    * Get forbidden template types
    *
@@ -498,6 +669,44 @@ public class Config {
     return list;
   }
 
+  /**
+   * Get ordering edges between the compound members for the compound type.
+   * COMPOUND_ORDER is a comma separated list of "before>after" edges, where each side
+   * is a compound member "type:name" or a "type" for all members of the type.
+   *
+   * @param name
+   *          - compound template name
+   * @return preceding members by the member
+   */
+  public Map<String, Set<String>> getCompoundOrder(final String name) {
+    final Map<String, Set<String>> order = new LinkedHashMap<String, Set<String>>();
+
+    final Properties dynProps = getDynamicProperties(Constants.TYPE_COMPOUND, name);
+    if (dynProps != null) {
+      final String orderAsString = dynProps.getProperty(Constants.DYN_CONFIGPROP_COMPOUND_ORDER);
+
+      if (StringUtils.isNotBlank(orderAsString)) {
+        for (final String edge : orderAsString.split(",")) {
+          final String[] splited = edge.split(">");
+          if (splited.length != 2 || StringUtils.isBlank(splited[0]) || StringUtils.isBlank(splited[1])) {
+            LOG.error("Invalid compound order [{}] for compound template [{}]. Expected is <before>'>'<after>.",
+                edge.trim(), name);
+            continue;
+          }
+
+          final String after = splited[1].trim();
+          Set<String> set = order.get(after);
+          if (set == null) {
+            set = new LinkedHashSet<String>();
+            order.put(after, set);
+          }
+          set.add(splited[0].trim());
+        }
+      }
+    }
+    return order;
+  }
+
   /**
    * Is template structure directory or file?
    *
@@ -519,6 +728,95 @@ public class Config {
     return result;
   }
 
+  /**
+   * Read valid configuration snapshot from the cache folder
+   *
+   * @param configFile
+   *          - configuration properties file
+   * @return snapshot or null if there is no valid snapshot
+   */
+  private ConfigSnapshot readSnapshot(final File configFile) {
+    if (!isSnapshotEnabled() || !configFile.isFile()) {
+      return null;
+    }
+    try {
+      final File snapshotFile = ConfigSnapshot.getSnapshotFile(configFile);
+      final ConfigSnapshot snapshot = ConfigSnapshot.read(snapshotFile, ConfigSnapshot.getId(configFile));
+      if (snapshot != null && snapshot.isValid()) {
+        LOG.debug("Configuration loaded from snapshot [{}].", snapshotFile);
+        return snapshot;
+      }
+    } catch (final IOException e) {
+      LOG.debug("Can't read configuration snapshot.", e);
+    }
+    return null;
+  }
+
+  /**
+   * Write the configuration snapshot with the config properties and all dynamic types, template names
+   * and dynamic configs loaded so far to the cache folder, if something was loaded since the snapshot
+   * was read or written. The snapshot fingerprint contains all read files and listed folders.
+   */
+  public void saveSnapshot() {
+    if (!isSnapshotEnabled() || !snapshotOutdated || configProps.isEmpty()) {
+      return;
+    }
+    snapshotOutdated = false;
+
+    try {
+      final ConfigSnapshot snapshot = new ConfigSnapshot(ConfigSnapshot.getId(configFile));
+      snapshot.fingerprint.addAll(fingerprint);
+      snapshot.configProps.putAll(configProps);
+      final Collection<String> types = dynamicTypes;
+      if (types != null) {
+        snapshot.dynamicTypes = new ArrayList<String>(types);
+      }
+      snapshot.templateNames.putAll(new TreeMap<String, Collection<String>>(templateNames));
+      snapshot.dynamicConfigs.putAll(new TreeMap<String, Properties>(dynamicConfigs));
+
+      final File snapshotFile = ConfigSnapshot.getSnapshotFile(configFile);
+      snapshot.write(snapshotFile);
+      LOG.debug("Configuration snapshot [{}] written.", snapshotFile);
+
+    } catch (final IOException e) {
+      // the outdated snapshot would be ignored on every start
+      LOG.warn("Can't write configuration snapshot: {}", e.toString());
+    }
+  }
+
+  /**
+   * Is any source file or folder of the loaded configuration changed, for ex. the config properties file,
+   * a dynamic config or a type folder with added or removed templates?
+   *
+   * @return true if the configuration must be reloaded
+   */
+  public boolean isOutdated() {
+    return !fingerprint.isValid();
+  }
+
+  /**
+   * Is the configuration snapshot enabled?
+   * The same switch enables the other persistent caches in the cache folder.
+   *
+   * @return true if the configuration snapshot is enabled
+   */
+  public static boolean isSnapshotEnabled() {
+    return !"false".equalsIgnoreCase(System.getProperty(Constants.CONFIG_SNAPSHOT_PROPERTY));
+  }
+
+  /**
+   * Get folder of the persistent caches
+   *
+   * @return cache folder
+   */
+  public static File getCacheFolder() {
+    final String cacheFolder = System.getProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    if (StringUtils.isBlank(cacheFolder)) {
+      return new File(System.getProperty("user.home"), Constants.CONFIG_CACHE_FOLDER_DEFAULT);
+    }
+    return new File(cacheFolder);
+  }
+
   /**
    * Get dynamic configuration properties file path
    *
@@ -559,116 +857,59 @@ public class Config {
    * @return dynamic configuration properties if props file exists
    */
   private Properties readDynamicProperties(final String type, final String name) {
-    Properties dynProps = FilesDirsUtil.getProperties(getDynamicConfigPath(type, null));
-    dynProps.putAll(FilesDirsUtil.getProperties(getDynamicConfigPath(type, name)));
-
-    // replace path place holders
+    final File typeConfigFile = new File(getDynamicConfigPath(type, null));
+    final File templateConfigFile = new File(getDynamicConfigPath(type, name));
+    fingerprint.add(typeConfigFile.getParentFile());
+    fingerprint.add(typeConfigFile);
+    fingerprint.add(templateConfigFile.getParentFile());
+    fingerprint.add(templateConfigFile);
+    snapshotOutdated = true;
+
+    final Properties dynProps = FilesDirsUtil.getProperties(typeConfigFile.getPath());
+    dynProps.putAll(FilesDirsUtil.getProperties(templateConfigFile.getPath()));
+
+    // replace path place holders with the resolved global values
     if (!dynProps.isEmpty()) {
-      // source path placeholder values
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_SOURCE_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_SOURCE_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_SOURCE_TYPES_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_SOURCE_TYPES_FOLDER));
-
-      // target path placeholder values
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_UI_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_UI_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_PROJECT_APPS_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_APPS_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_PROJECT_CONF_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_CONF_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_PROJECT_DESIGN_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_DESIGN_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_PROJECT_ROOT,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_ROOT));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_JAVA_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_JAVA_PACKAGE,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_PACKAGE));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_JAVA_PACKAGE_FOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_PACKAGE_FOLDER));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_JAVA_MODEL_SUBPACKAGE,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_MODEL_SUBPACKAGE));
-      dynProps = replacePathPlaceHolder(dynProps, Constants.CONFIGPROP_TARGET_OSGI_SUBFOLDER,
-          configProps.getProperty(Constants.CONFIGPROP_TARGET_OSGI_SUBFOLDER));
+      return pathResolver.replace(dynProps);
     }
     return dynProps;
   }
 
   /**
    * Replace path placeholders in the configuration properties path values.
+   * References between the path placeholders are resolved in the dependency order,
+   * so each value is replaced in a single pass.
    *
    * @param props
    *          - configuration properties where to replace placeholders
    * @return initialized configuration properties
    */
   private Properties replacePathPlaceHolders(final Properties props) {
-    Properties newProps = props;
-
     LOG.debug("Configuration properties path placeholders replacing... ");
 
-    if (!newProps.isEmpty()) {
-      // source path placeholder values
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_SOURCE_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_SOURCE_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_SOURCE_TYPES_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_SOURCE_TYPES_FOLDER));
-
-      // target path placeholder values
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_UI_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_UI_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_PROJECT_APPS_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_APPS_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_PROJECT_CONF_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_CONF_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_PROJECT_DESIGN_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_DESIGN_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_PROJECT_ROOT,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_PROJECT_ROOT));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_JAVA_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_JAVA_PACKAGE,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_PACKAGE));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_JAVA_PACKAGE_FOLDER,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_PACKAGE_FOLDER));
-      newProps = replacePathPlaceHolder(newProps, Constants.CONFIGPROP_TARGET_JAVA_MODEL_SUBPACKAGE,
-          newProps.getProperty(Constants.CONFIGPROP_TARGET_JAVA_MODEL_SUBPACKAGE));
+    if (props.isEmpty()) {
+      return props;
     }
-
-    return newProps;
+    return new PathPlaceHolderResolver(props, Constants.PATH_PLACEHOLDERS).replace(props);
   }
 
   /**
-   * Replace path placeholder in the configuration properties path values.
+   * Get resolver of the path placeholders in the dynamic configuration properties.
+   * The placeholders are replaced with the resolved global configuration values.
    *
    * @param props
-   *          - configuration properties
-   * @param placeHolderName
-   *          - placeholder name
-   * @param placeHolderValue
-   *          - placeholder value
-   * @return initialized configuration properties
+   *          - configuration properties with replaced path placeholders
+   * @return path placeholders resolver
    */
-  private Properties replacePathPlaceHolder(final Properties props, final String placeHolderName,
-      final String placeHolderValue) {
-    final Properties newProps = new Properties();
-
-    final Enumeration<?> e = props.propertyNames();
-    while (e.hasMoreElements()) {
-      final String key = (String) e.nextElement();
-      String value = props.getProperty(key);
-
-      LOG.debug("Original {}={}", key, value);
-      // check for NullPointer
-      if (StringUtils.isNotBlank(placeHolderName) && placeHolderValue != null) {
-        value = value.replace("{{" + placeHolderName + "}}", placeHolderValue);
+  private static PathPlaceHolderResolver getDynamicPathResolver(final Properties props) {
+    final Map<String, String> values = new LinkedHashMap<String, String>();
+    for (final String name : Constants.DYN_PATH_PLACEHOLDERS) {
+      final String value = props.getProperty(name);
+      if (value != null) {
+        values.put(name, value);
       }
-      LOG.debug("Replaced {}={}", key, value);
-
-      // add with replaced path values
-      newProps.put(key, value);
     }
-    return newProps;
+    return new PathPlaceHolderResolver(values);
   }
 
   /**
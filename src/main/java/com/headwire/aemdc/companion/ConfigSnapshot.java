@@ -0,0 +1,283 @@
+package com.headwire.aemdc.companion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Binary snapshot of the resolved configuration: config properties and the dynamic types,
+ * template names and dynamic properties loaded so far. The snapshot is valid as long as the paths,
+ * sizes and modification times of all its source files and folders are unchanged.
+ *
+ */
+class ConfigSnapshot {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+  private static final int MAGIC = 0x41454d44;
+  private static final int VERSION = 2;
+  private static final Charset CHARSET = Charset.forName(Constants.ENCODING);
+
+  final Properties configProps = new Properties();
+  // null if the dynamic types weren't loaded
+  List<String> dynamicTypes;
+  final Map<String, Collection<String>> templateNames = new LinkedHashMap<String, Collection<String>>();
+  final Map<String, Properties> dynamicConfigs = new LinkedHashMap<String, Properties>();
+  final Fingerprint fingerprint = new Fingerprint();
+  private final String id;
+
+  /**
+   * Constructor
+   *
+   * @param id
+   *          - snapshot id
+   */
+  ConfigSnapshot(final String id) {
+    this.id = id;
+  }
+
+  /**
+   * Get snapshot file in the cache folder for the configuration properties file.
+   * The file name depends on the config file and the working directory,
+   * because relative configuration paths are resolved against it.
+   *
+   * @param configFile
+   *          - configuration properties file
+   * @return snapshot file
+   * @throws IOException
+   *           - IOException
+   */
+  static File getSnapshotFile(final File configFile) throws IOException {
+    final String id = getId(configFile);
+    return new File(Config.getCacheFolder(), "config-" + Integer.toHexString(id.hashCode()) + ".bin");
+  }
+
+  /**
+   * Get snapshot id of the configuration properties file in the working directory
+   *
+   * @param configFile
+   *          - configuration properties file
+   * @return snapshot id
+   * @throws IOException
+   *           - IOException
+   */
+  static String getId(final File configFile) throws IOException {
+    return configFile.getCanonicalPath() + "|" + new File(".").getCanonicalPath();
+  }
+
+  /**
+   * Are all source files and folders unchanged?
+   *
+   * @return true if the snapshot is valid
+   */
+  boolean isValid() {
+    return fingerprint.isValid();
+  }
+
+  /**
+   * Read snapshot from file. The small file is read into a heap buffer and not mapped,
+   * because a live mapping would lock the file on Windows and the next write couldn't replace it.
+   *
+   * @param snapshotFile
+   *          - snapshot file
+   * @param id
+   *          - snapshot id
+   * @return snapshot or null if the file doesn't exist, has other version or id
+   * @throws IOException
+   *           - IOException
+   */
+  static ConfigSnapshot read(final File snapshotFile, final String id) throws IOException {
+    if (!snapshotFile.isFile()) {
+      return null;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !id.equals(readString(buffer))) {
+        return null;
+      }
+      final ConfigSnapshot snapshot = new ConfigSnapshot(id);
+      for (int i = buffer.getInt(); i > 0; i--) {
+        snapshot.fingerprint.sources.put(readString(buffer), new long[] { buffer.getLong(), buffer.getLong() });
+      }
+      readProperties(buffer, snapshot.configProps);
+      final int typesCount = buffer.getInt();
+      if (typesCount >= 0) {
+        snapshot.dynamicTypes = new ArrayList<String>(typesCount);
+        for (int i = typesCount; i > 0; i--) {
+          snapshot.dynamicTypes.add(readString(buffer));
+        }
+      }
+      for (int i = buffer.getInt(); i > 0; i--) {
+        final String type = readString(buffer);
+        final Collection<String> names = new ArrayList<String>();
+        for (int j = buffer.getInt(); j > 0; j--) {
+          names.add(readString(buffer));
+        }
+        snapshot.templateNames.put(type, names);
+      }
+      for (int i = buffer.getInt(); i > 0; i--) {
+        final String key = readString(buffer);
+        final Properties props = new Properties();
+        readProperties(buffer, props);
+        snapshot.dynamicConfigs.put(key, props);
+      }
+      return snapshot;
+
+    } catch (final RuntimeException e) {
+      // truncated or corrupted snapshot
+      throw new IOException("Wrong config snapshot " + snapshotFile, e);
+    }
+  }
+
+  /**
+   * Write snapshot to the file. The file is replaced atomically.
+   *
+   * @param snapshotFile
+   *          - snapshot file
+   * @throws IOException
+   *           - IOException
+   */
+  void write(final File snapshotFile) throws IOException {
+    final File dir = snapshotFile.getParentFile();
+    Files.createDirectories(dir.toPath());
+    final File tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", dir);
+
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, id);
+        final Map<String, long[]> sources = new TreeMap<String, long[]>(fingerprint.sources);
+        out.writeInt(sources.size());
+        for (final Map.Entry<String, long[]> entry : sources.entrySet()) {
+          writeString(out, entry.getKey());
+          out.writeLong(entry.getValue()[0]);
+          out.writeLong(entry.getValue()[1]);
+        }
+        writeProperties(out, configProps);
+        if (dynamicTypes == null) {
+          out.writeInt(-1);
+        } else {
+          out.writeInt(dynamicTypes.size());
+          for (final String type : dynamicTypes) {
+            writeString(out, type);
+          }
+        }
+        out.writeInt(templateNames.size());
+        for (final Map.Entry<String, Collection<String>> entry : templateNames.entrySet()) {
+          writeString(out, entry.getKey());
+          out.writeInt(entry.getValue().size());
+          for (final String name : entry.getValue()) {
+            writeString(out, name);
+          }
+        }
+        out.writeInt(dynamicConfigs.size());
+        for (final Map.Entry<String, Properties> entry : dynamicConfigs.entrySet()) {
+          writeString(out, entry.getKey());
+          writeProperties(out, entry.getValue());
+        }
+      }
+      Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempFile.toPath());
+    }
+  }
+
+  private static void writeProperties(final DataOutputStream out, final Properties props) throws IOException {
+    final Collection<String> keys = new TreeSet<String>(props.stringPropertyNames());
+    out.writeInt(keys.size());
+    for (final String key : keys) {
+      writeString(out, key);
+      writeString(out, props.getProperty(key));
+    }
+  }
+
+  private static void readProperties(final ByteBuffer buffer, final Properties props) {
+    for (int i = buffer.getInt(); i > 0; i--) {
+      props.setProperty(readString(buffer), readString(buffer));
+    }
+  }
+
+  private static void writeString(final DataOutputStream out, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(CHARSET);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, CHARSET);
+  }
+
+  /**
+   * Paths, sizes and modification times of the source files and folders of a configuration.
+   * A source is added before it's read, so a change while reading invalidates the fingerprint.
+   */
+  static class Fingerprint {
+
+    private final ConcurrentMap<String, long[]> sources = new ConcurrentHashMap<String, long[]>();
+
+    /**
+     * Add file or folder, the first added state of a path is kept
+     *
+     * @param file
+     *          - source file or folder of the configuration
+     */
+    void add(final File file) {
+      if (!sources.containsKey(file.getPath())) {
+        sources.putIfAbsent(file.getPath(), new long[] { file.length(), file.lastModified() });
+      }
+    }
+
+    /**
+     * Add all sources of the other fingerprint
+     *
+     * @param other
+     *          - other fingerprint
+     */
+    void addAll(final Fingerprint other) {
+      for (final Map.Entry<String, long[]> entry : other.sources.entrySet()) {
+        sources.putIfAbsent(entry.getKey(), entry.getValue());
+      }
+    }
+
+    /**
+     * Are all source files and folders unchanged?
+     *
+     * @return true if nothing changed
+     */
+    boolean isValid() {
+      for (final Map.Entry<String, long[]> entry : sources.entrySet()) {
+        final File file = new File(entry.getKey());
+        if (file.length() != entry.getValue()[0] || file.lastModified() != entry.getValue()[1]) {
+          LOG.debug("Configuration source [{}] changed.", file);
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -47,6 +47,8 @@ public class Constants {
   public static final String CONFIGPROP_FORBIDDEN_TEMPLATE_TYPES = "FORBIDDEN_TEMPLATE_TYPES";
   public static final String CONFIGPROP_EXISTING_DESTINATION_RESOURCES_REPLACEMENT = "EXISTING_DESTINATION_RESOURCES_REPLACEMENT";
   public static final String CONFIGPROP_LOG_LEVEL = "LOG_LEVEL";
+  public static final String CONFIGPROP_STREAMING_THRESHOLD = "STREAMING_THRESHOLD";
+  public static final String CONFIGPROP_PARALLEL_THREADS = "PARALLEL_THREADS";
 
   public static final List<String> SOURCE_PATHS = new ArrayList<String>();
   public static final List<String> CONFIGPROPS_OTHER = new ArrayList<String>();
@@ -69,17 +71,39 @@ public class Constants {
     CONFIGPROPS_OTHER.add(CONFIGPROP_LOG_LEVEL);
   }
 
+  // configuration properties usable as path place holders {{NAME}} in the global config values
+  public static final List<String> PATH_PLACEHOLDERS = new ArrayList<String>();
+  static {
+    PATH_PLACEHOLDERS.add(CONFIGPROP_SOURCE_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_SOURCE_TYPES_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_UI_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_PROJECT_APPS_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_PROJECT_CONF_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_PROJECT_DESIGN_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_PROJECT_ROOT);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_JAVA_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_JAVA_PACKAGE);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_JAVA_PACKAGE_FOLDER);
+    PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_JAVA_MODEL_SUBPACKAGE);
+  }
+
   // dynamic configuration constants
   public static final String DYN_CONFIGPROP_SOURCE_TYPE_FOLDER = "SOURCE_TYPE_FOLDER";
   public static final String DYN_CONFIGPROP_TARGET_TYPE_FOLDER = "TARGET_TYPE_FOLDER";
   public static final String DYN_CONFIGPROP_COMMAND_MENU = "COMMAND_MENU";
   public static final String DYN_CONFIGPROP_TEMPLATE_STRUCTURE = "TEMPLATE_STRUCTURE";
   public static final String DYN_CONFIGPROP_COMPOUND = "COMPOUND";
+  public static final String DYN_CONFIGPROP_COMPOUND_ORDER = "COMPOUND_ORDER";
   public static final List<String> DYN_SOURCE_PATHS = new ArrayList<String>();
   public static final List<String> DYN_CONFIGPROPS_OTHER = new ArrayList<String>();
+  // global configuration properties usable as path place holders {{NAME}} in the dynamic config values
+  public static final List<String> DYN_PATH_PLACEHOLDERS = new ArrayList<String>();
   static {
     DYN_SOURCE_PATHS.add(DYN_CONFIGPROP_SOURCE_TYPE_FOLDER);
 
+    DYN_PATH_PLACEHOLDERS.addAll(PATH_PLACEHOLDERS);
+    DYN_PATH_PLACEHOLDERS.add(CONFIGPROP_TARGET_OSGI_SUBFOLDER);
+
     DYN_CONFIGPROPS_OTHER.add(DYN_CONFIGPROP_TARGET_TYPE_FOLDER);
     DYN_CONFIGPROPS_OTHER.add(DYN_CONFIGPROP_COMMAND_MENU);
     DYN_CONFIGPROPS_OTHER.add(DYN_CONFIGPROP_TEMPLATE_STRUCTURE);
@@ -97,6 +121,12 @@ public class Constants {
   // params constants
   public static final String PARAM_OPTION_HELP = "help";
   public static final String PARAM_OPTION_TEMP = "-temp";
+  public static final String PARAM_OPTION_BATCH = "-batch";
+  public static final String PARAM_OPTION_PACKAGE = "-package";
+  public static final String PARAM_OPTION_DRY_RUN = "--dry-run";
+  public static final String PARAM_OPTION_STATS = "--stats";
+  public static final String PARAM_OPTION_DAEMON = "--daemon";
+  public static final String PARAM_OPTION_STOP = "--stop";
   public static final String PARAM_TYPE = "type";
   public static final String PARAM_TEMPLATE_NAME = "templateName";
   public static final String PARAM_TARGET_NAME = "targetName";
@@ -134,4 +164,11 @@ public class Constants {
   }
 
   // default values
+  public static final long STREAMING_THRESHOLD_DEFAULT = 1024 * 1024;
+  public static final int PARALLEL_THREADS_DEFAULT = 1;
+  public static final int DAEMON_PORT_DEFAULT = 7654;
+  public static final String DAEMON_PORT_ENV = "AEMDC_DAEMON_PORT";
+  public static final String CONFIG_SNAPSHOT_PROPERTY = "aemdc.config.snapshot";
+  public static final String CONFIG_CACHE_FOLDER_PROPERTY = "aemdc.cache.folder";
+  public static final String CONFIG_CACHE_FOLDER_DEFAULT = ".aemdc/cache";
 }
\ No newline at end of file
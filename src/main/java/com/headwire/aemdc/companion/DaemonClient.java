@@ -0,0 +1,155 @@
+package com.headwire.aemdc.companion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+
+
+/**
+ * Thin client for the resident AEMDC daemon. It forwards the command line arguments
+ * to the daemon, prints the streamed logs and exits with the daemon exit status.
+ * Each request carries the daemon token from the owner only readable token file, so only
+ * the daemon owner can run generations or stop the daemon.
+ * The client doesn't load config and logging, so it starts as fast as possible.
+ *
+ */
+public class DaemonClient {
+
+  // response frame types
+  public static final int FRAME_EXIT = 0;
+  public static final int FRAME_LOG = 1;
+
+  // exit statuses
+  public static final int EXIT_OK = 0;
+  public static final int EXIT_ERROR = 1;
+  public static final int EXIT_NO_DAEMON = 2;
+
+  private static final String TOKEN_FILE_PREFIX = "daemon-";
+  private static final String TOKEN_FILE_SUFFIX = ".token";
+
+  /**
+   * Constructor
+   *
+   */
+  private DaemonClient() {
+  }
+
+  /**
+   * Main start method.
+   *
+   * @param args
+   *          - arguments
+   */
+  public static void main(final String[] args) {
+    final int port = getPort(System.getenv(Constants.DAEMON_PORT_ENV));
+    int status;
+    try {
+      status = send(port, readToken(port), new File(".").getCanonicalPath(), args, System.out);
+    } catch (final ConnectException | NoSuchFileException e) {
+      System.err.println("AEMDC daemon isn't running on port " + port + ". Start it with \"aemdc "
+          + Constants.PARAM_OPTION_DAEMON + "\".");
+      status = EXIT_NO_DAEMON;
+    } catch (final IOException e) {
+      System.err.println("Can't run the command in AEMDC daemon: " + e.getMessage());
+      status = EXIT_ERROR;
+    }
+    System.exit(status);
+  }
+
+  /**
+   * Send arguments to the daemon and print the streamed logs.
+   *
+   * @param port
+   *          - daemon port on the loopback interface
+   * @param token
+   *          - daemon token
+   * @param workDir
+   *          - working directory of the client
+   * @param args
+   *          - arguments
+   * @param console
+   *          - stream to print the logs to
+   * @return exit status
+   * @throws IOException
+   *           - IOException
+   */
+  public static int send(final int port, final String token, final String workDir, final String[] args,
+      final PrintStream console) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(token);
+      out.writeUTF(workDir);
+      out.writeInt(args.length);
+      for (final String arg : args) {
+        out.writeUTF(arg);
+      }
+      out.flush();
+
+      final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      while (true) {
+        final int frame = in.readByte();
+        if (frame == FRAME_EXIT) {
+          return in.readInt();
+        }
+        console.print(in.readUTF());
+      }
+    }
+  }
+
+  /**
+   * Read token of the daemon running on the port
+   *
+   * @param port
+   *          - daemon port
+   * @return daemon token
+   * @throws IOException
+   *           - IOException, {@link NoSuchFileException} if no daemon is running on the port
+   */
+  public static String readToken(final int port) throws IOException {
+    return new String(Files.readAllBytes(getTokenFile(port).toPath()), StandardCharsets.US_ASCII).trim();
+  }
+
+  /**
+   * Get token file of the daemon running on the port. The file is in the same folder as
+   * {@link Config#getCacheFolder()}, but Config isn't loaded to keep the client start fast.
+   *
+   * @param port
+   *          - daemon port
+   * @return token file
+   */
+  public static File getTokenFile(final int port) {
+    final String cacheFolder = System.getProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    final File folder = cacheFolder == null || cacheFolder.trim().isEmpty()
+        ? new File(System.getProperty("user.home"), Constants.CONFIG_CACHE_FOLDER_DEFAULT)
+        : new File(cacheFolder);
+    return new File(folder, TOKEN_FILE_PREFIX + port + TOKEN_FILE_SUFFIX);
+  }
+
+  /**
+   * Get daemon port
+   *
+   * @param port
+   *          - port as string or null
+   * @return port number or default port
+   */
+  public static int getPort(final String port) {
+    if (port != null && !port.trim().isEmpty()) {
+      try {
+        return Integer.parseInt(port.trim());
+      } catch (final NumberFormatException e) {
+        System.err.println("Wrong daemon port [" + port + "], default port is used.");
+      }
+    }
+    return Constants.DAEMON_PORT_DEFAULT;
+  }
+}
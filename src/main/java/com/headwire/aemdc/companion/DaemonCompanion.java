@@ -0,0 +1,349 @@
+package com.headwire.aemdc.companion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+
+/**
+ * Resident daemon keeps warm Config and Reflection in memory and runs the command line
+ * arguments received from {@link DaemonClient} over a loopback socket.
+ * Requests are processed one after another, the logs of each request are streamed back to its client.
+ * Config is reloaded, if the configuration properties file, a loaded dynamic config or
+ * a listed type or templates folder was changed.
+ * On start the daemon writes a random token to a file only readable by its owner,
+ * requests without this token are rejected.
+ *
+ */
+public class DaemonCompanion {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DaemonCompanion.class);
+  private static final ch.qos.logback.classic.Logger ROOT_LOGGER = (ch.qos.logback.classic.Logger) LoggerFactory
+      .getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+
+  private static final String LOG_PATTERN = "%d{HH:mm:ss.SSS} [%thread] %level %logger - %msg%n";
+
+  // max chars in one log frame to stay in the 64K limit of writeUTF
+  private static final int MAX_FRAME_CHARS = 16 * 1024;
+
+  // max arguments of one request
+  static final int MAX_ARGS = 1024;
+
+  // max time to wait for the request data, an idle client doesn't block the daemon
+  private static final int READ_TIMEOUT_MILLIS = 10000;
+
+  private static final int TOKEN_BYTES = 32;
+
+  private final String workDir;
+  private Config config;
+  private Reflection reflection;
+  private String token;
+  private int readTimeout = READ_TIMEOUT_MILLIS;
+  private volatile boolean stopped;
+
+  /**
+   * Constructor
+   *
+   * @param config
+   *          - properties config
+   * @throws IOException
+   *           - IOException
+   */
+  public DaemonCompanion(final Config config) throws IOException {
+    this.workDir = new File(Config.getProjectRootPath()).getCanonicalPath();
+    setConfig(config);
+  }
+
+  /**
+   * Get daemon port from the option value or AEMDC_DAEMON_PORT environment variable
+   *
+   * @param port
+   *          - port option value or null
+   * @return port number
+   */
+  public static int getPort(final String port) {
+    if (port != null) {
+      return DaemonClient.getPort(port);
+    }
+    return DaemonClient.getPort(System.getenv(Constants.DAEMON_PORT_ENV));
+  }
+
+  /**
+   * Set max time to wait for the request data of a client
+   *
+   * @param readTimeout
+   *          - timeout in milliseconds
+   */
+  void setReadTimeout(final int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Listen on the loopback interface and run requests until the stop request.
+   *
+   * @param port
+   *          - port number
+   * @throws IOException
+   *           - IOException
+   */
+  public void start(final int port) throws IOException {
+    try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      serve(server);
+    }
+  }
+
+  /**
+   * Write the token file and run requests of the bound server socket until the stop request.
+   *
+   * @param server
+   *          - server socket bound to the loopback interface
+   * @throws IOException
+   *           - IOException
+   */
+  void serve(final ServerSocket server) throws IOException {
+    final File tokenFile = DaemonClient.getTokenFile(server.getLocalPort());
+    token = createToken();
+    writeToken(tokenFile, token);
+    try {
+      LOG.info("AEMDC daemon for {} is listening on {}:{}", workDir, server.getInetAddress().getHostAddress(),
+          server.getLocalPort());
+
+      while (!stopped) {
+        try (Socket socket = server.accept()) {
+          socket.setSoTimeout(readTimeout);
+          handle(socket);
+        } catch (final IOException e) {
+          LOG.error("Can't handle daemon request.", e);
+        }
+      }
+      LOG.info("AEMDC daemon stopped.");
+    } finally {
+      Files.deleteIfExists(tokenFile.toPath());
+    }
+  }
+
+  /**
+   * Handle one client request
+   *
+   * @param socket
+   *          - client socket
+   * @throws IOException
+   *           - IOException
+   */
+  private void handle(final Socket socket) throws IOException {
+    final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    if (!isValidToken(in.readUTF())) {
+      LOG.warn("AEMDC daemon request without valid token rejected.");
+      out.writeByte(DaemonClient.FRAME_LOG);
+      out.writeUTF("Invalid AEMDC daemon token, the request is rejected." + System.lineSeparator());
+      out.writeByte(DaemonClient.FRAME_EXIT);
+      out.writeInt(DaemonClient.EXIT_ERROR);
+      out.flush();
+      return;
+    }
+
+    final String clientDir = in.readUTF();
+    final int argsCount = in.readInt();
+    if (argsCount < 0 || argsCount > MAX_ARGS) {
+      throw new IOException("Wrong number of arguments [" + argsCount + "] in daemon request.");
+    }
+    final String[] args = new String[argsCount];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = in.readUTF();
+    }
+
+    final ClientAppender appender = new ClientAppender(out);
+    appender.start();
+    ROOT_LOGGER.addAppender(appender);
+
+    int status = DaemonClient.EXIT_OK;
+    final long start = System.nanoTime();
+    try {
+      if (!workDir.equals(clientDir)) {
+        LOG.error("AEMDC daemon runs for {}, but the client is in {}.", workDir, clientDir);
+        status = DaemonClient.EXIT_ERROR;
+      } else if (args.length == 1 && Constants.PARAM_OPTION_STOP.equals(args[0])) {
+        LOG.info("Stopping AEMDC daemon...");
+        stopped = true;
+      } else {
+        reloadConfigIfChanged();
+        RunnableCompanion.run(args, config, reflection);
+      }
+    } catch (final Exception e) {
+      LOG.error("Can't run the command.", e);
+      status = DaemonClient.EXIT_ERROR;
+    } finally {
+      ROOT_LOGGER.detachAppender(appender);
+      appender.stop();
+    }
+    LOG.debug("Daemon request done in {} ms.", (System.nanoTime() - start) / 1000000);
+
+    out.writeByte(DaemonClient.FRAME_EXIT);
+    out.writeInt(status);
+    out.flush();
+  }
+
+  /**
+   * Compare the request token with the daemon token in constant time
+   *
+   * @param requestToken
+   *          - token of the request
+   * @return true if the token is valid
+   */
+  private boolean isValidToken(final String requestToken) {
+    return MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII),
+        requestToken.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Create random token
+   *
+   * @return hex token
+   */
+  private static String createToken() {
+    final byte[] bytes = new byte[TOKEN_BYTES];
+    new SecureRandom().nextBytes(bytes);
+    final StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Write the token to the file only readable and writable by the owner.
+   * The file is replaced atomically, so the client never reads a partial token.
+   *
+   * @param tokenFile
+   *          - token file
+   * @param token
+   *          - daemon token
+   * @throws IOException
+   *           - IOException
+   */
+  private static void writeToken(final File tokenFile, final String token) throws IOException {
+    final Path dir = Files.createDirectories(tokenFile.getParentFile().toPath());
+    final Path tempFile;
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      tempFile = Files.createTempFile(dir, tokenFile.getName(), ".tmp",
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      tempFile = Files.createTempFile(dir, tokenFile.getName(), ".tmp");
+      final File file = tempFile.toFile();
+      file.setReadable(false, false);
+      file.setReadable(true, true);
+      file.setWritable(false, false);
+      file.setWritable(true, true);
+    }
+    try {
+      Files.write(tempFile, token.getBytes(StandardCharsets.US_ASCII));
+      Files.move(tempFile, tokenFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Reload config if any of its source files or folders was changed,
+   * for ex. the configuration properties file or a type folder with added or removed templates
+   */
+  void reloadConfigIfChanged() {
+    if (config.isOutdated()) {
+      LOG.info("Configuration or templates changed, reloading config...");
+      setConfig(RunnableCompanion.loadConfig());
+    }
+  }
+
+  /**
+   * @return the current config
+   */
+  Config getConfig() {
+    return config;
+  }
+
+  /**
+   * Set config and create reflection for it
+   *
+   * @param newConfig
+   *          - properties config
+   */
+  private void setConfig(final Config newConfig) {
+    config = newConfig;
+    reflection = new Reflection(config);
+  }
+
+  /**
+   * Appender streaming the log events to the client
+   */
+  private static class ClientAppender extends AppenderBase<ILoggingEvent> {
+
+    private final DataOutputStream out;
+    private final PatternLayout layout = new PatternLayout();
+    private boolean broken;
+
+    ClientAppender(final DataOutputStream out) {
+      this.out = out;
+      setName("aemdc-daemon-client");
+      setContext((LoggerContext) LoggerFactory.getILoggerFactory());
+      layout.setContext(getContext());
+      layout.setPattern(LOG_PATTERN);
+    }
+
+    @Override
+    public void start() {
+      layout.start();
+      super.start();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+      if (broken) {
+        return;
+      }
+      // events may come from the worker threads of the request
+      synchronized (out) {
+        try {
+          final String text = layout.doLayout(event);
+          int start = 0;
+          while (start < text.length()) {
+            int end = Math.min(start + MAX_FRAME_CHARS, text.length());
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+              end--;
+            }
+            out.writeByte(DaemonClient.FRAME_LOG);
+            out.writeUTF(text.substring(start, end));
+            start = end;
+          }
+          out.flush();
+        } catch (final IOException e) {
+          // client is gone, the request is still completed
+          broken = true;
+        }
+      }
+    }
+  }
+}
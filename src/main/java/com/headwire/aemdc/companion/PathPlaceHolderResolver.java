@@ -0,0 +1,215 @@
+package com.headwire.aemdc.companion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Resolver of the path place holders {{NAME}} in the configuration values.
+ * The references between the place holder properties are resolved once in the dependency order,
+ * so any value is replaced in a single pass independent of the properties order.
+ * Cyclic references are reported. A value on a cycle is resolved only with the values resolved before it,
+ * for ex. A={{B}}/a and B={{A}}/b are resolved to A={{A}}/b/a and B={{A}}/b.
+ *
+ */
+class PathPlaceHolderResolver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PathPlaceHolderResolver.class);
+
+  static final String PH_START = "{{";
+  static final String PH_END = "}}";
+
+  private final Properties props;
+  private final Collection<String> names;
+  private final Map<String, String> values = new LinkedHashMap<String, String>();
+  private final Map<String, Boolean> visited = new HashMap<String, Boolean>();
+  private final List<String> cycles = new ArrayList<String>();
+
+  /**
+   * Constructor
+   *
+   * @param props
+   *          - configuration properties with place holder values
+   * @param names
+   *          - names of the properties usable as path place holders
+   */
+  PathPlaceHolderResolver(final Properties props, final Collection<String> names) {
+    this.props = props;
+    this.names = names;
+    for (final String name : names) {
+      resolve(name, new ArrayList<String>());
+    }
+  }
+
+  /**
+   * Constructor with already resolved place holder values
+   *
+   * @param values
+   *          - resolved values by place holder names
+   */
+  PathPlaceHolderResolver(final Map<String, String> values) {
+    this.props = null;
+    this.names = new ArrayList<String>(values.keySet());
+    this.values.putAll(values);
+  }
+
+  /**
+   * Replace path place holders in the text with the resolved values.
+   *
+   * @param text
+   *          - text with path place holders
+   * @return text with replaced path place holders
+   */
+  String replace(final String text) {
+    return replace(text, values);
+  }
+
+  /**
+   * Replace path place holders in all property values.
+   *
+   * @param properties
+   *          - properties with path place holders
+   * @return new properties with replaced path place holders
+   */
+  Properties replace(final Properties properties) {
+    final Properties newProps = new Properties();
+    final Enumeration<?> e = properties.propertyNames();
+    while (e.hasMoreElements()) {
+      final String key = (String) e.nextElement();
+      final String value = properties.getProperty(key);
+      final String newValue = replace(value);
+      if (!newValue.equals(value)) {
+        LOG.debug("Replaced {}={} with {}", key, value, newValue);
+      }
+      newProps.put(key, newValue);
+    }
+    return newProps;
+  }
+
+  /**
+   * Get resolved place holder values.
+   *
+   * @return resolved values by place holder names
+   */
+  Map<String, String> getValues() {
+    return values;
+  }
+
+  /**
+   * Get found cyclic references.
+   *
+   * @return cyclic references like "A -> B -> A"
+   */
+  List<String> getCycles() {
+    return cycles;
+  }
+
+  /**
+   * Resolve place holder value after all its references (depth first).
+   *
+   * @param name
+   *          - place holder name
+   * @param path
+   *          - current references path
+   */
+  private void resolve(final String name, final List<String> path) {
+    final Boolean done = visited.get(name);
+    if (done != null) {
+      if (!done) {
+        // the place holder is on the current path
+        final List<String> cycle = new ArrayList<String>(path.subList(path.indexOf(name), path.size()));
+        cycle.add(name);
+        final String report = StringUtils.join(cycle, " -> ");
+        cycles.add(report);
+        LOG.error("Cyclic reference of the path place holders: {}", report);
+      }
+      return;
+    }
+
+    final String value = props.getProperty(name);
+    if (value == null) {
+      visited.put(name, Boolean.TRUE);
+      return;
+    }
+
+    visited.put(name, Boolean.FALSE);
+    path.add(name);
+    for (final String reference : getReferences(value)) {
+      resolve(reference, path);
+    }
+    path.remove(path.size() - 1);
+
+    // references on the current path are not resolved yet and stay as they are
+    values.put(name, replace(value, values));
+    visited.put(name, Boolean.TRUE);
+  }
+
+  /**
+   * Get path place holder names referenced in the value.
+   *
+   * @param value
+   *          - property value
+   * @return referenced place holder names
+   */
+  private List<String> getReferences(final String value) {
+    final List<String> references = new ArrayList<String>();
+    int start = value.indexOf(PH_START);
+    while (start >= 0) {
+      final int end = value.indexOf(PH_END, start + PH_START.length());
+      if (end < 0) {
+        break;
+      }
+      final String name = value.substring(start + PH_START.length(), end);
+      if (names.contains(name) && !references.contains(name)) {
+        references.add(name);
+      }
+      start = value.indexOf(PH_START, start + PH_START.length());
+    }
+    return references;
+  }
+
+  /**
+   * Replace path place holders in the text in a single pass.
+   *
+   * @param text
+   *          - text with path place holders
+   * @param phValues
+   *          - place holder values
+   * @return text with replaced path place holders
+   */
+  private static String replace(final String text, final Map<String, String> phValues) {
+    int start = text.indexOf(PH_START);
+    if (start < 0) {
+      return text;
+    }
+
+    final StringBuilder result = new StringBuilder(text.length());
+    int pos = 0;
+    while (start >= 0) {
+      final int end = text.indexOf(PH_END, start + PH_START.length());
+      if (end < 0) {
+        break;
+      }
+      final String phValue = phValues.get(text.substring(start + PH_START.length(), end));
+      if (phValue != null) {
+        result.append(text, pos, start).append(phValue);
+        pos = end + PH_END.length();
+        start = text.indexOf(PH_START, pos);
+      } else {
+        start = text.indexOf(PH_START, start + PH_START.length());
+      }
+    }
+    result.append(text, pos, text.length());
+    return result.toString();
+  }
+}
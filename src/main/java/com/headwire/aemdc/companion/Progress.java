@@ -0,0 +1,194 @@
+package com.headwire.aemdc.companion;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Progress of one generation shared by all commands of the run incl. compound members.
+ * The commands report the planned and the done files, the listener is called in the command threads.
+ * The generation can be cancelled, the commands stop before the next file.
+ * The statistics of the generation are collected only if they are enabled.
+ *
+ */
+public class Progress {
+
+  private final Listener listener;
+  private final AtomicInteger filesTotal = new AtomicInteger();
+  private final AtomicInteger filesDone = new AtomicInteger();
+  private final AtomicLong bytes = new AtomicLong();
+  private volatile boolean cancelled;
+  private Stats stats = Stats.DISABLED;
+
+  /**
+   * Constructor without listener
+   */
+  public Progress() {
+    this(null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param listener
+   *          - progress listener or null
+   */
+  public Progress(final Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Report started command
+   *
+   * @param command
+   *          - command name
+   * @param resource
+   *          - resource of the command
+   * @throws InterruptedIOException
+   *           - if the generation is cancelled
+   */
+  public void commandStarted(final String command, final Resource resource) throws InterruptedIOException {
+    checkCancelled();
+    if (listener != null) {
+      listener.commandStarted(command, resource.getType(), resource.getSourceName());
+    }
+  }
+
+  /**
+   * Add files planned by a command
+   *
+   * @param count
+   *          - number of files
+   */
+  public void addFiles(final int count) {
+    filesTotal.addAndGet(count);
+  }
+
+  /**
+   * Report done file created in the file system
+   *
+   * @param file
+   *          - created file
+   * @throws InterruptedIOException
+   *           - if the generation is cancelled
+   */
+  public void fileDone(final File file) throws InterruptedIOException {
+    fileDone(file, file.length());
+  }
+
+  /**
+   * Report done file
+   *
+   * @param file
+   *          - written file
+   * @param size
+   *          - written bytes
+   * @throws InterruptedIOException
+   *           - if the generation is cancelled
+   */
+  public void fileDone(final File file, final long size) throws InterruptedIOException {
+    final int done = filesDone.incrementAndGet();
+    final long written = bytes.addAndGet(size);
+    stats.fileWritten(size);
+    if (listener != null) {
+      listener.fileDone(file, done, Math.max(done, filesTotal.get()), written);
+    }
+    checkCancelled();
+  }
+
+  /**
+   * Cancel the generation
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * @return true if the generation is cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Stop the command, if the generation is cancelled.
+   *
+   * @throws InterruptedIOException
+   *           - if the generation is cancelled
+   */
+  public void checkCancelled() throws InterruptedIOException {
+    if (cancelled) {
+      throw new InterruptedIOException("Generation is cancelled.");
+    }
+  }
+
+  /**
+   * @return the number of done files
+   */
+  public int getFilesDone() {
+    return filesDone.get();
+  }
+
+  /**
+   * @return the number of planned files
+   */
+  public int getFilesTotal() {
+    return Math.max(filesDone.get(), filesTotal.get());
+  }
+
+  /**
+   * @return the written bytes
+   */
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  /**
+   * @return the statistics, disabled by default
+   */
+  public Stats getStats() {
+    return stats;
+  }
+
+  /**
+   * @param stats
+   *          the statistics to set
+   */
+  public void setStats(final Stats stats) {
+    this.stats = stats;
+  }
+
+  /**
+   * Listener of the progress events
+   */
+  public interface Listener {
+
+    /**
+     * Command is started
+     *
+     * @param command
+     *          - command name
+     * @param type
+     *          - template type
+     * @param templateName
+     *          - template name
+     */
+    void commandStarted(String command, String type, String templateName);
+
+    /**
+     * File is done
+     *
+     * @param file
+     *          - written file
+     * @param filesDone
+     *          - number of done files
+     * @param filesTotal
+     *          - number of planned files
+     * @param bytes
+     *          - written bytes of all done files
+     */
+    void fileDone(File file, int filesDone, int filesTotal, long bytes);
+  }
+}
@@ -1,20 +1,19 @@
 package com.headwire.aemdc.companion;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Properties;
-
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.headwire.aemdc.jfr.FlightEvents;
+import com.headwire.aemdc.jfr.RunnerEvent;
 import com.headwire.aemdc.runner.BasisRunner;
 import com.headwire.aemdc.runner.DynamicRunner;
-import com.headwire.aemdc.util.FilesDirsUtil;
+import com.headwire.aemdc.runner.RunnerFactory;
 
 
 /**
- * Reflection API to get template type Runner object
+ * Reflection API to get template type Runner object.
+ * Runner factories are resolved from the process wide {@link RunnerRegistry}.
  *
  * @author Marat Saitov, 15.11.2016
  */
@@ -22,7 +21,7 @@ public class Reflection {
 
   private static final Logger LOG = LoggerFactory.getLogger(Reflection.class);
 
-  private final Properties props;
+  private final RunnerRegistry registry;
   private final Config config;
 
   /**
@@ -33,9 +32,7 @@ public class Reflection {
    */
   public Reflection(final Config config) {
     this.config = config;
-
-    // Get properties from reflection file
-    props = FilesDirsUtil.getPropertiesFromContextClassLoader(Constants.REFLECTION_PROPS_FILE_PATH);
+    this.registry = RunnerRegistry.getInstance();
   }
 
   /**
@@ -50,24 +47,17 @@ public class Reflection {
     final String type = resource.getType();
 
     if (StringUtils.isNotBlank(type)) {
-      final String fullyQualifiedClassName = props.getProperty(type);
-
-      if (StringUtils.isNotBlank(fullyQualifiedClassName)) {
-        try {
-          final Class<?> c = Class.forName(fullyQualifiedClassName);
-          final Constructor<?> ctor = c.getDeclaredConstructor(Resource.class, Config.class);
-          ctor.setAccessible(true);
-          runner = (BasisRunner) ctor.newInstance(resource, config);
+      final RunnerFactory factory = registry.getFactory(type);
+      final RunnerEvent event = FlightEvents.beginRunner();
 
-        } catch (InstantiationException | IllegalAccessException | ClassNotFoundException | NoSuchMethodException
-            | SecurityException | IllegalArgumentException | InvocationTargetException e) {
-          LOG.error("Can't get class instance for template type [{}]. ", type, e);
-        }
+      if (factory != null) {
+        runner = factory.getRunner(resource, config);
       } else if (config.getDynamicTypes().contains(type)) {
         runner = new DynamicRunner(resource, config);
       } else {
         LOG.error("Unknown <type> argument [{}].", type);
       }
+      FlightEvents.endRunner(event, resource, runner);
     }
 
     return runner;
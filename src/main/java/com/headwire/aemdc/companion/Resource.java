@@ -10,6 +10,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.headwire.aemdc.util.TargetOutput;
+
 
 /**
  * Resource object
@@ -31,7 +33,11 @@ public class Resource {
   private String[] extensions;
   private boolean toDeleteDestDir;
   private boolean toWarnDestDir;
+  private long streamingThreshold = Constants.STREAMING_THRESHOLD_DEFAULT;
+  private int parallelThreads = Constants.PARALLEL_THREADS_DEFAULT;
   private List<String> copiedTemplateNames;
+  private TargetOutput output;
+  private Progress progress = new Progress();
 
   /**
    * Constructor
@@ -346,6 +352,45 @@ public class Resource {
     this.toWarnDestDir = toWarnDestDir;
   }
 
+  /**
+   * Other existing resources are kept (MERGE), if they are not deleted or warned about.
+   *
+   * @return true to merge the destination directory
+   */
+  public boolean isToMergeDestDir() {
+    return !toDeleteDestDir && !toWarnDestDir;
+  }
+
+  /**
+   * @return the streamingThreshold
+   */
+  public long getStreamingThreshold() {
+    return streamingThreshold;
+  }
+
+  /**
+   * @param streamingThreshold
+   *          the streamingThreshold to set
+   */
+  public void setStreamingThreshold(final long streamingThreshold) {
+    this.streamingThreshold = streamingThreshold;
+  }
+
+  /**
+   * @return the parallelThreads
+   */
+  public int getParallelThreads() {
+    return parallelThreads;
+  }
+
+  /**
+   * @param parallelThreads
+   *          the parallelThreads to set
+   */
+  public void setParallelThreads(final int parallelThreads) {
+    this.parallelThreads = parallelThreads;
+  }
+
   /**
    * @return the copiedTemplateNames
    */
@@ -364,6 +409,36 @@ public class Resource {
     this.copiedTemplateNames = copiedTemplateNames;
   }
 
+  /**
+   * @return the output or null if the files are created in the file system
+   */
+  public TargetOutput getOutput() {
+    return output;
+  }
+
+  /**
+   * @param output
+   *          the output to set
+   */
+  public void setOutput(final TargetOutput output) {
+    this.output = output;
+  }
+
+  /**
+   * @return the progress
+   */
+  public Progress getProgress() {
+    return progress;
+  }
+
+  /**
+   * @param progress
+   *          the progress to set
+   */
+  public void setProgress(final Progress progress) {
+    this.progress = progress;
+  }
+
   @Override
   public Resource clone() {
     final Resource newResource = new Resource();
@@ -383,6 +458,8 @@ public class Resource {
     // clone options
     newResource.setHelp(isHelp());
     newResource.setTempFolder(getTempFolder());
+    newResource.setOutput(getOutput());
+    newResource.setProgress(getProgress());
 
     // clone other properties
     newResource.setSourceFolderPath(getSourceFolderPath());
@@ -390,6 +467,8 @@ public class Resource {
     newResource.setExtensions(getExtensions());
     newResource.setToDeleteDestDir(isToDeleteDestDir());
     newResource.setToWarnDestDir(isToWarnDestDir());
+    newResource.setStreamingThreshold(getStreamingThreshold());
+    newResource.setParallelThreads(getParallelThreads());
 
     // clone copied template names
     final List<String> newCopiedTemplNames = new ArrayList<String>();
@@ -1,13 +1,20 @@
 package com.headwire.aemdc.companion;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.runner.BasisRunner;
 import com.headwire.aemdc.runner.HelpRunner;
+import com.headwire.aemdc.util.ContentPackage;
+import com.headwire.aemdc.util.MemoryOutput;
+import com.headwire.aemdc.util.TargetOutput;
 
 import ch.qos.logback.classic.Level;
 
@@ -38,6 +45,31 @@ public class RunnableCompanion {
     // set default INFO log level to avoid logging from ConfigUtil
     ROOT_LOGGER.setLevel(Level.INFO);
 
+    // statistics incl. the config loading, if requested
+    final Stats stats = getStats(args);
+
+    // Get Properties Config from config file
+    final Stats.Sample sample = stats.start(Stats.TIMER_CONFIG);
+    loadConfig();
+    stats.stop(sample);
+
+    // start resident daemon with warm config
+    if (args != null && args.length > 0 && args[0].startsWith(Constants.PARAM_OPTION_DAEMON)) {
+      final String port = getOptionValue(args, Constants.PARAM_OPTION_DAEMON);
+      final DaemonCompanion daemon = new DaemonCompanion(config);
+      daemon.start(DaemonCompanion.getPort(port));
+      return;
+    }
+
+    run(args, config, null, stats);
+  }
+
+  /**
+   * Load config from config file and setup log level
+   *
+   * @return properties config
+   */
+  static Config loadConfig() {
     // Get Properties Config from config file
     config = new Config();
 
@@ -46,22 +78,346 @@ public class RunnableCompanion {
       // Check configuration from configuration properties file
       config.checkConfiguration();
     }
+    return config;
+  }
+
+  /**
+   * Run command line arguments
+   *
+   * @param args
+   *          - arguments
+   * @param config
+   *          - properties config
+   * @param reflection
+   *          - reflection or null to create a new one
+   * @throws IOException
+   *           - IOException
+   */
+  static void run(final String[] args, final Config config, final Reflection reflection) throws IOException {
+    run(args, config, reflection, getStats(args));
+  }
+
+  /**
+   * Run command line arguments and report the statistics, if they are enabled
+   *
+   * @param args
+   *          - arguments
+   * @param config
+   *          - properties config
+   * @param reflection
+   *          - reflection or null to create a new one
+   * @param stats
+   *          - statistics of the run
+   * @throws IOException
+   *           - IOException
+   */
+  private static void run(final String[] args, final Config config, final Reflection reflection,
+      final Stats stats) throws IOException {
+    // dry run renders all files into memory only
+    MemoryOutput dryRunOutput = null;
+    if (hasOption(args, Constants.PARAM_OPTION_DRY_RUN)) {
+      dryRunOutput = new MemoryOutput();
+    }
+
+    // shared progress of all commands collects the statistics
+    Progress progress = null;
+    if (stats.isEnabled()) {
+      progress = new Progress();
+      progress.setStats(stats);
+    }
+
+    final String[] cmdArgs = removeOption(removeOption(args, Constants.PARAM_OPTION_DRY_RUN),
+        Constants.PARAM_OPTION_STATS);
+    try {
+      run(cmdArgs, config, reflection, dryRunOutput, progress);
+    } finally {
+      if (stats.isEnabled()) {
+        logStats(stats, getOptionValue(args, Constants.PARAM_OPTION_STATS));
+      }
+    }
+
+    if (dryRunOutput != null) {
+      logDryRun(dryRunOutput);
+    }
+  }
+
+  /**
+   * Run the command line arguments with progress reporting, for ex. in a background task of the GUI.
+   *
+   * @param args
+   *          - arguments
+   * @param progress
+   *          - progress of the generation
+   * @throws IOException
+   *           - IOException, {@link java.io.InterruptedIOException} if the generation is cancelled
+   */
+  public static void generate(final String[] args, final Progress progress) throws IOException {
+    // set default INFO log level to avoid logging from ConfigUtil
+    ROOT_LOGGER.setLevel(Level.INFO);
+
+    run(args, loadConfig(), null, null, progress);
+  }
+
+  /**
+   * Render the command line arguments into memory without any disk writes.
+   *
+   * @param args
+   *          - arguments
+   * @param progress
+   *          - progress of the generation
+   * @return memory output with the rendered files
+   * @throws IOException
+   *           - IOException, {@link java.io.InterruptedIOException} if the generation is cancelled
+   */
+  public static MemoryOutput preview(final String[] args, final Progress progress) throws IOException {
+    final MemoryOutput output = new MemoryOutput();
+    run(args, loadConfig(), null, output, progress);
+    return output;
+  }
+
+  /**
+   * Run command line arguments
+   *
+   * @param args
+   *          - arguments
+   * @param config
+   *          - properties config
+   * @param reflection
+   *          - reflection or null to create a new one
+   * @param memoryOutput
+   *          - memory output for the generated files or null
+   * @param progress
+   *          - progress of the generation or null
+   * @throws IOException
+   *           - IOException
+   */
+  private static void run(final String[] args, final Config config, final Reflection reflection,
+      final MemoryOutput memoryOutput, final Progress progress) throws IOException {
+    try {
+      runArgs(args, config, reflection, memoryOutput, progress);
+    } finally {
+      // keep the configs loaded by this run for the next start
+      config.saveSnapshot();
+    }
+  }
+
+  /**
+   * Run command line arguments with the output
+   *
+   * @param args
+   *          - arguments
+   * @param config
+   *          - properties config
+   * @param reflection
+   *          - reflection or null to create a new one
+   * @param memoryOutput
+   *          - memory output for the generated files or null
+   * @param progress
+   *          - progress of the generation or null
+   * @throws IOException
+   *           - IOException
+   */
+  private static void runArgs(final String[] args, final Config config, final Reflection reflection,
+      final MemoryOutput memoryOutput, final Progress progress) throws IOException {
+    // content package output option can be set at any position
+    final String packagePath = getOptionValue(args, Constants.PARAM_OPTION_PACKAGE);
+    final String[] cmdArgs = removeOption(args, Constants.PARAM_OPTION_PACKAGE);
+
+    // run all rows of the manifest file
+    final String manifestPath = getOptionValue(cmdArgs, Constants.PARAM_OPTION_BATCH);
+    if (manifestPath != null) {
+      final String tempFolder = getOptionValue(cmdArgs, Constants.PARAM_OPTION_TEMP);
+      final BatchCompanion batch = new BatchCompanion(config);
+      final TargetOutput output = getOutput(memoryOutput, packagePath, tempFolder, config);
+      batch.setOutput(output);
+      batch.setProgress(progress);
+      try {
+        batch.run(new File(manifestPath), tempFolder);
+        closeOutput(output);
+      } finally {
+        abortOutput(output);
+      }
+      return;
+    }
 
     // set mandatories from arguments
-    final Resource resource = new Resource(args);
+    final Resource resource = new Resource(cmdArgs);
+    final TargetOutput output = resource.isHelp() ? null
+        : getOutput(memoryOutput, packagePath, resource.getTempFolder(), config);
+    resource.setOutput(output);
+    if (progress != null) {
+      resource.setProgress(progress);
+    }
 
     // Get Runner
     BasisRunner runner = new HelpRunner(resource, config);
     if (!resource.isHelp()) {
-      final Reflection reflection = new Reflection(config);
-      runner = reflection.getRunner(resource);
+      runner = (reflection != null ? reflection : new Reflection(config)).getRunner(resource);
       if (runner == null) {
         runner = new HelpRunner(resource, config);
       }
     }
 
     // Run to create template structure
-    runner.run();
+    final Stats stats = resource.getProgress().getStats();
+    final Stats.Sample sample = stats.start(Stats.TIMER_RUNNER + resource.getType() + ":" + resource.getSourceName());
+    try {
+      runner.run();
+      closeOutput(output);
+    } finally {
+      stats.stop(sample);
+      abortOutput(output);
+    }
+  }
+
+  /**
+   * Get output for the generated files: the memory output or
+   * the content package for the files under TARGET_UI_FOLDER
+   *
+   * @param memoryOutput
+   *          - memory output or null
+   * @param packagePath
+   *          - content package zip file path or null
+   * @param tempFolder
+   *          - temp folder to create all templates under or null
+   * @param config
+   *          - properties config
+   * @return output or null to create the files in the file system
+   * @throws IOException
+   *           - IOException
+   */
+  private static TargetOutput getOutput(final MemoryOutput memoryOutput, final String packagePath,
+      final String tempFolder, final Config config) throws IOException {
+    if (memoryOutput != null) {
+      return memoryOutput;
+    }
+    if (StringUtils.isBlank(packagePath)) {
+      return null;
+    }
+    String jcrRoot = config.getProperty(Constants.CONFIGPROP_TARGET_UI_FOLDER);
+    if (StringUtils.isNotBlank(tempFolder)) {
+      jcrRoot = tempFolder + "/" + jcrRoot;
+    }
+    return new ContentPackage(new File(packagePath), new File(jcrRoot));
+  }
+
+  private static void closeOutput(final TargetOutput output) throws IOException {
+    if (output != null) {
+      output.close();
+    }
+  }
+
+  private static void abortOutput(final TargetOutput output) {
+    if (output != null) {
+      output.abort();
+    }
+  }
+
+  /**
+   * Log the files of the dry run
+   *
+   * @param output
+   *          - memory output of the dry run
+   */
+  private static void logDryRun(final MemoryOutput output) {
+    final List<File> files = output.getFiles();
+    LOG.info("Dry run, nothing is written. {} files with {} bytes would be created:", files.size(),
+        output.getSize());
+    for (final File file : files) {
+      LOG.info(String.format("%10d  %s", output.getContent(file).length, file));
+    }
+  }
+
+  /**
+   * Get statistics for the arguments
+   *
+   * @param args
+   *          - arguments
+   * @return new statistics if the --stats option is set, otherwise disabled statistics
+   */
+  private static Stats getStats(final String[] args) {
+    return hasOption(args, Constants.PARAM_OPTION_STATS) ? new Stats() : Stats.DISABLED;
+  }
+
+  /**
+   * Log the statistics of the run as table or as JSON
+   *
+   * @param stats
+   *          - statistics
+   * @param format
+   *          - "json" or null for the table
+   */
+  private static void logStats(final Stats stats, final String format) {
+    if (Stats.FORMAT_JSON.equalsIgnoreCase(format)) {
+      LOG.info(stats.getJsonReport());
+      return;
+    }
+    LOG.info("Statistics:");
+    for (final String line : stats.getTextReport()) {
+      LOG.info(line);
+    }
+  }
+
+  /**
+   * Is the option argument in form "-option" or "-option=value" set?
+   *
+   * @param args
+   *          - arguments
+   * @param option
+   *          - option name
+   * @return true if the option is set
+   */
+  private static boolean hasOption(final String[] args, final String option) {
+    if (args != null) {
+      for (final String arg : args) {
+        if (arg.equals(option) || arg.startsWith(option + "=")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Remove the option argument in form "-option" or "-option=value"
+   *
+   * @param args
+   *          - arguments
+   * @param option
+   *          - option name
+   * @return arguments without the option
+   */
+  private static String[] removeOption(final String[] args, final String option) {
+    if (args == null) {
+      return null;
+    }
+    final List<String> result = new ArrayList<String>();
+    for (final String arg : args) {
+      if (!arg.equals(option) && !arg.startsWith(option + "=")) {
+        result.add(arg);
+      }
+    }
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * Get value of the option argument in form "-option=value"
+   *
+   * @param args
+   *          - arguments
+   * @param option
+   *          - option name
+   * @return option value or null if the option isn't found
+   */
+  private static String getOptionValue(final String[] args, final String option) {
+    if (args != null) {
+      for (final String arg : args) {
+        if (arg.startsWith(option + "=")) {
+          return arg.substring(option.length() + 1).trim();
+        }
+      }
+    }
+    return null;
   }
 
   /**
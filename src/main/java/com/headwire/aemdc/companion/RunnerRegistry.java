@@ -0,0 +1,148 @@
+package com.headwire.aemdc.companion;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.runner.BasisRunner;
+import com.headwire.aemdc.runner.RunnerFactory;
+import com.headwire.aemdc.util.FilesDirsUtil;
+
+
+/**
+ * Process wide registry of runner factories by template type.
+ * The type runners mapping is loaded once and runner constructors are cached as method handles.
+ * Third-party runners are discovered with the ServiceLoader.
+ *
+ */
+public class RunnerRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RunnerRegistry.class);
+
+  private final Map<String, RunnerFactory> factories;
+
+  /**
+   * Lazy holder of the registry instance
+   */
+  private static class Holder {
+
+    static final RunnerRegistry INSTANCE = new RunnerRegistry();
+  }
+
+  /**
+   * Constructor
+   */
+  private RunnerRegistry() {
+    final Map<String, RunnerFactory> map = new HashMap<String, RunnerFactory>();
+
+    // runners from reflection file
+    final Properties props = FilesDirsUtil.getPropertiesFromContextClassLoader(Constants.REFLECTION_PROPS_FILE_PATH);
+    for (final String type : props.stringPropertyNames()) {
+      final String fullyQualifiedClassName = props.getProperty(type);
+      if (StringUtils.isNotBlank(fullyQualifiedClassName)) {
+        final RunnerFactory factory = getConstructorFactory(type, fullyQualifiedClassName.trim());
+        if (factory != null) {
+          map.put(type, factory);
+        }
+      }
+    }
+
+    // third-party runners
+    try {
+      for (final RunnerFactory factory : ServiceLoader.load(RunnerFactory.class)) {
+        final String type = factory.getType();
+        if (StringUtils.isBlank(type)) {
+          LOG.error("Runner factory [{}] has no template type.", factory.getClass().getName());
+        } else if (map.containsKey(type)) {
+          LOG.error("Runner factory [{}] ignored, template type [{}] is already registered.",
+              factory.getClass().getName(), type);
+        } else {
+          map.put(type, factory);
+          LOG.debug("Runner factory [{}] registered for template type [{}].", factory.getClass().getName(), type);
+        }
+      }
+    } catch (final ServiceConfigurationError e) {
+      LOG.error("Can't load runner factories.", e);
+    }
+
+    factories = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Get registry instance
+   *
+   * @return runner registry
+   */
+  public static RunnerRegistry getInstance() {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Get runner factory for the template type.
+   *
+   * @param type
+   *          - template type
+   * @return runner factory or null if not registered
+   */
+  public RunnerFactory getFactory(final String type) {
+    return factories.get(type);
+  }
+
+  /**
+   * Create factory calling the runner constructor (Resource, Config) by the cached method handle.
+   *
+   * @param type
+   *          - template type
+   * @param fullyQualifiedClassName
+   *          - runner class name
+   * @return runner factory or null if the runner class is invalid
+   */
+  private static RunnerFactory getConstructorFactory(final String type, final String fullyQualifiedClassName) {
+    try {
+      final Class<?> c = Class.forName(fullyQualifiedClassName);
+      if (!BasisRunner.class.isAssignableFrom(c)) {
+        LOG.error("Class [{}] for template type [{}] is not a runner.", fullyQualifiedClassName, type);
+        return null;
+      }
+      final Constructor<?> ctor = c.getDeclaredConstructor(Resource.class, Config.class);
+      ctor.setAccessible(true);
+      final MethodHandle handle = MethodHandles.lookup().unreflectConstructor(ctor)
+          .asType(MethodType.methodType(BasisRunner.class, Resource.class, Config.class));
+
+      return new RunnerFactory() {
+
+        @Override
+        public String getType() {
+          return type;
+        }
+
+        @Override
+        public BasisRunner getRunner(final Resource resource, final Config config) {
+          try {
+            return (BasisRunner) handle.invokeExact(resource, config);
+          } catch (final Error e) {
+            throw e;
+          } catch (final Throwable e) {
+            LOG.error("Can't get class instance for template type [{}]. ", type, e);
+            return null;
+          }
+        }
+      };
+
+    } catch (ClassNotFoundException | NoSuchMethodException | SecurityException | IllegalAccessException e) {
+      LOG.error("Can't get class constructor for template type [{}]. ", type, e);
+      return null;
+    }
+  }
+}
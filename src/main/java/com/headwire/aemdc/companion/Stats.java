@@ -0,0 +1,348 @@
+package com.headwire.aemdc.companion;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Timing and counter statistics of one generation for the --stats report.
+ * Timers measure the wall and the CPU time of the calling thread, counters are
+ * the files read and written with their bytes and the place holder hits and misses per name.
+ * The disabled statistics ignore all calls, so the instrumented code has no measurable overhead.
+ *
+ */
+public class Stats {
+
+  public static final Stats DISABLED = new Stats(false);
+
+  public static final String FORMAT_JSON = "json";
+
+  public static final String TIMER_CONFIG = "config";
+  public static final String TIMER_RUNNER = "runner ";
+  public static final String TIMER_COMMAND = "command ";
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final boolean enabled;
+  private final boolean cpuTime;
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+  private final ConcurrentMap<String, Counter> placeHolders = new ConcurrentHashMap<String, Counter>();
+  private final AtomicLong filesRead = new AtomicLong();
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong filesWritten = new AtomicLong();
+  private final AtomicLong bytesWritten = new AtomicLong();
+
+  /**
+   * Constructor of the enabled statistics
+   */
+  public Stats() {
+    this(true);
+  }
+
+  private Stats(final boolean enabled) {
+    this.enabled = enabled;
+    this.cpuTime = enabled && THREADS.isCurrentThreadCpuTimeSupported();
+  }
+
+  /**
+   * @return true if the statistics are collected
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start time measuring
+   *
+   * @param name
+   *          - timer name
+   * @return started sample or null if the statistics are disabled
+   */
+  public Sample start(final String name) {
+    if (!enabled) {
+      return null;
+    }
+    return new Sample(name, System.nanoTime(), getCpuTime());
+  }
+
+  /**
+   * Stop time measuring and add the time to the timer of the sample.
+   * Must be called in the thread of the started sample.
+   *
+   * @param sample
+   *          - started sample or null
+   */
+  public void stop(final Sample sample) {
+    if (sample == null) {
+      return;
+    }
+    final long wall = System.nanoTime() - sample.wallStart;
+    final long cpu = cpuTime ? getCpuTime() - sample.cpuStart : 0L;
+    getTimer(sample.name).add(wall, cpu);
+  }
+
+  /**
+   * Count read file
+   *
+   * @param size
+   *          - read bytes
+   */
+  public void fileRead(final long size) {
+    if (enabled) {
+      filesRead.incrementAndGet();
+      bytesRead.addAndGet(size);
+    }
+  }
+
+  /**
+   * Count read file, the size is only got if the statistics are enabled
+   *
+   * @param file
+   *          - read file
+   */
+  public void fileRead(final File file) {
+    if (enabled) {
+      fileRead(file.length());
+    }
+  }
+
+  /**
+   * Count written file
+   *
+   * @param size
+   *          - written bytes
+   */
+  public void fileWritten(final long size) {
+    if (enabled) {
+      filesWritten.incrementAndGet();
+      bytesWritten.addAndGet(size);
+    }
+  }
+
+  /**
+   * Count written file, the size is only got if the statistics are enabled
+   *
+   * @param file
+   *          - written file
+   */
+  public void fileWritten(final File file) {
+    if (enabled) {
+      fileWritten(file.length());
+    }
+  }
+
+  /**
+   * Count found place holder
+   *
+   * @param phName
+   *          - place holder name
+   * @param hit
+   *          - true if the place holder has a value, false if it's unknown
+   */
+  public void placeHolder(final String phName, final boolean hit) {
+    if (enabled) {
+      Counter counter = placeHolders.get(phName);
+      if (counter == null) {
+        final Counter newCounter = new Counter();
+        counter = placeHolders.putIfAbsent(phName, newCounter);
+        if (counter == null) {
+          counter = newCounter;
+        }
+      }
+      (hit ? counter.hits : counter.misses).incrementAndGet();
+    }
+  }
+
+  /**
+   * Get report as text table
+   *
+   * @return report lines
+   */
+  public List<String> getTextReport() {
+    final List<String> lines = new ArrayList<String>();
+    lines.add(String.format("%-40s %6s %12s %12s", "Timer", "Count", "Wall ms", "CPU ms"));
+    for (final Map.Entry<String, Timer> entry : new TreeMap<String, Timer>(timers).entrySet()) {
+      final Timer timer = entry.getValue();
+      lines.add(String.format("%-40s %6d %12.1f %12.1f", entry.getKey(), timer.count.get(),
+          timer.wall.get() / 1e6, timer.cpu.get() / 1e6));
+    }
+    lines.add(String.format("Files read: %d (%d bytes), files written: %d (%d bytes)", filesRead.get(),
+        bytesRead.get(), filesWritten.get(), bytesWritten.get()));
+    if (!placeHolders.isEmpty()) {
+      lines.add(String.format("%-40s %6s %12s", "Place holder", "Hits", "Misses"));
+      for (final Map.Entry<String, Counter> entry : new TreeMap<String, Counter>(placeHolders)
+          .entrySet()) {
+        lines.add(String.format("%-40s %6d %12d", entry.getKey(), entry.getValue().hits.get(),
+            entry.getValue().misses.get()));
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Get report as JSON object
+   *
+   * @return JSON text
+   */
+  public String getJsonReport() {
+    final StringBuilder json = new StringBuilder("{\"timers\":{");
+    String separator = "";
+    for (final Map.Entry<String, Timer> entry : new TreeMap<String, Timer>(timers).entrySet()) {
+      final Timer timer = entry.getValue();
+      json.append(separator).append(toJson(entry.getKey())).append(":{\"count\":").append(timer.count.get())
+          .append(",\"wallNanos\":").append(timer.wall.get()).append(",\"cpuNanos\":").append(timer.cpu.get())
+          .append('}');
+      separator = ",";
+    }
+    json.append("},\"filesRead\":").append(filesRead.get()).append(",\"bytesRead\":").append(bytesRead.get())
+        .append(",\"filesWritten\":").append(filesWritten.get()).append(",\"bytesWritten\":")
+        .append(bytesWritten.get()).append(",\"placeHolders\":{");
+    separator = "";
+    for (final Map.Entry<String, Counter> entry : new TreeMap<String, Counter>(placeHolders)
+        .entrySet()) {
+      json.append(separator).append(toJson(entry.getKey())).append(":{\"hits\":")
+          .append(entry.getValue().hits.get()).append(",\"misses\":").append(entry.getValue().misses.get())
+          .append('}');
+      separator = ",";
+    }
+    return json.append("}}").toString();
+  }
+
+  /**
+   * @param name
+   *          - timer name
+   * @return number of the measured samples of the timer
+   */
+  public long getCount(final String name) {
+    final Timer timer = timers.get(name);
+    return timer == null ? 0L : timer.count.get();
+  }
+
+  /**
+   * @return the number of read files
+   */
+  public long getFilesRead() {
+    return filesRead.get();
+  }
+
+  /**
+   * @return the number of written files
+   */
+  public long getFilesWritten() {
+    return filesWritten.get();
+  }
+
+  /**
+   * @return the written bytes
+   */
+  public long getBytesWritten() {
+    return bytesWritten.get();
+  }
+
+  /**
+   * @param phName
+   *          - place holder name
+   * @return number of the place holder hits
+   */
+  public long getHits(final String phName) {
+    final Counter counter = placeHolders.get(phName);
+    return counter == null ? 0L : counter.hits.get();
+  }
+
+  /**
+   * @param phName
+   *          - place holder name
+   * @return number of the place holder misses
+   */
+  public long getMisses(final String phName) {
+    final Counter counter = placeHolders.get(phName);
+    return counter == null ? 0L : counter.misses.get();
+  }
+
+  private Timer getTimer(final String name) {
+    Timer timer = timers.get(name);
+    if (timer == null) {
+      final Timer newTimer = new Timer();
+      timer = timers.putIfAbsent(name, newTimer);
+      if (timer == null) {
+        timer = newTimer;
+      }
+    }
+    return timer;
+  }
+
+  private long getCpuTime() {
+    return cpuTime ? THREADS.getCurrentThreadCpuTime() : 0L;
+  }
+
+  /**
+   * Quote and escape JSON string
+   *
+   * @param text
+   *          - text
+   * @return JSON string
+   */
+  static String toJson(final String text) {
+    final StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    return json.append('"').toString();
+  }
+
+  /**
+   * Started time measuring
+   */
+  public static class Sample {
+
+    private final String name;
+    private final long wallStart;
+    private final long cpuStart;
+
+    Sample(final String name, final long wallStart, final long cpuStart) {
+      this.name = name;
+      this.wallStart = wallStart;
+      this.cpuStart = cpuStart;
+    }
+  }
+
+  /**
+   * Timer with the sum of the measured times
+   */
+  private static class Timer {
+
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong wall = new AtomicLong();
+    final AtomicLong cpu = new AtomicLong();
+
+    void add(final long wallNanos, final long cpuNanos) {
+      count.incrementAndGet();
+      wall.addAndGet(wallNanos);
+      cpu.addAndGet(cpuNanos);
+    }
+  }
+
+  /**
+   * Place holder hits and misses
+   */
+  private static class Counter {
+
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+  }
+}
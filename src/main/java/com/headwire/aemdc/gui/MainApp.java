@@ -2,14 +2,18 @@ package com.headwire.aemdc.gui;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
-import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.PatternLayout;
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Progress;
 import com.headwire.aemdc.companion.RunnableCompanion;
+import com.headwire.aemdc.util.MemoryOutput;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -20,18 +24,19 @@ import javafx.scene.layout.*;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
-import org.apache.commons.io.FileUtils;
 import org.simpleframework.xml.Serializer;
 import org.simpleframework.xml.core.Persister;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MainApp extends Application {
 
@@ -60,9 +65,15 @@ public class MainApp extends Application {
 
     // label for the bottom showing last log message
     private Label lastLogMessage = new Label("last log message: ");
-    private Console console;
+    private ConsoleAppender console;
     private File root;
 
+    // progress of the running aemdc generation in the bottom bar
+    private final Label progressMessage = new Label();
+    private final ProgressBar progressBar = new ProgressBar(0);
+    private final Button cancelButton = new Button("cancel");
+    private GenerationTask task;
+
     // launch of the application
     public static void main(String[] args) {
         // set default INFO log level to avoid logging from ConfigUtil
@@ -71,38 +82,126 @@ public class MainApp extends Application {
         launch(args);
     }
 
-    // hook to execute aemdc
+    // hook to execute aemdc, the generation runs in a background task to keep the UI responsive
     private void performAction(ArrayList<String> parameters, boolean preview) {
 
+        if(task != null && task.isRunning()) {
+            LOG.info("aemdc is still running, wait or cancel it first");
+            return;
+        }
+
         console.clear();
 
         tabPane.getSelectionModel().select(1);
+        hidePreviewPane();
+
+        task = new GenerationTask(parameters.toArray(new String[parameters.size()]), preview);
+        task.setOnSucceeded(e -> {
+            hideProgress();
+            MemoryOutput output = task.getValue();
+            if(output != null) {
+                showPreviewPane(output);
+            }
+        });
+        task.setOnFailed(e -> {
+            hideProgress();
+            if(task.isCancelledByUser()) {
+                LOG.info("aemdc cancelled");
+            } else {
+                LOG.error("failed to perform aemdc command", task.getException());
+            }
+        });
+        showProgress(task);
 
+        Thread thread = new Thread(task, "aemdc generation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // write the current state of the UI to aemdcgui.xml
+    private void saveModel() {
         Serializer serializer = new Persister();
         try {
             serializer.write(model, new File(root, "aemdcgui.xml"));
         } catch (Exception e) {
             LOG.error("failed to write current state of UI to aemdcgui.xml",e);
         }
-        try {
+    }
+
+    // bind the progress bar and message to the running task
+    private void showProgress(GenerationTask task) {
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressMessage.textProperty().bind(task.messageProperty());
+        progressBar.setVisible(true);
+        progressMessage.setVisible(true);
+        cancelButton.setVisible(true);
+    }
+
+    // unbind and hide the progress bar after the task is done
+    private void hideProgress() {
+        progressBar.progressProperty().unbind();
+        progressMessage.textProperty().unbind();
+        progressBar.setVisible(false);
+        progressMessage.setVisible(false);
+        cancelButton.setVisible(false);
+    }
+
+    // background task to save the UI state and run aemdc, the FX thread is used for rendering only.
+    // Progress events are called in the generation threads and coalesced by the task updates.
+    class GenerationTask extends Task<MemoryOutput> implements Progress.Listener {
+        private final String[] args;
+        private final boolean preview;
+        private final Progress progress = new Progress(this);
+        private volatile String command = "";
+
+        public GenerationTask(String[] args, boolean preview) {
+            this.args = args;
+            this.preview = preview;
+        }
 
-            LOG.info("aemdc "+String.join(" ", parameters));
-            RunnableCompanion.main(parameters.toArray(new String[parameters.size()]));
+        @Override
+        protected MemoryOutput call() throws Exception {
+            updateMessage("starting aemdc");
+            updateProgress(-1, 1);
+            saveModel();
+
+            LOG.info("aemdc "+String.join(" ", args));
+            MemoryOutput output = null;
+            if(preview) {
+                // render the preview in memory only
+                output = RunnableCompanion.preview(args, progress);
+            } else {
+                RunnableCompanion.generate(args, progress);
+            }
             LOG.info("aemdc completed");
-        } catch(IOException ioe) {
-            LOG.error("failed to perform aemdc command", ioe);
+            return output;
         }
 
-        if(preview) {
-            hidePreviewPane();
-            showPreviewPane();
-        } else {
-            hidePreviewPane();
+        @Override
+        public void commandStarted(String command, String type, String templateName) {
+            this.command = command + " " + type + ":" + templateName;
+            updateMessage(this.command);
+        }
+
+        @Override
+        public void fileDone(File file, int filesDone, int filesTotal, long bytes) {
+            updateProgress(filesDone, filesTotal);
+            updateMessage(command + " - " + filesDone + "/" + filesTotal + " files, " + bytes + " bytes");
+        }
+
+        // stop the commands before the next file, the task fails when the commands are stopped
+        public void cancelGeneration() {
+            progress.cancel();
+            updateMessage("cancelling...");
+        }
+
+        public boolean isCancelledByUser() {
+            return progress.isCancelled();
         }
     }
 
     // show the preview panel (file tree with a textare displaying the selected file)
-    private void showPreviewPane() {
+    private void showPreviewPane(MemoryOutput output) {
         BorderPane preview = new BorderPane();
         TextArea ta = new TextArea();
         ta.setWrapText(false);
@@ -112,7 +211,7 @@ public class MainApp extends Application {
         TreeItem root = new TreeItem("root");
         root.setExpanded(true);
 
-        TreeItem firstFile = makePreviewTree(root);
+        TreeItem firstFile = makePreviewTree(root, output);
 
         TreeView tree = new TreeView(root);
         tree.setShowRoot(false);
@@ -121,8 +220,8 @@ public class MainApp extends Application {
             public void changed(ObservableValue observable, Object oldValue, Object newValue) {
                 if(tree.getSelectionModel().getSelectedIndex() < 0) return;
                 TreeItemFileWrapper item = (TreeItemFileWrapper) ((TreeItem) newValue).getValue();
-                if(!item.getFile().isDirectory()) {
-                    showFileInTextArea(item.getFile(), ta);
+                if(item.getContent() != null) {
+                    showFileInTextArea(item.getContent(), ta);
                 }
             }
         });
@@ -137,68 +236,72 @@ public class MainApp extends Application {
         tabPane.getSelectionModel().select(tab);
     }
 
-    // load file into a textarea
-    private void showFileInTextArea(File file, TextArea ta) {
-        final StringBuilder sb = new StringBuilder();
+    // load file content into a textarea
+    private void showFileInTextArea(byte[] content, TextArea ta) {
         try {
-            BufferedReader br = new BufferedReader(new FileReader(file));
-            String line = br.readLine();
-            while(line != null) {
-                sb.append(line);
-                sb.append("\n");
-                line = br.readLine();
-            }
-            br.close();
-        } catch(Exception e) {
-            LOG.error("problem reading file for preview pane {}", file);
+            ta.setText(new String(content, Constants.ENCODING));
+        } catch(UnsupportedEncodingException e) {
+            LOG.error("problem reading file for preview pane", e);
         }
-        ta.setText(sb.toString());
     }
 
-    // make a preview tree of all files in the temp/aemdc folder
-    private TreeItem makePreviewTree(TreeItem root) {
+    // make a preview tree of all files rendered into memory under the temp/aemdc folder
+    private TreeItem makePreviewTree(TreeItem root, MemoryOutput output) {
 
         final File tempDir = new File(System.getProperty("java.io.tmpdir"));
         final File tempAemDCFolder = new File(tempDir, "aemdc");
 
-        final TreeItem firstFile = makePreviewTreeFromFile(root, tempAemDCFolder);
+        final TreeItem firstFile = makePreviewTreeFromOutput(root, tempAemDCFolder, output);
 
         return firstFile;
     }
 
-    // create treeitems from file structure
-    private TreeItem makePreviewTreeFromFile(TreeItem node, File folder) {
+    // create treeitems from the paths of the rendered files
+    private TreeItem makePreviewTreeFromOutput(TreeItem node, File folder, MemoryOutput output) {
         TreeItem firstFile = null;
-        for (File file: folder.listFiles()
+        final HashMap<File, TreeItem> dirs = new HashMap<>();
+        dirs.put(folder.getAbsoluteFile(), node);
+        dirs.put(null, node);
+        for (File file: output.getFiles()
              ) {
-            TreeItem child = new TreeItem(new TreeItemFileWrapper(file));
-            node.getChildren().add(child);
-            if(file.isDirectory()) {
-                child.setExpanded(true);
-                TreeItem first = makePreviewTreeFromFile(child, file);
-                if(firstFile == null) {
-                    firstFile = first;
-                }
-            } else {
-                if(firstFile == null) {
-                    firstFile = child;
-                }
+            TreeItem child = new TreeItem(new TreeItemFileWrapper(file, output.getContent(file)));
+            getPreviewTreeDir(dirs, file.getParentFile()).getChildren().add(child);
+            if(firstFile == null) {
+                firstFile = child;
             }
         }
         return firstFile;
     }
 
-    // wrapper class for tree item to handle a file
+    // get or create the treeitem of the directory
+    private TreeItem getPreviewTreeDir(HashMap<File, TreeItem> dirs, File dir) {
+        TreeItem item = dirs.get(dir);
+        if(item == null) {
+            item = new TreeItem(new TreeItemFileWrapper(dir, null));
+            item.setExpanded(true);
+            getPreviewTreeDir(dirs, dir.getParentFile()).getChildren().add(item);
+            dirs.put(dir, item);
+        }
+        return item;
+    }
+
+    // wrapper class for tree item to handle a file and its rendered content
     static class TreeItemFileWrapper {
         private File file;
-        public TreeItemFileWrapper(File file) {
+        private byte[] content;
+        public TreeItemFileWrapper(File file, byte[] content) {
             this.file = file;
+            this.content = content;
         }
 
         public File getFile() {
             return file;
         }
 
+        public byte[] getContent() {
+            return content;
+        }
+
         public String toString() {
             return file.getName();
         }
@@ -225,8 +328,19 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    // stop watching the templates
+    @Override
+    public void stop() {
+        if(model != null) {
+            model.close();
+        }
+    }
+
     public Scene getMainScene(File root) {
         this.root = root == null ? new File(".") : root;
+        if(model != null) {
+            model.close();
+        }
         Serializer serializer = new Persister();
         try {
             File aemdcguiConfigFile = new File(root, "aemdcgui.xml");
@@ -258,48 +372,49 @@ public class MainApp extends Application {
         tabPane = new TabPane();
         tabPane.getTabs().addAll(workspace, logView);
 
+        cancelButton.setOnAction((ActionEvent e) -> {
+            if(task != null) {
+                task.cancelGeneration();
+            }
+        });
+        progressBar.setPrefWidth(150);
+        hideProgress();
+
+        HBox bottom = new HBox(10);
+        bottom.setAlignment(Pos.CENTER_LEFT);
+        HBox.setHgrow(lastLogMessage, Priority.ALWAYS);
+        lastLogMessage.setMaxWidth(Double.MAX_VALUE);
+        bottom.getChildren().addAll(lastLogMessage, progressMessage, progressBar, cancelButton);
+
         BorderPane borderPane = new BorderPane();
         borderPane.setCenter(tabPane);
-        borderPane.setBottom(lastLogMessage);
+        borderPane.setBottom(bottom);
 
         Scene scene = new Scene(borderPane);
         return scene;
     }
 
-    // creates a log viewer wrapping system.out and system.err
+    // creates a log viewer showing the aemdc log events
     private Tab createLogViewTab() {
         Tab logView = new Tab("log");
 
         TextArea ta = new TextArea();
         ta.setWrapText(false);
-
-        if(console != null) {
-            console.exit();
-        }
-        console = new Console(ta, lastLogMessage);
         ta.setStyle("-fx-font-family: Monospaced;");
-        PrintStream ps = new PrintStream(console, true);
 
         LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
-        // ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("ROOT");
         // Limit logs to AEMDC otherwise any logs are printed here
         ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.headwire.aemdc");
         // Limit logs to INFO to cut down on number of log statements
         logger.setLevel(Level.INFO);
 
-        PatternLayoutEncoder ple = new PatternLayoutEncoder();
-
-        ple.setPattern("%m%n)");
-        ple.setContext(lc);
-        ple.start();
-
-        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
-        appender.setContext(lc);
-        appender.setEncoder(ple);
-        appender.setOutputStream(ps);
-        appender.start();
-
-        logger.addAppender(appender);
+        if(console != null) {
+            logger.detachAppender(console);
+            console.stop();
+        }
+        console = new ConsoleAppender(lc, ta, lastLogMessage);
+        console.start();
+        logger.addAppender(console);
 
         logView.setContent(ta);
 
@@ -504,19 +619,11 @@ public class MainApp extends Application {
         } else {
             params.set(2, params.get(2).substring("targetName=".length()));
             if(preview) {
+                // the preview is rendered in memory, the temp folder is not created
                 File tempDir = new File(System.getProperty("java.io.tmpdir"));
                 File tempAemDCFolder = new File(tempDir, "aemdc");
-                tempAemDCFolder.mkdirs();
-                if(tempAemDCFolder.exists()) {
-                    try {
-                        FileUtils.deleteDirectory(tempAemDCFolder);
-                    } catch (IOException e) {
-                        LOG.error("not able to remove temp file folder for preview", e);
-                    } finally {
-                        params.add(0, "-temp="+tempAemDCFolder.getAbsolutePath());
-                        performAction(params, preview);
-                    }
-                }
+                params.add(0, "-temp="+tempAemDCFolder.getAbsolutePath());
+                performAction(params, preview);
             }
             else {
                 if(root != null) {
@@ -580,193 +687,107 @@ public class MainApp extends Application {
     }
 }
 
-class Console extends OutputStream
-{
-    private String line = "";
-    private OutputHandler outputHandler;
-
-    public Console(TextArea ta, final Label lastLogMessage)
-    {
-        this.outputHandler = new OutputHandler(lastLogMessage, ta);
-    }
-
-    @Override
-    public void write(int i) throws IOException
-    {
-        String ch = String.valueOf((char) i);
-        if(i >= 32) {
-            line += ch;
-        } else if((i == 10 || i == 13) && line.length() > 0) {
-            outputHandler.setLine(line);
-            line = "";
-        }
-    }
-
-    public void clear() {
-        outputHandler.clear();
-    }
-
-    public void exit() {
-        outputHandler.exit();
-    }
-
-}
-
 /**
- * This class makes sure that lines are still witten to the
- * log after a given timeout (MAX_TIME).
+ * Logback appender writing the log lines directly to the log view.
  *
- * The class's thread is waiting if no lines are pending to
- * avoid a constant load by this class.
- */
-class TimedCheckRunner
-    implements Runnable
-{
-    private static long MAX_TIME = 10 * 1000;
-
-    private OutputHandler outputHandler;
-
-    public TimedCheckRunner(OutputHandler outputHandler) {
-        this.outputHandler = outputHandler;
-    }
-
-    public void run() {
-        while(!Thread.interrupted()) {
-            // If no lines or set to run we wait for new lines to be added
-            synchronized(outputHandler) {
-                if(outputHandler.isEmpty() || outputHandler.isScheduledToRun()) {
-                    try {
-                        outputHandler.wait();
-                    } catch(InterruptedException e) {
-                        break;
-                    }
-                }
-            }
-            // If run is not scheduled then check if time has passed and if start the updated thread
-            if(!outputHandler.isScheduledToRun()) {
-                long timeSince = System.currentTimeMillis() - outputHandler.getStartTime();
-                if(timeSince < MAX_TIME) {
-                    // Delay until max time has passed
-                    try {
-                        Thread.sleep(MAX_TIME - timeSince);
-                    } catch(InterruptedException e) {
-                        // Ignore and exit
-                        break;
-                    }
-                }
-                if(!outputHandler.isScheduledToRun()) {
-                    outputHandler.scheduleRun();
-                }
-            }
-        }
-        if(Thread.interrupted()) {
-            outputHandler = null;
-        }
-    }
-}
-
-/**
- * This class received the output lines and clear events,
- * stores the locally and then writes them out if there are
- * more than the given threshold of lines.
+ * The logging threads add the lines to a lock-free queue without waiting for each other.
+ * Only one drain of the queue is scheduled with Platform.runLater at a time, so all lines
+ * logged until the next frame are appended to the text area at once.
  *
- * This class is then used to write the log lines out
- * to the Text Area in a JavaFX thread (run method).
+ * The view keeps the last MAX_LINES lines like a ring buffer, older lines are removed
+ * from the text area. Pending lines are capped the same way, if the JavaFX thread is busy.
  */
-class OutputHandler
-    implements Runnable
+class ConsoleAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
 {
-    public static final String CLEAR = "!!CLEAR!!";
-    public static final int WRITE_OUT_THRESHOLD = 10;
+    public static final int MAX_LINES = 5000;
 
     // JavaFX objects
-    private Label lastLogMessage;
-    private TextArea output;
-    // Log Line Buffer
-    private List<String> lines = new ArrayList<>();
-    // Flag to indicate if a run inside the JavaFX thread is scheduled
-    private AtomicBoolean willRun = new AtomicBoolean(false);
-    // Indicates when the first line was added to the buffer or -1 if lines are empty
-    private AtomicLong start = new AtomicLong(-1);
-    // Thread that makes sure buffer is written out after a given time even
-    // if there are less than the threshold lines in the buffer
-    private Thread timedCheck;
-
-    public OutputHandler(Label lastLogMessage, TextArea output) {
-        this.lastLogMessage = lastLogMessage;
+    private final TextArea output;
+    private final Label lastLogMessage;
+    private final PatternLayout layout = new PatternLayout();
+    // Log lines of all threads waiting for the next drain
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    // Flag to indicate if a drain inside the JavaFX thread is scheduled
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    // Last log message without stack trace for the bottom label
+    private volatile String lastMessage;
+    // Lengths of the lines shown in the text area, used in the JavaFX thread only
+    private final ArrayDeque<Integer> lineLengths = new ArrayDeque<>();
+
+    public ConsoleAppender(LoggerContext context, TextArea output, Label lastLogMessage) {
         this.output = output;
-        timedCheck = new Thread(
-            new TimedCheckRunner(this),
-            "Time Checker for Logs"
-        );
-        timedCheck.setDaemon(true);
-        timedCheck.start();
-    }
-
-    public void exit() {
-        timedCheck.interrupt();
+        this.lastLogMessage = lastLogMessage;
+        setContext(context);
+        layout.setContext(context);
+        layout.setPattern("%m");
     }
 
-    public boolean isScheduledToRun() {
-        return willRun.get();
+    @Override
+    public void start() {
+        layout.start();
+        super.start();
     }
 
-    public void scheduleRun() {
-        willRun.set(true);
-        Platform.runLater(this);
+    @Override
+    public void stop() {
+        super.stop();
+        layout.stop();
     }
 
-    public boolean isEmpty() {
-        return lines.isEmpty();
+    @Override
+    protected void append(ILoggingEvent event) {
+        // message incl. stack trace of the exception
+        for(String line: layout.doLayout(event).split("\\r?\\n")) {
+            pending.offer(line);
+            if(pendingSize.incrementAndGet() > MAX_LINES && pending.poll() != null) {
+                pendingSize.decrementAndGet();
+            }
+        }
+        lastMessage = event.getFormattedMessage();
+        if(scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
     }
 
-    public long getStartTime() {
-        return start.get();
-    }
+    // append the pending lines to the text area and remove the oldest lines above the limit
+    private void drain() {
+        scheduled.set(false);
 
-    public OutputHandler clear() {
-        addLine(CLEAR);
-        return this;
-    }
-
-    public OutputHandler setLine(String line) {
-        addLine(line);
-        return this;
-    }
+        // lines logged meanwhile are left for the next drain, so at most MAX_LINES lines are appended
+        int count = Math.min(pendingSize.get(), MAX_LINES);
+        StringBuilder text = new StringBuilder();
+        String line;
+        while(count-- > 0 && (line = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            text.append(line).append('\n');
+            lineLengths.add(line.length() + 1);
+        }
+        if(!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+        if(text.length() == 0) {
+            return;
+        }
 
-    private void addLine(String line) {
-        if(line != null) {
-            synchronized(this) {
-                if(start.get() < 0) {
-                    start.set(System.currentTimeMillis());
-                }
-                if(CLEAR.equals(line)) {
-                    lines.clear();;
-                }
-                lines.add(line);
-                if(lines.size() > WRITE_OUT_THRESHOLD || line.equals("aemdc completed") || line.equals("failed to perform aemdc command")) {
-                    if(!willRun.get()) {
-                        scheduleRun();
-                    }
-                }
-                this.notifyAll();
-            }
+        // not more than MAX_LINES lines are appended, so only lines already in the text area are removed
+        int removed = 0;
+        while(lineLengths.size() > MAX_LINES) {
+            removed += lineLengths.poll();
+        }
+        if(removed > 0) {
+            output.deleteText(0, removed);
         }
+        output.appendText(text.toString());
+        lastLogMessage.setText("last log message: " + lastMessage);
     }
 
-    public void run() {
-        synchronized(this) {
-            for(String line: lines) {
-                if(CLEAR.equals(line)) {
-                    output.clear();
-                } else {
-                    lastLogMessage.setText("last log message: " + line);
-                    output.appendText(line + "\n");
-                }
-            }
-            lines.clear();
-            start.set(-1);
-            willRun.set(false);
+    // remove pending and shown lines, called in the JavaFX thread
+    public void clear() {
+        while(pending.poll() != null) {
+            pendingSize.decrementAndGet();
         }
+        lineLengths.clear();
+        output.clear();
     }
 }
@@ -0,0 +1,324 @@
+package com.headwire.aemdc.gui;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Reflection;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.runner.BasisRunner;
+import com.headwire.aemdc.util.ArchiveUtil;
+import com.headwire.aemdc.util.Help;
+
+
+/**
+ * Memoized metadata of the template types for the GUI: types, template names per type,
+ * place holders and help texts per "type:name".
+ * Each value is computed once on the first access instead of creating a resource, help and runner on every click.
+ * The template folders and the configuration file are watched, any change clears the cache and
+ * the configuration is reloaded on the next access.
+ *
+ */
+public class MetadataCache implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MetadataCache.class);
+
+  private static final String CONFIG_KEY = "config";
+
+  private final File baseFolder;
+  private final String configFileName;
+
+  // replaced on invalidation incl. the config, so values and a config loaded before are not cached anymore
+  private volatile ConcurrentMap<String, Object> values = new ConcurrentHashMap<String, Object>();
+
+  private WatchService watcher;
+  private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<WatchKey, Path>();
+  private Path configFile;
+  private Path templateRoot;
+
+  /**
+   * Constructor
+   *
+   * @param baseFolder
+   *          - project root folder with the configuration file
+   * @param configFileName
+   *          - configuration properties file name
+   */
+  public MetadataCache(final File baseFolder, final String configFileName) {
+    this.baseFolder = baseFolder;
+    this.configFileName = configFileName;
+  }
+
+  /**
+   * Get configuration, loaded again after invalidation.
+   *
+   * @return configuration
+   */
+  public Config getConfig() {
+    return getConfig(values);
+  }
+
+  /**
+   * Get configuration of the cached values or load it
+   *
+   * @param cache
+   *          - cached values
+   * @return configuration
+   */
+  private Config getConfig(final ConcurrentMap<String, Object> cache) {
+    Config current = (Config) cache.get(CONFIG_KEY);
+    if (current == null) {
+      final Config loaded = new Config(baseFolder, configFileName);
+      current = (Config) cache.putIfAbsent(CONFIG_KEY, loaded);
+      if (current == null) {
+        current = loaded;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Get dynamic types
+   *
+   * @return type list
+   */
+  public List<String> getTypes() {
+    final ConcurrentMap<String, Object> cache = values;
+    @SuppressWarnings("unchecked")
+    List<String> types = (List<String>) cache.get("types");
+    if (types == null) {
+      types = Collections.unmodifiableList(new ArrayList<String>(getConfig(cache).getDynamicTypes()));
+      cache.putIfAbsent("types", types);
+    }
+    return new ArrayList<String>(types);
+  }
+
+  /**
+   * Get template names of the type
+   *
+   * @param type
+   *          - template type
+   * @return template names
+   */
+  public List<String> getTemplateNames(final String type) {
+    final String key = "templates|" + type;
+    final ConcurrentMap<String, Object> cache = values;
+    @SuppressWarnings("unchecked")
+    List<String> names = (List<String>) cache.get(key);
+    if (names == null) {
+      names = Collections.unmodifiableList(new ArrayList<String>(getConfig(cache).getTemplateNames(type)));
+      cache.putIfAbsent(key, names);
+    }
+    return new ArrayList<String>(names);
+  }
+
+  /**
+   * Get place holders of the template incl. all members of a compound template
+   *
+   * @param type
+   *          - template type
+   * @param name
+   *          - template name
+   * @return place holder names
+   */
+  public List<String> getPlaceHolders(final String type, final String name) {
+    final String key = "placeholders|" + type + ":" + name;
+    final ConcurrentMap<String, Object> cache = values;
+    @SuppressWarnings("unchecked")
+    List<String> placeholders = (List<String>) cache.get(key);
+    if (placeholders == null) {
+      final Config current = getConfig(cache);
+      final Resource resource = new Resource(new String[] { type, name });
+      final BasisRunner runner = new Reflection(current).getRunner(resource);
+      if (runner == null) {
+        placeholders = Collections.emptyList();
+      } else {
+        placeholders = Collections.unmodifiableList(new Help(resource, current).getPlaceHolders(runner));
+      }
+      cache.putIfAbsent(key, placeholders);
+    }
+    return new ArrayList<String>(placeholders);
+  }
+
+  /**
+   * Get GUI help text of the type or template
+   *
+   * @param type
+   *          - template type
+   * @param name
+   *          - template name or null for the type help
+   * @return help text
+   */
+  public String getHelpText(final String type, final String name) {
+    final String key = "help|" + type + ":" + StringUtils.defaultString(name);
+    final ConcurrentMap<String, Object> cache = values;
+    String helpText = (String) cache.get(key);
+    if (helpText == null) {
+      final String[] args = name == null ? new String[] { type } : new String[] { type, name };
+      helpText = new Help(new Resource(args), getConfig(cache)).getGuiHelpText();
+      cache.putIfAbsent(key, helpText);
+    }
+    return helpText;
+  }
+
+  /**
+   * Clear all cached values and reload the configuration on the next access
+   */
+  public void invalidate() {
+    values = new ConcurrentHashMap<String, Object>();
+    LOG.debug("Template metadata cache invalidated.");
+  }
+
+  /**
+   * Watch the configuration file and all template folders in the background.
+   * Templates in a zip or jar archive are watched by the archive file.
+   *
+   * @throws IOException
+   *           - IOException
+   */
+  public synchronized void watch() throws IOException {
+    if (watcher != null) {
+      return;
+    }
+    watcher = FileSystems.getDefault().newWatchService();
+
+    configFile = new File(baseFolder, configFileName).getAbsoluteFile().toPath().normalize();
+    register(watcher, configFile.getParent());
+
+    final String typesFolder = getConfig().getProperty(Constants.CONFIGPROP_SOURCE_TYPES_FOLDER);
+    if (StringUtils.isNotBlank(typesFolder)) {
+      final File archive = ArchiveUtil.getArchive(new File(typesFolder));
+      if (archive != null) {
+        templateRoot = archive.getAbsoluteFile().toPath().normalize();
+        register(watcher, templateRoot.getParent());
+      } else if (new File(typesFolder).isDirectory()) {
+        templateRoot = new File(typesFolder).getAbsoluteFile().toPath().normalize();
+        registerAll(watcher, templateRoot);
+      }
+    }
+
+    final Thread thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        processEvents();
+      }
+    }, "aemdc template watcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stop watching the template folders and save the configuration snapshot
+   */
+  @Override
+  public synchronized void close() {
+    final Config current = (Config) values.get(CONFIG_KEY);
+    if (current != null) {
+      current.saveSnapshot();
+    }
+    if (watcher != null) {
+      try {
+        watcher.close();
+      } catch (final IOException e) {
+        LOG.debug("Can't close template watcher.", e);
+      }
+      watcher = null;
+    }
+  }
+
+  /**
+   * Wait for file change notifications and invalidate the cache.
+   * Created directories are watched too.
+   */
+  private void processEvents() {
+    final WatchService service = watcher;
+    try {
+      while (true) {
+        final WatchKey key = service.take();
+        final Path dir = watchedDirs.get(key);
+        boolean changed = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+            changed = true;
+            continue;
+          }
+          final Path path = dir.resolve((Path) event.context()).normalize();
+          if (!isTemplatePath(path)) {
+            // other files in the folders of the configuration file or the templates archive
+            continue;
+          }
+          changed = true;
+          if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+            registerAll(service, path);
+          }
+        }
+        if (!key.reset()) {
+          watchedDirs.remove(key);
+        }
+        if (changed) {
+          invalidate();
+        }
+      }
+    } catch (final InterruptedException | ClosedWatchServiceException e) {
+      LOG.debug("Template watcher stopped.");
+    } catch (final IOException e) {
+      LOG.error("Template watcher stopped, the template metadata will be not updated.", e);
+    }
+  }
+
+  /**
+   * Is the path the configuration file, a template folder or file or the templates archive?
+   *
+   * @param path
+   *          - changed path
+   * @return true if the template metadata can be changed
+   */
+  private boolean isTemplatePath(final Path path) {
+    if (path.equals(configFile)) {
+      return true;
+    }
+    return templateRoot != null && (path.startsWith(templateRoot) || templateRoot.startsWith(path));
+  }
+
+  private void registerAll(final WatchService service, final Path root) throws IOException {
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+      @Override
+      public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+        register(service, dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void register(final WatchService service, final Path dir) throws IOException {
+    final WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+    watchedDirs.put(key, dir);
+    LOG.debug("Watching [{}] for template changes.", dir);
+  }
+}
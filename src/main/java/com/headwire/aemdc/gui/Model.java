@@ -1,5 +1,7 @@
 package com.headwire.aemdc.gui;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -7,12 +9,11 @@ import java.util.List;
 
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Config;
-import com.headwire.aemdc.companion.Reflection;
-import com.headwire.aemdc.companion.Resource;
-import com.headwire.aemdc.runner.BasisRunner;
-import com.headwire.aemdc.util.Help;
+import com.headwire.aemdc.runner.ConfigPropsRunner;
 
 
 /**
@@ -20,12 +21,21 @@ import com.headwire.aemdc.util.Help;
  */
 public class Model {
 
-  private transient Config config = new Config();
+  private static final Logger LOG = LoggerFactory.getLogger(Model.class);
+
+  // types, templates, place holders and help texts are read once and updated on template changes
+  private final transient MetadataCache metadata = new MetadataCache(new File(Config.getProjectRootPath()),
+      ConfigPropsRunner.CONFIG_PROPS_FILENAME);
 
   // setup of types that will be available
   private ArrayList<String> types = new ArrayList<String>();
 
   public Model() {
+    try {
+      metadata.watch();
+    } catch (final IOException e) {
+      LOG.error("Can't watch the templates, the template changes are shown after restart only.", e);
+    }
   }
 
   @ElementMap(entry = "config", key = "type", attribute = true, inline = true)
@@ -33,21 +43,15 @@ public class Model {
 
   public List<String> getTypes() {
 
-    return new ArrayList<String>(config.getDynamicTypes());
+    return metadata.getTypes();
   }
 
   public List<String> getTemplatesForType(final String type) {
-    return new ArrayList<String>(config.getTemplateNames(type));
+    return metadata.getTemplateNames(type);
   }
 
   public List<String> getPlaceHoldersForName(final String type, final String template) {
-    final Resource resource = new Resource(new String[] { type, template });
-    final Help helper = new Help(resource, config);
-
-    final Reflection reflection = new Reflection(config);
-    final BasisRunner runner = reflection.getRunner(resource);
-
-    return (helper.getPlaceHolders(runner));
+    return metadata.getPlaceHolders(type, template);
   }
 
   public String getValue(final String type, final String template, final String placeholder) {
@@ -65,15 +69,11 @@ public class Model {
   }
 
   public String getHelpTextForType(final String type) {
-    final Resource resource = new Resource(new String[] { type });
-    final Help helper = new Help(resource, config);
-    return helper.getGuiHelpText();
+    return metadata.getHelpText(type, null);
   }
 
   public String getHelpTextForTemplate(final String type, final String template) {
-    final Resource resource = new Resource(new String[] { type, template });
-    final Help helper = new Help(resource, config);
-    return helper.getGuiHelpText();
+    return metadata.getHelpText(type, template);
   }
 
   public void setValue(final String type, final String template, final String paramName, final String paramValue) {
@@ -114,6 +114,11 @@ public class Model {
   public void setTypes(final Collection<String> dynamicTypes) {
     types.addAll(dynamicTypes);
   }
+
+  // stop watching the templates
+  public void close() {
+    metadata.close();
+  }
 }
 
 class TypeRoot {
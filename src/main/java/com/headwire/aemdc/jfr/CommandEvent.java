@@ -0,0 +1,33 @@
+package com.headwire.aemdc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of one command execution
+ *
+ */
+@Name(FlightEvents.NAME_PREFIX + "Command")
+@Label("Command")
+@Description("Execution of one runner command")
+@Category(FlightEvents.CATEGORY)
+@StackTrace(false)
+public class CommandEvent extends jdk.jfr.Event {
+
+  @Label("Command")
+  String command;
+
+  @Label("Type")
+  String type;
+
+  @Label("Template")
+  String template;
+
+  @Label("Path")
+  @Description("Target folder")
+  String path;
+}
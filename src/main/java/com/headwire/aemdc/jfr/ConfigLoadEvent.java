@@ -0,0 +1,28 @@
+package com.headwire.aemdc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of the config loading
+ *
+ */
+@Name(FlightEvents.NAME_PREFIX + "ConfigLoad")
+@Label("Config Load")
+@Description("Loading of the aemdc configuration properties")
+@Category(FlightEvents.CATEGORY)
+@StackTrace(false)
+public class ConfigLoadEvent extends jdk.jfr.Event {
+
+  @Label("Path")
+  @Description("Configuration properties file")
+  String path;
+
+  @Label("From Snapshot")
+  @Description("Configuration is read from the binary snapshot")
+  boolean snapshot;
+}
@@ -0,0 +1,45 @@
+package com.headwire.aemdc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of one rendered or copied file
+ *
+ */
+@Name(FlightEvents.NAME_PREFIX + "File")
+@Label("File")
+@Description("Rendering of a template file with replaced place holders or copying of a file")
+@Category(FlightEvents.CATEGORY)
+@StackTrace(false)
+public class FileEvent extends jdk.jfr.Event {
+
+  @Label("Operation")
+  @Description("render or copy")
+  String operation;
+
+  @Label("Type")
+  String type;
+
+  @Label("Template")
+  String template;
+
+  @Label("Source")
+  String source;
+
+  @Label("Path")
+  String path;
+
+  @Label("Bytes Read")
+  @DataAmount
+  long bytesRead;
+
+  @Label("Bytes Written")
+  @DataAmount
+  long bytesWritten;
+}
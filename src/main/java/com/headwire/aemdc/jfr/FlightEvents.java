@@ -0,0 +1,219 @@
+package com.headwire.aemdc.jfr;
+
+import java.io.File;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Resource;
+
+
+/**
+ * Custom JDK Flight Recorder events of aemdc for config loading, runner construction,
+ * command execution and file rendering or copying.
+ * The begin methods return null if the JFR API isn't available in the JVM or the event type
+ * isn't enabled in a running recording, so the callers skip all event work.
+ * The end methods accept null events.
+ *
+ */
+public final class FlightEvents {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FlightEvents.class);
+
+  public static final String NAME_PREFIX = "com.headwire.aemdc.";
+  public static final String CATEGORY = "AEMDC";
+
+  public static final String OPERATION_RENDER = "render";
+  public static final String OPERATION_COPY = "copy";
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  private FlightEvents() {
+  }
+
+  /**
+   * Begin config loading event
+   *
+   * @return started event or null
+   */
+  public static ConfigLoadEvent beginConfigLoad() {
+    if (!AVAILABLE) {
+      return null;
+    }
+    final ConfigLoadEvent event = new ConfigLoadEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * End config loading event
+   *
+   * @param event
+   *          - started event or null
+   * @param configFile
+   *          - configuration properties file
+   * @param snapshot
+   *          - true if the configuration is read from the snapshot
+   */
+  public static void endConfigLoad(final ConfigLoadEvent event, final File configFile, final boolean snapshot) {
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.path = configFile.getPath();
+        event.snapshot = snapshot;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Begin runner construction event
+   *
+   * @return started event or null
+   */
+  public static RunnerEvent beginRunner() {
+    if (!AVAILABLE) {
+      return null;
+    }
+    final RunnerEvent event = new RunnerEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * End runner construction event
+   *
+   * @param event
+   *          - started event or null
+   * @param resource
+   *          - resource of the runner
+   * @param runner
+   *          - created runner or null
+   */
+  public static void endRunner(final RunnerEvent event, final Resource resource, final Object runner) {
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.type = resource.getType();
+        event.template = resource.getSourceName();
+        event.runnerClass = runner != null ? runner.getClass() : null;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Begin command execution event
+   *
+   * @return started event or null
+   */
+  public static CommandEvent beginCommand() {
+    if (!AVAILABLE) {
+      return null;
+    }
+    final CommandEvent event = new CommandEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * End command execution event
+   *
+   * @param event
+   *          - started event or null
+   * @param command
+   *          - command name
+   * @param resource
+   *          - resource of the command
+   */
+  public static void endCommand(final CommandEvent event, final String command, final Resource resource) {
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.command = command;
+        event.type = resource.getType();
+        event.template = resource.getSourceName();
+        event.path = resource.getTargetFolderPath();
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Begin file rendering or copying event
+   *
+   * @return started event or null
+   */
+  public static FileEvent beginFile() {
+    if (!AVAILABLE) {
+      return null;
+    }
+    final FileEvent event = new FileEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  /**
+   * End file rendering or copying event
+   *
+   * @param event
+   *          - started event or null
+   * @param operation
+   *          - {@link #OPERATION_RENDER} or {@link #OPERATION_COPY}
+   * @param resource
+   *          - resource with type and template or null
+   * @param source
+   *          - source file path
+   * @param path
+   *          - destination file path
+   * @param bytesRead
+   *          - read bytes
+   * @param bytesWritten
+   *          - written bytes
+   */
+  public static void endFile(final FileEvent event, final String operation, final Resource resource,
+      final String source, final String path, final long bytesRead, final long bytesWritten) {
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.operation = operation;
+        if (resource != null) {
+          event.type = resource.getType();
+          event.template = resource.getSourceName();
+        }
+        event.source = source;
+        event.path = path;
+        event.bytesRead = bytesRead;
+        event.bytesWritten = bytesWritten;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Is the JFR API available in the JVM?
+   *
+   * @return true if the events can be created
+   */
+  private static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+      return true;
+    } catch (final ClassNotFoundException | LinkageError e) {
+      LOG.debug("JDK Flight Recorder API isn't available, no aemdc events are recorded.");
+      return false;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.headwire.aemdc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of the runner construction incl. its commands
+ *
+ */
+@Name(FlightEvents.NAME_PREFIX + "RunnerCreate")
+@Label("Runner Create")
+@Description("Construction of the template type runner")
+@Category(FlightEvents.CATEGORY)
+@StackTrace(false)
+public class RunnerEvent extends jdk.jfr.Event {
+
+  @Label("Type")
+  String type;
+
+  @Label("Template")
+  String template;
+
+  @Label("Runner Class")
+  Class<?> runnerClass;
+}
@@ -0,0 +1,110 @@
+package com.headwire.aemdc.replacer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Template text parsed once into literal segments and place holder slots.
+ * Rendering only fills in the slots from a place holders dictionary.
+ *
+ */
+public class CompiledTemplate {
+
+  private final List<Segment> segments;
+  private final int length;
+
+  /**
+   * Constructor
+   *
+   * @param segments
+   *          - literal segments and place holder slots
+   * @param length
+   *          - template text length
+   */
+  private CompiledTemplate(final List<Segment> segments, final int length) {
+    this.segments = segments;
+    this.length = length;
+  }
+
+  /**
+   * Parse template text into literal segments and place holder slots.
+   *
+   * @param text
+   *          - template text
+   * @return compiled template
+   */
+  public static CompiledTemplate compile(final String text) {
+    final List<Segment> segments = new ArrayList<Segment>();
+    int pos = 0;
+    int start = text.indexOf(PlaceHolderDictionary.PH_START);
+
+    while (start >= 0) {
+      final int end = PlaceHolderDictionary.findEnd(text, start);
+      if (end < 0) {
+        // no place holder at this position
+        start = text.indexOf(PlaceHolderDictionary.PH_START, start + 1);
+        continue;
+      }
+
+      final int phEnd = end + PlaceHolderDictionary.PH_END.length();
+      if (start > pos) {
+        segments.add(new Segment(text.substring(pos, start), null));
+      }
+      segments.add(new Segment(text.substring(start, phEnd),
+          text.substring(start + PlaceHolderDictionary.PH_START.length(), end)));
+
+      pos = phEnd;
+      start = text.indexOf(PlaceHolderDictionary.PH_START, pos);
+    }
+
+    if (pos < text.length()) {
+      segments.add(new Segment(text.substring(pos), null));
+    }
+    return new CompiledTemplate(segments, text.length());
+  }
+
+  /**
+   * Render template with place holders from the dictionary.
+   *
+   * @param dictionary
+   *          - place holders dictionary
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   * @return result text
+   */
+  public String render(final PlaceHolderDictionary dictionary, final boolean replaceRestByDefault) {
+    final StringBuilder result = new StringBuilder(length);
+    for (final Segment segment : segments) {
+      if (segment.phName == null) {
+        result.append(segment.text);
+      } else {
+        dictionary.appendPlaceHolder(result, segment.phName, segment.text, replaceRestByDefault);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Get template text length
+   *
+   * @return template text length
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Literal text or place holder slot
+   */
+  private static class Segment {
+
+    final String text;
+    final String phName;
+
+    Segment(final String text, final String phName) {
+      this.text = text;
+      this.phName = phName;
+    }
+  }
+}
@@ -61,14 +61,13 @@ public class ConfigPropsReplacer extends Replacer {
   }
 
   @Override
-  protected String replaceCustomXmlPlaceHolders(final String text, final Map<String, String> placeholders) {
-    return text;
+  protected void addCustomXmlPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders) {
   }
 
   @Override
-  protected String replaceCustomTextPlaceHolders(final String text, final Map<String, String> placeholders,
-      final File targetFile) {
-    String result = text;
+  protected void addCustomTextPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders, final File targetFile) {
 
     // Get lazybones properties
     final Properties lazybonesProps = Config.getLazybonesProperties();
@@ -78,21 +77,21 @@ public class ConfigPropsReplacer extends Replacer {
     if (StringUtils.isBlank(appsFolderName)) {
       appsFolderName = PH_DEFAULT_TARGET_PROJECT_APPS_FOLDER;
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_PROJECT_APPS_FOLDER), appsFolderName);
+    dictionary.put(PLACEHOLDER_TARGET_PROJECT_APPS_FOLDER, appsFolderName);
 
     // conf folder name
     String confFolderName = lazybonesProps.getProperty(LAZYBONES_PROP_CONF_FOLDER_NAME);
     if (StringUtils.isBlank(confFolderName)) {
       confFolderName = PH_DEFAULT_TARGET_PROJECT_APPS_FOLDER;
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_PROJECT_CONF_FOLDER), confFolderName);
+    dictionary.put(PLACEHOLDER_TARGET_PROJECT_CONF_FOLDER, confFolderName);
 
     // design folder name
     String designFolderName = lazybonesProps.getProperty(LAZYBONES_PROP_DESIGN_FOLDER_NAME);
     if (StringUtils.isBlank(designFolderName)) {
       designFolderName = PH_DEFAULT_TARGET_PROJECT_APPS_FOLDER;
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_PROJECT_DESIGN_FOLDER), designFolderName);
+    dictionary.put(PLACEHOLDER_TARGET_PROJECT_DESIGN_FOLDER, designFolderName);
 
     // UI project folder name
     final String useNewNamingConvention = lazybonesProps.getProperty(LAZYBONES_PROP_USE_NEW_NAMING_CONVENTION);
@@ -100,7 +99,7 @@ public class ConfigPropsReplacer extends Replacer {
     if ("no".equalsIgnoreCase(useNewNamingConvention)) {
       targetUIProjectFolder = PH_DEFAULT_TARGET_UI_PROJECT_FOLDER_OLD;
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_UI_PROJECT_FOLDER), targetUIProjectFolder);
+    dictionary.put(PLACEHOLDER_TARGET_UI_PROJECT_FOLDER, targetUIProjectFolder);
 
     // CORE project folder name
     final String bundleInBundlesDirectory = lazybonesProps.getProperty(LAZYBONES_PROP_BUNDLE_IN_BUNDLES_DIR);
@@ -112,14 +111,14 @@ public class ConfigPropsReplacer extends Replacer {
       // like "bundles/core" or "bundles/bundle"
       targetCoreProjectFolder = PH_DEFAULT_TARGET_CORE_BUNDLES_SUBFOLDER + "/" + targetCoreProjectFolder;
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_CORE_PROJECT_FOLDER), targetCoreProjectFolder);
+    dictionary.put(PLACEHOLDER_TARGET_CORE_PROJECT_FOLDER, targetCoreProjectFolder);
 
     // osgi configuration folder name
     String osgiConfigFolder = PH_DEFAULT_TARGET_OSGI_SUBFOLDER;
     if (!lazybonesProps.isEmpty()) {
       osgiConfigFolder = "";
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_OSGI_SUBFOLDER), osgiConfigFolder);
+    dictionary.put(PLACEHOLDER_TARGET_OSGI_SUBFOLDER, osgiConfigFolder);
 
     // target java package & sling models subpackage
     String javaTargetPackage = lazybonesProps.getProperty(LAZYBONES_PROP_SLING_MODELS_PACKAGRE);
@@ -141,14 +140,12 @@ public class ConfigPropsReplacer extends Replacer {
         javaTargetPackage = StringUtils.substringBeforeLast(javaTargetPackage, ".");
       }
     }
-    result = result.replace(getPH(PLACEHOLDER_TARGET_JAVA_PACKAGE), javaTargetPackage);
-    result = result.replace(getPH(PLACEHOLDER_TARGET_JAVA_MODEL_SUBPACKAGE), slingModelsSubPackage);
+    dictionary.put(PLACEHOLDER_TARGET_JAVA_PACKAGE, javaTargetPackage);
+    dictionary.put(PLACEHOLDER_TARGET_JAVA_MODEL_SUBPACKAGE, slingModelsSubPackage);
 
     // target java package folder
     final String javaTargetPackageFolder = javaTargetPackage.replace('.', '/');
-    result = result.replace(getPH(PLACEHOLDER_TARGET_JAVA_PACKAGE_FOLDER), javaTargetPackageFolder);
-
-    return result;
+    dictionary.put(PLACEHOLDER_TARGET_JAVA_PACKAGE_FOLDER, javaTargetPackageFolder);
   }
 
 }
\ No newline at end of file
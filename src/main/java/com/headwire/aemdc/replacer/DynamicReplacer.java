@@ -33,49 +33,42 @@ public class DynamicReplacer extends Replacer {
   }
 
   @Override
-  protected String replaceCustomXmlPlaceHolders(final String text, final Map<String, String> placeholders) {
-    final String result = replaceDynamicPlaceHolders(text, true);
-    return result;
+  protected void addCustomXmlPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders) {
+    addDynamicPlaceHolders(dictionary, true);
   }
 
   @Override
-  protected String replaceCustomTextPlaceHolders(final String text, final Map<String, String> placeholders,
-      final File targetFile) {
+  protected void addCustomTextPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders, final File targetFile) {
 
-    String result = replaceDynamicPlaceHolders(text, false);
+    addDynamicPlaceHolders(dictionary, false);
 
     // {{ java-class }}
-    result = result.replace(getPH(Constants.PLACEHOLDER_JAVA_CLASS), getTargetJavaClassName());
+    dictionary.put(Constants.PLACEHOLDER_JAVA_CLASS, getTargetJavaClassName());
 
     // {{ java-package }}
-    result = result.replace(getPH(Constants.PLACEHOLDER_JAVA_PACKAGE), getTargetJavaPackage(targetFile));
+    dictionary.put(Constants.PLACEHOLDER_JAVA_PACKAGE, getTargetJavaPackage(targetFile));
 
     // {{ java-interface-package }}
-    result = result.replace(getPH(Constants.PLACEHOLDER_JAVA_INTERFACE_PACKAGE),
-        getTargetInterfaceJavaPackage(targetFile));
-
-    return result;
+    dictionary.put(Constants.PLACEHOLDER_JAVA_INTERFACE_PACKAGE, getTargetInterfaceJavaPackage(targetFile));
   }
 
   /**
-   * Replace placeholders with predefined default values from dynamic type properties config
+   * Add placeholders with predefined default values from dynamic type properties config
    *
-   * @param text
-   *          - text where to replace placeholders
+   * @param dictionary
+   *          - place holders dictionary
    * @param xmlType
    *          - true replacement in xml file
-   * @return replaced text
    */
-  private String replaceDynamicPlaceHolders(final String text, final boolean xmlType) {
-    String result = text;
+  private void addDynamicPlaceHolders(final PlaceHolderDictionary dictionary, final boolean xmlType) {
     final Enumeration<?> e = dynProps.propertyNames();
     while (e.hasMoreElements()) {
       final String key = (String) e.nextElement();
 
       // get only default placeholders predefined in the type properties config
       if (key.startsWith("_")) {
-        // get key without "_"
-        final String ph = getPH(key.substring(1));
         String phValue = dynProps.getProperty(key);
 
         // {{targetname}}
@@ -87,12 +80,10 @@ public class DynamicReplacer extends Replacer {
         // convert to XML format?
         phValue = xmlType ? getCrxXMLValue(phValue) : phValue;
 
-        result = result.replace(ph, phValue);
-
-        LOG.debug("'{}' replacing with '{}'", ph, phValue);
+        // get key without "_"
+        dictionary.put(key.substring(1), phValue);
       }
     }
-    return result;
   }
 
 }
\ No newline at end of file
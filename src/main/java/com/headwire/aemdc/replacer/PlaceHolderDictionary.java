@@ -0,0 +1,382 @@
+package com.headwire.aemdc.replacer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Stats;
+
+
+/**
+ * Dictionary of place holders with their values, which replaces all
+ * "{{ name }}" place holders in one left-to-right scan of the text.
+ *
+ * The result is the same as replacing the place holders one by one in the
+ * order they were put into the dictionary: the first put value wins, and
+ * place holders inside of an inserted value are only replaced by values
+ * which were put later.
+ *
+ * If statistics are set, every found place holder is counted as hit or miss.
+ *
+ */
+public class PlaceHolderDictionary {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PlaceHolderDictionary.class);
+
+  public static final String PH_START = "{{ ";
+  public static final String PH_END = " }}";
+
+  // streaming char buffer size
+  public static final int BUFFER_SIZE = 64 * 1024;
+
+  // max place holder length in the streaming mode
+  public static final int MAX_PH_LENGTH = 4 * 1024;
+
+  private final Map<String, Entry> entries = new HashMap<String, Entry>();
+  private Stats stats;
+
+  /**
+   * Put place holder value. If the place holder is already in the dictionary
+   * the value will be ignored.
+   *
+   * @param phName
+   *          - placeholder name w/o "{{ " and " }}"
+   * @param phValue
+   *          - placeholder value
+   */
+  public void put(final String phName, final String phValue) {
+    if (phName == null || phValue == null || entries.containsKey(phName)) {
+      return;
+    }
+    entries.put(phName, new Entry(phValue, entries.size()));
+    LOG.debug("'{}{}{}' replacing with '{}'", PH_START, phName, PH_END, phValue);
+  }
+
+  /**
+   * Get place holder value
+   *
+   * @param phName
+   *          - placeholder name
+   * @return placeholder value or null if not in the dictionary
+   */
+  public String get(final String phName) {
+    final Entry entry = entries.get(phName);
+    return entry == null ? null : entry.value;
+  }
+
+  /**
+   * Get number of place holders in the dictionary
+   *
+   * @return number of place holders
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Set statistics to count the place holder hits and misses
+   *
+   * @param stats
+   *          - statistics or null to count nothing
+   */
+  public void setStats(final Stats stats) {
+    this.stats = stats != null && stats.isEnabled() ? stats : null;
+  }
+
+  /**
+   * Replace all place holders in the text.
+   *
+   * @param text
+   *          - text to replace placeholders there
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   * @return result text
+   */
+  public String replace(final String text, final boolean replaceRestByDefault) {
+    final StringBuilder result = new StringBuilder(text.length());
+    replace(result, text, -1, replaceRestByDefault);
+    return result.toString();
+  }
+
+  /**
+   * Replace all place holders in the streamed text.
+   * The text is read through a fixed-size char buffer and written incrementally,
+   * so the used memory doesn't depend on the text size.
+   *
+   * @param reader
+   *          - text reader
+   * @param writer
+   *          - result text writer
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   * @throws IOException
+   *           - IOException
+   */
+  public void replace(final Reader reader, final Writer writer, final boolean replaceRestByDefault)
+      throws IOException {
+    final char[] buffer = new char[BUFFER_SIZE];
+    final StringBuilder window = new StringBuilder(BUFFER_SIZE + MAX_PH_LENGTH);
+    final StringBuilder result = new StringBuilder(BUFFER_SIZE + MAX_PH_LENGTH);
+
+    int read = reader.read(buffer);
+    while (read >= 0) {
+      window.append(buffer, 0, read);
+
+      // keep not finished place holder at the window end for the next round
+      final int processed = replace(result, window.toString(), -1, replaceRestByDefault, false);
+      window.delete(0, processed);
+      writer.append(result);
+      result.setLength(0);
+
+      read = reader.read(buffer);
+    }
+
+    replace(result, window.toString(), -1, replaceRestByDefault);
+    writer.append(result);
+  }
+
+  /**
+   * Append value of the place holder found in the text to the string builder.
+   *
+   * @param result
+   *          - result text
+   * @param phName
+   *          - placeholder name
+   * @param phText
+   *          - placeholder text like "{{ name }}"
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   */
+  void appendPlaceHolder(final StringBuilder result, final String phName, final String phText,
+      final boolean replaceRestByDefault) {
+    final Entry entry = getEntry(phName, -1);
+    if (entry != null) {
+      count(phName, true);
+      replace(result, entry.value, entry.rank, replaceRestByDefault);
+    } else if (phName.contains(PH_START)) {
+      // "{{ text {{ name }}": the inner place holder may be known
+      replace(result, phText, -1, replaceRestByDefault);
+    } else {
+      count(phName, false);
+      if (!replaceRestByDefault) {
+        result.append(phText);
+      }
+    }
+  }
+
+  /**
+   * Replace place holders in the text and append result to the string builder.
+   *
+   * @param result
+   *          - result text
+   * @param text
+   *          - text to replace placeholders there
+   * @param minRank
+   *          - replace only place holders with rank greater than this one
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   */
+  private void replace(final StringBuilder result, final String text, final int minRank,
+      final boolean replaceRestByDefault) {
+    replace(result, text, minRank, replaceRestByDefault, true);
+  }
+
+  /**
+   * Replace place holders in the text and append result to the string builder.
+   *
+   * @param result
+   *          - result text
+   * @param text
+   *          - text to replace placeholders there
+   * @param minRank
+   *          - replace only place holders with rank greater than this one
+   * @param replaceRestByDefault
+   *          - true to replace unknown place holders with empty string
+   * @param complete
+   *          - false if the text is only a part of the stream and can end with not finished place holder
+   * @return length of the processed text
+   */
+  private int replace(final StringBuilder result, final String text, final int minRank,
+      final boolean replaceRestByDefault, final boolean complete) {
+    int pos = 0;
+    int start = text.indexOf(PH_START);
+
+    while (start >= 0) {
+      final int end = findEnd(text, start);
+      if (end < 0) {
+        if (!complete && !isNoPlaceHolder(text, start)) {
+          // place holder can be finished in the next part of the stream
+          result.append(text, pos, start);
+          return start;
+        }
+        // no place holder at this position
+        start = text.indexOf(PH_START, start + 1);
+        continue;
+      }
+
+      final String phName = text.substring(start + PH_START.length(), end);
+      final Entry entry = getEntry(phName, minRank);
+
+      if (entry == null && phName.contains(PH_START)) {
+        // "{{ text {{ name }}": the inner place holder may be known
+        final int innerStart = findKnownInnerStart(text, start, end, minRank);
+        if (innerStart > 0) {
+          start = innerStart;
+          continue;
+        }
+      }
+
+      result.append(text, pos, start);
+      count(phName, entry != null);
+      if (entry != null) {
+        replace(result, entry.value, entry.rank, replaceRestByDefault);
+      } else if (!replaceRestByDefault) {
+        result.append(text, start, end + PH_END.length());
+      }
+
+      pos = end + PH_END.length();
+      start = text.indexOf(PH_START, pos);
+    }
+
+    // keep possible "{{" at the end of not complete text
+    int processed = text.length();
+    if (!complete) {
+      processed = Math.max(pos, processed - PH_START.length() + 1);
+    }
+    result.append(text, pos, processed);
+    return processed;
+  }
+
+  /**
+   * Is there surely no place holder at the position of the not complete text,
+   * also if the text will be continued?
+   *
+   * @param text
+   *          - not complete text
+   * @param start
+   *          - place holder start position
+   * @return true if there is no place holder
+   */
+  private static boolean isNoPlaceHolder(final String text, final int start) {
+    if (text.length() - start > MAX_PH_LENGTH) {
+      return true;
+    }
+    for (int i = start + PH_START.length(); i < text.length(); i++) {
+      if (isLineTerminator(text.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Find end of the place holder started at the position.
+   * The place holder name must have at least one character and
+   * can't be split on several lines.
+   *
+   * @param text
+   *          - text
+   * @param start
+   *          - place holder start position
+   * @return position of the place holder end or -1 if there is no place holder
+   */
+  static int findEnd(final String text, final int start) {
+    final int nameStart = start + PH_START.length();
+    final int end = text.indexOf(PH_END, nameStart + 1);
+    if (end < 0) {
+      return -1;
+    }
+    for (int i = nameStart; i < end; i++) {
+      if (isLineTerminator(text.charAt(i))) {
+        return -1;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Find start of the first known inner place holder.
+   *
+   * @param text
+   *          - text
+   * @param start
+   *          - outer place holder start position
+   * @param end
+   *          - outer place holder end position
+   * @param minRank
+   *          - min rank of the place holder
+   * @return start position of the known inner place holder or -1
+   */
+  private int findKnownInnerStart(final String text, final int start, final int end, final int minRank) {
+    int innerStart = text.indexOf(PH_START, start + 1);
+    while (innerStart >= 0 && innerStart < end) {
+      final String innerName = text.substring(innerStart + PH_START.length(), end);
+      if (!innerName.isEmpty() && getEntry(innerName, minRank) != null) {
+        return innerStart;
+      }
+      innerStart = text.indexOf(PH_START, innerStart + 1);
+    }
+    return -1;
+  }
+
+  /**
+   * Get dictionary entry only if it has rank greater than min rank
+   *
+   * @param phName
+   *          - placeholder name
+   * @param minRank
+   *          - min rank
+   * @return dictionary entry or null
+   */
+  private Entry getEntry(final String phName, final int minRank) {
+    final Entry entry = entries.get(phName);
+    if (entry != null && entry.rank > minRank) {
+      return entry;
+    }
+    return null;
+  }
+
+  /**
+   * Count the place holder hit or miss, if statistics are set
+   *
+   * @param phName
+   *          - placeholder name
+   * @param hit
+   *          - true if the place holder has a value
+   */
+  private void count(final String phName, final boolean hit) {
+    if (stats != null) {
+      stats.placeHolder(phName, hit);
+    }
+  }
+
+  /**
+   * Line terminators like in the java.util.regex.Pattern "."
+   *
+   * @param c
+   *          - character
+   * @return true if line terminator
+   */
+  private static boolean isLineTerminator(final char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  /**
+   * Dictionary entry
+   */
+  private static class Entry {
+
+    final String value;
+    final int rank;
+
+    Entry(final String value, final int rank) {
+      this.value = value;
+      this.rank = rank;
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package com.headwire.aemdc.replacer;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -13,6 +20,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.WordUtils;
 import org.slf4j.Logger;
@@ -21,6 +29,10 @@ import org.slf4j.LoggerFactory;
 import com.headwire.aemdc.companion.Config;
 import com.headwire.aemdc.companion.Constants;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.companion.Stats;
+import com.headwire.aemdc.jfr.FileEvent;
+import com.headwire.aemdc.jfr.FlightEvents;
+import com.headwire.aemdc.util.ArchiveUtil;
 
 
 /**
@@ -35,29 +47,28 @@ public abstract class Replacer {
   protected Resource resource;
 
   /**
-   * Replace place holders in XML file
+   * Add custom place holders for XML files to the dictionary
    *
-   * @param text
-   *          - text to replace placeholders there
+   * @param dictionary
+   *          - place holders dictionary
    * @param placeholders
    *          placeholders list
-   * @return result text with replaced placeholders
    */
-  protected abstract String replaceCustomXmlPlaceHolders(final String text, final Map<String, String> placeholders);
+  protected abstract void addCustomXmlPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders);
 
   /**
-   * Replace place holders in all other files (html, jsp, js, css, ...)
+   * Add custom place holders for all other files (html, jsp, js, css, ...) to the dictionary
    *
-   * @param text
-   *          - text to replace placeholders there
+   * @param dictionary
+   *          - place holders dictionary
    * @param placeholders
    *          placeholders list
    * @param targetFile
    *          - target file where placeholders will be replaced
-   * @return result text with replaced placeholders
    */
-  protected abstract String replaceCustomTextPlaceHolders(final String text, final Map<String, String> placeholders,
-      File targetFile);
+  protected abstract void addCustomTextPlaceHolders(final PlaceHolderDictionary dictionary,
+      final Map<String, String> placeholders, File targetFile);
 
   /**
    * Find place holders in text
@@ -108,25 +119,32 @@ public abstract class Replacer {
    *           - IOException
    */
   public void replacePlaceHolders(final File file) throws IOException {
+    final Stats stats = resource.getProgress().getStats();
+    stats.fileRead(file);
+    final FileEvent event = FlightEvents.beginFile();
+    final long size = event != null ? file.length() : 0L;
     try {
-      String fileText = FileUtils.readFileToString(file, Constants.ENCODING);
-
-      final String extension = FilenameUtils.getExtension(file.getName());
-      final List<String> allExtList = resource.getExtensionsList();
+      if (isToStream(file)) {
+        // replace into temp file and move it back
+        final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+          streamPlaceHolders(file, file, tempFile);
+          Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+          FileUtils.deleteQuietly(tempFile);
+        }
+      } else {
+        String fileText = FileUtils.readFileToString(file, Constants.ENCODING);
+        fileText = replacePlaceHolders(fileText, file);
 
-      if (Constants.FILE_EXT_XML.equals(extension)) {
-        fileText = replaceXmlPlaceHolders(fileText);
-      } else if (allExtList.contains(extension)) {
-        fileText = replaceTextPlaceHolders(file);
+        FileUtils.writeStringToFile(file, fileText, Constants.ENCODING);
       }
-
-      // replace the rest placeholders with default values
-      if (allExtList.contains(extension)) {
-        fileText = replacePlaceHoldersByDefault(fileText);
+      stats.fileWritten(file);
+      if (event != null) {
+        FlightEvents.endFile(event, FlightEvents.OPERATION_RENDER, resource, file.getPath(), file.getPath(), size,
+            file.length());
       }
 
-      FileUtils.writeStringToFile(file, fileText, Constants.ENCODING);
-
       LOG.debug("Place holders replaced in the file [{}]", file);
 
     } catch (final IOException e) {
@@ -136,14 +154,242 @@ public abstract class Replacer {
   }
 
   /**
-   * Replace place holders in the XML text
+   * Replace place holders in file using the compiled template file
+   *
+   * @param templateFile
+   *          - source template file
+   * @param file
+   *          - destination file
+   * @throws IOException
+   *           - IOException
+   */
+  public void replacePlaceHolders(final File templateFile, final File file) throws IOException {
+    replacePlaceHolders(templateFile, file, file);
+    resource.getProgress().getStats().fileWritten(file);
+  }
+
+  /**
+   * Replace place holders in the template file and write result to the destination file.
+   * Templates bigger than streaming threshold are streamed, all others are
+   * rendered from the compiled templates cache.
+   *
+   * @param templateFile
+   *          - source template file
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @param destFile
+   *          - destination file to write the result
+   * @throws IOException
+   *           - IOException
+   */
+  public void replacePlaceHolders(final File templateFile, final File targetFile, final File destFile)
+      throws IOException {
+    countTemplateRead(templateFile);
+    final FileEvent event = FlightEvents.beginFile();
+    try {
+      if (isToStream(templateFile)) {
+        streamPlaceHolders(templateFile, targetFile, destFile);
+      } else {
+        final CompiledTemplate template = TemplateCache.get(templateFile);
+        final String fileText = template.render(getPlaceHoldersOrEmpty(targetFile),
+            isToReplaceRestByDefault(targetFile));
+        FileUtils.writeStringToFile(destFile, fileText, Constants.ENCODING);
+      }
+      if (event != null) {
+        endRenderEvent(event, templateFile, destFile, destFile.length());
+      }
+
+      LOG.debug("Place holders replaced in the file [{}]", destFile);
+
+    } catch (final IOException e) {
+      LOG.error("Can't replace place holders in the file [{}]", destFile);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Replace place holders in the template file and write result to the output stream.
+   * The output stream is not closed.
+   *
+   * @param templateFile
+   *          - source template file
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @param out
+   *          - output stream to write the result
+   * @throws IOException
+   *           - IOException
+   */
+  public void replacePlaceHolders(final File templateFile, final File targetFile, final OutputStream out)
+      throws IOException {
+    countTemplateRead(templateFile);
+    final FileEvent event = FlightEvents.beginFile();
+    // count the written bytes only for the recorded event
+    final CountingOutputStream counter = event != null ? new CountingOutputStream(out) : null;
+    final OutputStream eventOut = counter != null ? counter : out;
+    try {
+      if (isToStream(templateFile)) {
+        try (Reader reader = new InputStreamReader(ArchiveUtil.openInputStream(templateFile), Constants.ENCODING)) {
+          final Writer writer = new BufferedWriter(new OutputStreamWriter(eventOut, Constants.ENCODING));
+          getPlaceHoldersOrEmpty(targetFile).replace(reader, writer, isToReplaceRestByDefault(targetFile));
+          writer.flush();
+        }
+      } else {
+        final CompiledTemplate template = TemplateCache.get(templateFile);
+        final String fileText = template.render(getPlaceHoldersOrEmpty(targetFile),
+            isToReplaceRestByDefault(targetFile));
+        eventOut.write(fileText.getBytes(Constants.ENCODING));
+      }
+      if (event != null) {
+        endRenderEvent(event, templateFile, targetFile, counter.getByteCount());
+      }
+
+      LOG.debug("Place holders replaced in the file [{}]", targetFile);
+
+    } catch (final IOException e) {
+      LOG.error("Can't replace place holders in the file [{}]", targetFile);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Replace place holders in the streaming mode with fixed-size buffer.
+   *
+   * @param templateFile
+   *          - source template file
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @param destFile
+   *          - destination file to write the result
+   * @throws IOException
+   *           - IOException
+   */
+  private void streamPlaceHolders(final File templateFile, final File targetFile, final File destFile)
+      throws IOException {
+    LOG.debug("Streaming place holders replacing from [{}] to [{}]", templateFile, destFile);
+
+    try (Reader reader = new InputStreamReader(ArchiveUtil.openInputStream(templateFile), Constants.ENCODING);
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(FileUtils.openOutputStream(destFile), Constants.ENCODING))) {
+      getPlaceHoldersOrEmpty(targetFile).replace(reader, writer, isToReplaceRestByDefault(targetFile));
+    }
+  }
+
+  /**
+   * Count the template file as read, if the statistics are enabled
+   *
+   * @param templateFile
+   *          - source template file in the file system or in an archive
+   */
+  private void countTemplateRead(final File templateFile) {
+    final Stats stats = resource.getProgress().getStats();
+    if (stats.isEnabled()) {
+      stats.fileRead(ArchiveUtil.length(templateFile));
+    }
+  }
+
+  /**
+   * End the flight recorder event of the rendered template
+   *
+   * @param event
+   *          - started event
+   * @param templateFile
+   *          - source template file in the file system or in an archive
+   * @param destFile
+   *          - destination file
+   * @param bytesWritten
+   *          - written bytes
+   */
+  private void endRenderEvent(final FileEvent event, final File templateFile, final File destFile,
+      final long bytesWritten) {
+    FlightEvents.endFile(event, FlightEvents.OPERATION_RENDER, resource, templateFile.getPath(), destFile.getPath(),
+        ArchiveUtil.length(templateFile), bytesWritten);
+  }
+
+  /**
+   * Is the file bigger than streaming threshold?
+   *
+   * @param file
+   *          - file
+   * @return true if the file should be replaced in the streaming mode
+   */
+  private boolean isToStream(final File file) {
+    return ArchiveUtil.length(file) > resource.getStreamingThreshold();
+  }
+
+  /**
+   * Replace place holders in the text of the file
    *
    * @param text
-   *          the text
+   *          - file text
+   * @param targetFile
+   *          - target file where placeholders will be replaced
    * @return result text
    */
-  private String replaceXmlPlaceHolders(final String text) {
-    String result = text;
+  public String replacePlaceHolders(final String text, final File targetFile) {
+    final PlaceHolderDictionary dictionary = getPlaceHolders(targetFile);
+    if (dictionary == null) {
+      return text;
+    }
+    return dictionary.replace(text, isToReplaceRestByDefault(targetFile));
+  }
+
+  /**
+   * Get place holders dictionary for the file
+   *
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @return place holders dictionary or null if the file has no placeholders to replace
+   */
+  public PlaceHolderDictionary getPlaceHolders(final File targetFile) {
+    PlaceHolderDictionary dictionary = null;
+    final String extension = FilenameUtils.getExtension(targetFile.getName());
+
+    if (Constants.FILE_EXT_XML.equals(extension)) {
+      dictionary = getXmlPlaceHolders();
+    } else if (isToReplaceRestByDefault(targetFile)) {
+      dictionary = getTextPlaceHolders(targetFile);
+    }
+    if (dictionary != null) {
+      dictionary.setStats(resource.getProgress().getStats());
+    }
+    return dictionary;
+  }
+
+  /**
+   * Get place holders dictionary for the file or empty dictionary if the file has no placeholders to replace
+   *
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @return place holders dictionary
+   */
+  private PlaceHolderDictionary getPlaceHoldersOrEmpty(final File targetFile) {
+    final PlaceHolderDictionary dictionary = getPlaceHolders(targetFile);
+    if (dictionary == null) {
+      return new PlaceHolderDictionary();
+    }
+    return dictionary;
+  }
+
+  /**
+   * Replace the rest placeholders with default values?
+   *
+   * @param targetFile
+   *          - target file where placeholders will be replaced
+   * @return true if the file extension is configurated as file with placeholders
+   */
+  private boolean isToReplaceRestByDefault(final File targetFile) {
+    final String extension = FilenameUtils.getExtension(targetFile.getName());
+    return resource.getExtensionsList().contains(extension);
+  }
+
+  /**
+   * Get place holders dictionary for the XML files
+   *
+   * @return place holders dictionary
+   */
+  public PlaceHolderDictionary getXmlPlaceHolders() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
 
     // get Jcr Properties Sets
     final Map<String, Map<String, String>> jcrPropsSets = resource.getJcrProperties();
@@ -154,66 +400,56 @@ public abstract class Replacer {
       LOG.debug("propsSetKey={}", propsSetKey);
 
       if (Constants.PLACEHOLDER_PROPS_SET_COMMON.equals(propsSetKey)) {
-        // replace all placeholders defined by argument params at first
+        // all placeholders defined by argument params at first
         for (final Map.Entry<String, String> prop : propsSet.entrySet()) {
-          final String ph = getPH(prop.getKey());
-          final String phValue = getCrxXMLValue(prop.getValue());
-          result = result.replace(ph, phValue);
-          LOG.debug("'{}' replacing with '{}'", ph, phValue);
+          dictionary.put(prop.getKey(), getCrxXMLValue(prop.getValue()));
         }
 
-        // replace all other custom placeholders
-        result = replaceCustomXmlPlaceHolders(result, propsSet);
+        // all other custom placeholders
+        addCustomXmlPlaceHolders(dictionary, propsSet);
 
       } else {
-        result = replaceXmlPlaceHoldersSets(result, propsSetKey, propsSet);
+        dictionary.put(propsSetKey, getXmlPlaceHoldersSetValue(propsSetKey, propsSet));
       }
     }
-    return result;
+    return dictionary;
   }
 
   /**
-   * Replace place holders in all other files (html, jsp, js, css, ...)
+   * Get place holders dictionary for all other files (html, jsp, js, css, ...)
    *
    * @param targetFile
    *          - target file where placeholders will be replaced
-   * @return result text
-   * @throws IOException
-   *           - IOException
+   * @return place holders dictionary
    */
-  private String replaceTextPlaceHolders(final File targetFile) throws IOException {
-    String result = FileUtils.readFileToString(targetFile, Constants.ENCODING);
+  public PlaceHolderDictionary getTextPlaceHolders(final File targetFile) {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
 
     // get COMMON Properties Set
     final Map<String, Map<String, String>> jcrPropsSets = resource.getJcrProperties();
     final Map<String, String> commonProps = jcrPropsSets.get(Constants.PLACEHOLDER_PROPS_SET_COMMON);
 
-    // replace all placeholders defined by argument params at first
+    // all placeholders defined by argument params at first
     for (final Map.Entry<String, String> prop : commonProps.entrySet()) {
-      final String ph = getPH(prop.getKey());
-      result = result.replace(ph, prop.getValue());
-      LOG.debug("'{}' replacing with '{}'", ph, prop.getValue());
+      dictionary.put(prop.getKey(), prop.getValue());
     }
 
-    // replace all other custom placeholders
-    result = replaceCustomTextPlaceHolders(result, commonProps, targetFile);
+    // all other custom placeholders
+    addCustomTextPlaceHolders(dictionary, commonProps, targetFile);
 
-    return result;
+    return dictionary;
   }
 
   /**
-   * Replace place holders sets in the XML text
+   * Get value of the place holders set for the XML text
    *
-   * @param text
-   *          the text
    * @param propsSetKey
    *          key of properties set
    * @param jcrProperties
    *          jcr properties
-   * @return result text
+   * @return place holders set value
    */
-  private String replaceXmlPlaceHoldersSets(final String text, final String propsSetKey,
-      final Map<String, String> jcrProperties) {
+  private String getXmlPlaceHoldersSetValue(final String propsSetKey, final Map<String, String> jcrProperties) {
 
     final StringBuilder phValue = new StringBuilder();
 
@@ -240,32 +476,8 @@ public abstract class Replacer {
       first = false;
     }
 
-    final String result = text.replace(getPH(propsSetKey), phValue.toString());
     LOG.debug("PropsSet {} replaced by {}", propsSetKey, phValue.toString());
-    return result;
-  }
-
-  /**
-   * Replace all place holders with default values.
-   *
-   * @param text
-   *          the text
-   * @return result text
-   */
-  private String replacePlaceHoldersByDefault(final String text) {
-    String result = text;
-
-    // get all placeholders
-    final List<String> restPlaceHolders = Replacer.findTextPlaceHolders(text);
-
-    // replace all other placeholders
-    final Iterator<String> iter = restPlaceHolders.iterator();
-    while (iter.hasNext()) {
-      final String placeHolder = iter.next();
-      result = result.replace(placeHolder, "");
-      LOG.debug("'{}' replacing with empty string", placeHolder);
-    }
-    return result;
+    return phValue.toString();
   }
 
   /**
@@ -0,0 +1,140 @@
+package com.headwire.aemdc.replacer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.util.ArchiveUtil;
+
+
+/**
+ * Bounded LRU cache of compiled templates keyed by the template file path.
+ * The cached template is invalidated if the file modification time or size changed.
+ *
+ */
+public class TemplateCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TemplateCache.class);
+
+  // max number of cached templates
+  public static final int MAX_ENTRIES = 1000;
+
+  // max number of cached template characters
+  public static final long MAX_SIZE = 32L * 1024 * 1024;
+
+  private static final Map<String, Entry> CACHE = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private static long size;
+
+  /**
+   * Constructor
+   *
+   */
+  private TemplateCache() {
+  }
+
+  /**
+   * Get compiled template from cache or compile it from the file.
+   *
+   * @param file
+   *          - template file
+   * @return compiled template
+   * @throws IOException
+   *           - IOException
+   */
+  public static CompiledTemplate get(final File file) throws IOException {
+    final String key = file.getAbsolutePath();
+    final long lastModified = ArchiveUtil.lastModified(file);
+    final long length = ArchiveUtil.length(file);
+
+    synchronized (CACHE) {
+      final Entry entry = CACHE.get(key);
+      if (entry != null) {
+        if (entry.lastModified == lastModified && entry.length == length) {
+          LOG.debug("Compiled template [{}] found in the cache.", file);
+          return entry.template;
+        }
+        remove(key);
+      }
+    }
+
+    final String text = ArchiveUtil.readFileToString(file);
+    final CompiledTemplate template = CompiledTemplate.compile(text);
+
+    if (template.getLength() <= MAX_SIZE) {
+      synchronized (CACHE) {
+        remove(key);
+        CACHE.put(key, new Entry(template, lastModified, length));
+        size += template.getLength();
+        evict();
+      }
+    }
+    return template;
+  }
+
+  /**
+   * Remove all compiled templates from the cache.
+   */
+  public static void clear() {
+    synchronized (CACHE) {
+      CACHE.clear();
+      size = 0;
+    }
+  }
+
+  /**
+   * Get number of cached templates.
+   *
+   * @return number of cached templates
+   */
+  public static int getEntriesCount() {
+    synchronized (CACHE) {
+      return CACHE.size();
+    }
+  }
+
+  /**
+   * Remove compiled template from the cache.
+   *
+   * @param key
+   *          - template file path
+   */
+  private static void remove(final String key) {
+    final Entry entry = CACHE.remove(key);
+    if (entry != null) {
+      size -= entry.template.getLength();
+    }
+  }
+
+  /**
+   * Remove least recently used templates until the cache is in its bounds.
+   */
+  private static void evict() {
+    final Iterator<Entry> iter = CACHE.values().iterator();
+    while (iter.hasNext() && (CACHE.size() > MAX_ENTRIES || size > MAX_SIZE)) {
+      final Entry entry = iter.next();
+      size -= entry.template.getLength();
+      iter.remove();
+    }
+  }
+
+  /**
+   * Cache entry
+   */
+  private static class Entry {
+
+    final CompiledTemplate template;
+    final long lastModified;
+    final long length;
+
+    Entry(final CompiledTemplate template, final long lastModified, final long length) {
+      this.template = template;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+  }
+}
@@ -79,6 +79,12 @@ public abstract class BasisRunner {
     final String[] extensions = config.getFileExtensions();
     getResource().setExtensions(extensions);
 
+    // Set streaming threshold from config file
+    getResource().setStreamingThreshold(config.getStreamingThreshold());
+
+    // Set number of threads for parallel processing from config file
+    getResource().setParallelThreads(config.getParallelThreads());
+
     // Set overwriting methods from config file
     if (Constants.EXISTING_DESTINATION_RESOURCES_WARN
         .equals(config.getProperty(Constants.CONFIGPROP_EXISTING_DESTINATION_RESOURCES_REPLACEMENT))) {
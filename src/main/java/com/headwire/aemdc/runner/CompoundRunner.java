@@ -4,17 +4,26 @@ import com.headwire.aemdc.companion.Config;
 import com.headwire.aemdc.companion.Constants;
 import com.headwire.aemdc.companion.Reflection;
 import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.companion.Stats;
 import com.headwire.aemdc.replacer.Replacer;
+import com.headwire.aemdc.util.ParallelUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 
 /**
  * Compound Runner for set of different template types.
+ * Members without ordering edges in COMPOUND_ORDER run concurrently,
+ * if more than one parallel thread is configured. Members with the same or nested target folders
+ * run in the configured order anyway, so the DELETE handling of one member can't remove
+ * the output of another one.
  *
  */
 public class CompoundRunner extends BasisRunner {
@@ -26,6 +35,10 @@ public class CompoundRunner extends BasisRunner {
    * Invoker
    */
   private final List<BasisRunner> runners = new ArrayList<BasisRunner>();
+  private final List<String> members = new ArrayList<String>();
+  private final List<String> targets = new ArrayList<String>();
+  private final Map<String, Set<String>> order = new HashMap<String, Set<String>>();
+  private String compoundName;
   private final Config config;
 
   /**
@@ -56,6 +69,10 @@ public class CompoundRunner extends BasisRunner {
         LOG.error("Can't get compound list for template name [{}].", resource.getSourceName());
       }
 
+      compoundName = resource.getSourceName();
+      order.putAll(config.getCompoundOrder(compoundName));
+
+      final Reflection reflection = new Reflection(config);
       for (final Map.Entry<String, Set<String>> entry : compoundList.entrySet()) {
         final String templateType = entry.getKey();
         final Set<String> templateNameSet = entry.getValue();
@@ -67,11 +84,12 @@ public class CompoundRunner extends BasisRunner {
           final Resource templateResource = resource.clone();
 
           // Get Runner
-          final Reflection reflection = new Reflection(config);
           final BasisRunner runner = reflection.getRunner(templateResource);
 
           if (runner != null) {
             runners.add(runner);
+            members.add(getMemberName(templateType, templateName));
+            targets.add(runner.getResource().getTargetFolderPath());
 
           } else {
             LOG.error("Unknown configurated compound <type>:<name>={}:{}.", templateType, templateName);
@@ -88,10 +106,167 @@ public class CompoundRunner extends BasisRunner {
    */
   @Override
   public void run() throws IOException {
-    // Run to create template structure
-    for (final BasisRunner runner : runners) {
-      runner.run();
+    final Stats stats = resource.getProgress().getStats();
+    final List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(runners.size());
+    for (int i = 0; i < runners.size(); i++) {
+      final BasisRunner runner = runners.get(i);
+      final String member = members.get(i);
+      tasks.add(new Callable<Long>() {
+
+        @Override
+        public Long call() throws Exception {
+          final long start = System.currentTimeMillis();
+          final Stats.Sample sample = stats.start(Stats.TIMER_RUNNER + member);
+          try {
+            runner.run();
+          } catch (final IOException | RuntimeException e) {
+            LOG.error("Compound member [{}] failed after {} ms.", member, System.currentTimeMillis() - start);
+            throw e;
+          } finally {
+            stats.stop(sample);
+          }
+          final long time = System.currentTimeMillis() - start;
+          LOG.info("Compound member [{}] done in {} ms.", member, time);
+          return time;
+        }
+      });
+    }
+
+    // Run to create template structure, independent members concurrently
+    ParallelUtil.invokeAll(tasks, getDependencies(), config.getParallelThreads(), "compound");
+  }
+
+  /**
+   * Get indexes of the members each member must wait for.
+   *
+   * @return dependencies in the order of the members
+   */
+  private List<Set<Integer>> getDependencies() {
+    final List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>(members.size());
+    for (int i = 0; i < members.size(); i++) {
+      dependencies.add(new LinkedHashSet<Integer>());
+    }
+
+    for (final Map.Entry<String, Set<String>> entry : order.entrySet()) {
+      final List<Integer> afterList = getMemberIndexes(entry.getKey());
+      for (final String before : entry.getValue()) {
+        final List<Integer> beforeList = getMemberIndexes(before);
+        for (final Integer after : afterList) {
+          for (final Integer dependency : beforeList) {
+            if (!dependency.equals(after)) {
+              dependencies.get(after).add(dependency);
+            }
+          }
+        }
+      }
+    }
+    orderOverlappingTargets(members, targets, dependencies);
+    return dependencies;
+  }
+
+  /**
+   * Let each member wait for the previous members with the same, a parent or a child target folder,
+   * unless the previous member already waits for it.
+   *
+   * @param members
+   *          - member names
+   * @param targets
+   *          - target folder paths of the members, null if unknown
+   * @param dependencies
+   *          - explicit dependencies of the members to complete
+   */
+  static void orderOverlappingTargets(final List<String> members, final List<String> targets,
+      final List<Set<Integer>> dependencies) {
+    final List<Path> paths = new ArrayList<Path>(targets.size());
+    for (final String target : targets) {
+      paths.add(target == null ? null : new File(target).getAbsoluteFile().toPath().normalize());
+    }
+
+    for (int after = 1; after < paths.size(); after++) {
+      for (int before = 0; before < after; before++) {
+        if (isOverlapping(paths.get(before), paths.get(after)) && !dependsOn(before, after, dependencies)
+            && dependencies.get(after).add(before)) {
+          LOG.debug("Compound members [{}] and [{}] have overlapping targets, [{}] runs after [{}].",
+              members.get(before), members.get(after), members.get(after), members.get(before));
+        }
+      }
+    }
+  }
+
+  /**
+   * Are the target folders the same or is one of them in the other one?
+   *
+   * @param path1
+   *          - target folder or null if unknown
+   * @param path2
+   *          - target folder or null if unknown
+   * @return true if the member outputs can overlap
+   */
+  private static boolean isOverlapping(final Path path1, final Path path2) {
+    return path1 == null || path2 == null || path1.startsWith(path2) || path2.startsWith(path1);
+  }
+
+  /**
+   * Does the member depend directly or transitively on the other member?
+   *
+   * @param member
+   *          - member index
+   * @param other
+   *          - other member index
+   * @param dependencies
+   *          - dependencies of the members
+   * @return true if the member waits for the other member
+   */
+  private static boolean dependsOn(final int member, final int other, final List<Set<Integer>> dependencies) {
+    final Deque<Integer> stack = new ArrayDeque<Integer>(dependencies.get(member));
+    final Set<Integer> visited = new HashSet<Integer>();
+    while (!stack.isEmpty()) {
+      final int dependency = stack.pop();
+      if (dependency == other) {
+        return true;
+      }
+      if (visited.add(dependency)) {
+        stack.addAll(dependencies.get(dependency));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get indexes of the members matching "type:name" or all members of the "type".
+   *
+   * @param reference
+   *          - member reference
+   * @return member indexes
+   */
+  private List<Integer> getMemberIndexes(final String reference) {
+    final List<Integer> indexes = new ArrayList<Integer>();
+    for (int i = 0; i < members.size(); i++) {
+      final String member = members.get(i);
+      if (member.equals(reference) || (!reference.contains(":") && member.startsWith(reference + ":"))) {
+        indexes.add(i);
+      }
+    }
+    if (indexes.isEmpty()) {
+      LOG.error("Unknown compound member [{}] in the compound order of [{}].", reference, compoundName);
+    }
+    return indexes;
+  }
+
+  /**
+   * Get compound member name
+   *
+   * @param type
+   *          - template type
+   * @param name
+   *          - template name
+   * @return member name "type:name" or "type"
+   */
+  private static String getMemberName(final String type, final String name) {
+    if (StringUtils.isBlank(name)) {
+      return type;
     }
+    return type + ":" + name;
   }
 
   @Override
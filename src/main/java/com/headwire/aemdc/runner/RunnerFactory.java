@@ -0,0 +1,32 @@
+package com.headwire.aemdc.runner;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Resource;
+
+
+/**
+ * Runner factory for a template type.
+ * Third-party runners are registered as services in
+ * META-INF/services/com.headwire.aemdc.runner.RunnerFactory
+ *
+ */
+public interface RunnerFactory {
+
+  /**
+   * Get template type created by this factory.
+   *
+   * @return template type
+   */
+  String getType();
+
+  /**
+   * Create runner for the resource.
+   *
+   * @param resource
+   *          - resource object
+   * @param config
+   *          - configuration
+   * @return runner object
+   */
+  BasisRunner getRunner(Resource resource, Config config);
+}
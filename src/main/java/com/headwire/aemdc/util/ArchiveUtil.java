@@ -0,0 +1,394 @@
+package com.headwire.aemdc.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Archive Util to read template sources directly from zip or jar archives.
+ * A source path may contain an archive file as a folder, for ex. "../aemdc-files.zip/component/title".
+ * Such paths are resolved to the zip file system of the archive, all other paths to the default file system.
+ * The archive file systems are opened once and reopened if the archive file changed.
+ * Every use of an archive file system is counted, an outdated file system is closed
+ * as soon as the last running use of it is finished.
+ * The archive of a path is looked up once and cached per path.
+ *
+ */
+public class ArchiveUtil {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ArchiveUtil.class);
+
+  private static final String[] ARCHIVE_EXTENSIONS = { ".zip", ".jar" };
+
+  private static final Map<String, ArchiveFileSystem> FILE_SYSTEMS = new HashMap<String, ArchiveFileSystem>();
+
+  private static final ConcurrentMap<String, Archive> ARCHIVES = new ConcurrentHashMap<String, Archive>();
+
+  /**
+   * Constructor
+   *
+   */
+  private ArchiveUtil() {
+  }
+
+  /**
+   * Get archive file from the path.
+   *
+   * @param file
+   *          - file or directory, maybe under an archive
+   * @return archive file or null if the file isn't under an archive
+   */
+  public static File getArchive(final File file) {
+    final Archive archive = lookupArchive(file);
+    return archive != null ? archive.file : null;
+  }
+
+  /**
+   * Open NIO path of the file from the archive file system or the default one.
+   * The archive file system stays open until the returned path is closed.
+   *
+   * @param file
+   *          - file or directory, maybe under an archive
+   * @return opened path
+   * @throws IOException
+   *           - IOException if the archive can't be opened
+   */
+  public static ArchivePath openPath(final File file) throws IOException {
+    final Archive archive = lookupArchive(file);
+    if (archive == null) {
+      return new ArchivePath(file.toPath(), null);
+    }
+
+    // entry path in unix format
+    final String entryName = file.getPath().substring(archive.file.getPath().length()).replace("\\", "/");
+    final ArchiveFileSystem fileSystem = acquireFileSystem(archive);
+    return new ArchivePath(fileSystem.fileSystem.getPath(entryName.startsWith("/") ? entryName : "/" + entryName),
+        fileSystem);
+  }
+
+  /**
+   * Does the file or directory exist?
+   *
+   * @param file
+   *          - file or directory, maybe under an archive
+   * @return true if exists
+   */
+  public static boolean exists(final File file) {
+    return getAttributes(file) != null;
+  }
+
+  /**
+   * Is it a regular file?
+   *
+   * @param file
+   *          - file, maybe under an archive
+   * @return true if it is a file
+   */
+  public static boolean isFile(final File file) {
+    final BasicFileAttributes attrs = getAttributes(file);
+    return attrs != null && !attrs.isDirectory();
+  }
+
+  /**
+   * Is it a directory?
+   *
+   * @param file
+   *          - directory, maybe under an archive
+   * @return true if it is a directory
+   */
+  public static boolean isDirectory(final File file) {
+    final BasicFileAttributes attrs = getAttributes(file);
+    return attrs != null && attrs.isDirectory();
+  }
+
+  /**
+   * Get file size
+   *
+   * @param file
+   *          - file, maybe under an archive
+   * @return file size or 0 if the file doesn't exist
+   */
+  public static long length(final File file) {
+    final BasicFileAttributes attrs = getAttributes(file);
+    return attrs != null ? attrs.size() : 0L;
+  }
+
+  /**
+   * Get file modification time
+   *
+   * @param file
+   *          - file, maybe under an archive
+   * @return modification time in milliseconds or 0 if the file doesn't exist
+   */
+  public static long lastModified(final File file) {
+    final BasicFileAttributes attrs = getAttributes(file);
+    return attrs != null ? attrs.lastModifiedTime().toMillis() : 0L;
+  }
+
+  /**
+   * Open input stream of the file
+   *
+   * @param file
+   *          - file, maybe under an archive
+   * @return input stream
+   * @throws IOException
+   *           - IOException
+   */
+  public static InputStream openInputStream(final File file) throws IOException {
+    final ArchivePath path = openPath(file);
+    if (path.fileSystem == null) {
+      return Files.newInputStream(path.getPath());
+    }
+    try {
+      return new FilterInputStream(Files.newInputStream(path.getPath())) {
+
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            path.close();
+          }
+        }
+      };
+    } catch (final IOException | RuntimeException e) {
+      path.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Read file content to string
+   *
+   * @param file
+   *          - file, maybe under an archive
+   * @return file content
+   * @throws IOException
+   *           - IOException
+   */
+  public static String readFileToString(final File file) throws IOException {
+    try (InputStream input = openInputStream(file)) {
+      return IOUtils.toString(input, Constants.ENCODING);
+    }
+  }
+
+  /**
+   * Get file attributes
+   *
+   * @param file
+   *          - file or directory, maybe under an archive
+   * @return file attributes or null if the file doesn't exist
+   */
+  private static BasicFileAttributes getAttributes(final File file) {
+    try (ArchivePath path = openPath(file)) {
+      return Files.readAttributes(path.getPath(), BasicFileAttributes.class);
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Get cached archive of the path or look it up
+   *
+   * @param file
+   *          - file or directory, maybe under an archive
+   * @return archive or null if the file isn't under an archive
+   */
+  private static Archive lookupArchive(final File file) {
+    final String path = file.getPath();
+    if (!isArchivePath(path)) {
+      return null;
+    }
+    final Archive cached = ARCHIVES.get(path);
+    if (cached != null) {
+      return cached;
+    }
+
+    for (File parent = file; parent != null; parent = parent.getParentFile()) {
+      if (isArchiveName(parent.getName()) && parent.isFile()) {
+        String key;
+        try {
+          key = parent.getCanonicalPath();
+        } catch (final IOException e) {
+          key = parent.getAbsolutePath();
+        }
+        final Archive archive = new Archive(parent, key);
+        ARCHIVES.put(path, archive);
+        return archive;
+      }
+    }
+    // paths without archive aren't cached, the archive can be created later
+    return null;
+  }
+
+  /**
+   * Get opened zip file system of the archive and count its use.
+   * The file system is reopened if the archive changed, the outdated one is closed when it isn't used anymore.
+   *
+   * @param archive
+   *          - archive
+   * @return zip file system
+   * @throws IOException
+   *           - IOException
+   */
+  private static ArchiveFileSystem acquireFileSystem(final Archive archive) throws IOException {
+    final BasicFileAttributes attrs;
+    try {
+      attrs = Files.readAttributes(archive.file.toPath(), BasicFileAttributes.class);
+    } catch (final IOException e) {
+      // archive is removed, look it up again next time
+      ARCHIVES.values().removeAll(Collections.singleton(archive));
+      throw e;
+    }
+    if (!attrs.isRegularFile()) {
+      ARCHIVES.values().removeAll(Collections.singleton(archive));
+      throw new NoSuchFileException(archive.file.getPath());
+    }
+    final long lastModified = attrs.lastModifiedTime().toMillis();
+    final long length = attrs.size();
+
+    synchronized (FILE_SYSTEMS) {
+      ArchiveFileSystem current = FILE_SYSTEMS.get(archive.key);
+      if (current == null || current.lastModified != lastModified || current.length != length) {
+        if (current != null) {
+          current.outdated = true;
+          closeIfUnused(current);
+        }
+        LOG.debug("Opening template archive [{}] ...", archive.file);
+        final FileSystem fileSystem = FileSystems.newFileSystem(archive.file.toPath(),
+            ArchiveUtil.class.getClassLoader());
+        current = new ArchiveFileSystem(fileSystem, lastModified, length);
+        FILE_SYSTEMS.put(archive.key, current);
+      }
+      current.users++;
+      return current;
+    }
+  }
+
+  /**
+   * Finish one use of the archive file system
+   *
+   * @param fileSystem
+   *          - archive file system
+   */
+  private static void releaseFileSystem(final ArchiveFileSystem fileSystem) {
+    synchronized (FILE_SYSTEMS) {
+      fileSystem.users--;
+      closeIfUnused(fileSystem);
+    }
+  }
+
+  private static void closeIfUnused(final ArchiveFileSystem fileSystem) {
+    if (fileSystem.outdated && fileSystem.users == 0) {
+      LOG.debug("Closing outdated template archive ...");
+      try {
+        fileSystem.fileSystem.close();
+      } catch (final IOException e) {
+        LOG.warn("Can't close template archive: {}", e.toString());
+      }
+    }
+  }
+
+  private static boolean isArchivePath(final String path) {
+    final String lowerPath = path.toLowerCase();
+    for (final String extension : ARCHIVE_EXTENSIONS) {
+      if (lowerPath.contains(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isArchiveName(final String name) {
+    final String lowerName = name.toLowerCase();
+    for (final String extension : ARCHIVE_EXTENSIONS) {
+      if (lowerName.endsWith(extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Opened path of a file, maybe under an archive.
+   * Closing the path finishes the use of the archive file system.
+   */
+  public static final class ArchivePath implements Closeable {
+
+    private final Path path;
+    private final ArchiveFileSystem fileSystem;
+    private boolean closed;
+
+    private ArchivePath(final Path path, final ArchiveFileSystem fileSystem) {
+      this.path = path;
+      this.fileSystem = fileSystem;
+    }
+
+    /**
+     * @return NIO path from the archive file system or the default one
+     */
+    public Path getPath() {
+      return path;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!closed && fileSystem != null) {
+        releaseFileSystem(fileSystem);
+      }
+      closed = true;
+    }
+  }
+
+  /**
+   * Archive of a path
+   */
+  private static class Archive {
+
+    final File file;
+    final String key;
+
+    Archive(final File file, final String key) {
+      this.file = file;
+      this.key = key;
+    }
+  }
+
+  /**
+   * Opened archive file system, guarded by FILE_SYSTEMS
+   */
+  private static class ArchiveFileSystem {
+
+    final FileSystem fileSystem;
+    final long lastModified;
+    final long length;
+    int users;
+    boolean outdated;
+
+    ArchiveFileSystem(final FileSystem fileSystem, final long lastModified, final long length) {
+      this.fileSystem = fileSystem;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+  }
+}
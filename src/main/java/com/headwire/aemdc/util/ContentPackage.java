@@ -0,0 +1,285 @@
+package com.headwire.aemdc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * AEM content package written as one zip stream.
+ * Rendered files under the jcr_root folder are streamed directly into the zip entries
+ * instead of creating them in the file system. The META-INF/vault/filter.xml with the roots
+ * of all generated resources and the META-INF/vault/properties.xml are written on close.
+ * The zip is written to a temp file and moved to the package file on successful close only.
+ *
+ */
+public class ContentPackage implements TargetOutput {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ContentPackage.class);
+
+  public static final String JCR_ROOT = "jcr_root";
+  public static final String FILTER_MODE_UPDATE = "update";
+  private static final String FILTER_XML = "META-INF/vault/filter.xml";
+  private static final String PROPERTIES_XML = "META-INF/vault/properties.xml";
+  private static final String PACKAGE_GROUP = "aemdc";
+  private static final String PACKAGE_VERSION = "1.0.0";
+
+  private final File packageFile;
+  private final Path jcrRoot;
+  private final File tempFile;
+  private final ZipOutputStream zip;
+  private final Set<String> entries = new HashSet<String>();
+  private final Map<String, String> filters = new TreeMap<String, String>();
+  private boolean closed;
+
+  /**
+   * Constructor
+   *
+   * @param packageFile
+   *          - content package zip file to create
+   * @param jcrRoot
+   *          - jcr_root folder of the generated files, for ex. "ui.apps/src/main/content/jcr_root"
+   * @throws IOException
+   *           - IOException
+   */
+  public ContentPackage(final File packageFile, final File jcrRoot) throws IOException {
+    this.packageFile = packageFile.getAbsoluteFile();
+    this.jcrRoot = jcrRoot.getAbsoluteFile().toPath().normalize();
+
+    final File dir = this.packageFile.getParentFile();
+    Files.createDirectories(dir.toPath());
+    tempFile = File.createTempFile(this.packageFile.getName(), ".tmp", dir);
+    zip = new ZipOutputStream(Files.newOutputStream(tempFile.toPath()));
+    LOG.debug("Content package [{}] with jcr root [{}] opened.", this.packageFile, this.jcrRoot);
+  }
+
+  /**
+   * Get repository path of the file under the jcr root folder.
+   *
+   * @param file
+   *          - target file or directory
+   * @return repository file path, for ex. "/apps/myproj/components/title", or null if the file is not under the
+   *         jcr root folder
+   */
+  public String getPath(final File file) {
+    final Path path = file.getAbsoluteFile().toPath().normalize();
+    if (!path.startsWith(jcrRoot) || path.equals(jcrRoot)) {
+      return null;
+    }
+    return "/" + jcrRoot.relativize(path).toString().replace("\\", "/");
+  }
+
+  @Override
+  public boolean contains(final File file) {
+    return getPath(file) != null;
+  }
+
+  @Override
+  public long write(final File file, final Content content) throws IOException {
+    return addEntry(getPath(file), content);
+  }
+
+  @Override
+  public byte[] read(final File file) throws IOException {
+    throw new IOException("Content package entry " + getPath(file) + " can't be read.");
+  }
+
+  @Override
+  public void addRoot(final File file, final boolean merge) {
+    addFilter(getPath(file), merge ? FILTER_MODE_UPDATE : null);
+  }
+
+  /**
+   * Add filter root of the generated resource.
+   * Roots under an already added root are not added.
+   *
+   * @param path
+   *          - repository file path of the generated directory or file
+   * @param mode
+   *          - filter import mode or null for default "replace" mode
+   */
+  public synchronized void addFilter(final String path, final String mode) {
+    final String root = getRepositoryPath(path);
+    for (final String filterRoot : filters.keySet()) {
+      if (root.equals(filterRoot) || root.startsWith(filterRoot + "/")) {
+        return;
+      }
+    }
+
+    // remove roots under the new one
+    final Iterator<String> iter = filters.keySet().iterator();
+    while (iter.hasNext()) {
+      if (iter.next().startsWith(root + "/")) {
+        iter.remove();
+      }
+    }
+    filters.put(root, mode);
+  }
+
+  /**
+   * Stream the file content into the package entry.
+   * Entries are written one by one, the parallel callers wait for each other.
+   *
+   * @param path
+   *          - repository file path
+   * @param content
+   *          - entry content writer
+   * @return number of written bytes
+   * @throws IOException
+   *           - IOException
+   */
+  private synchronized long addEntry(final String path, final Content content) throws IOException {
+    if (closed) {
+      throw new IOException("Content package " + packageFile + " is already closed.");
+    }
+    final String name = JCR_ROOT + path;
+    if (!entries.add(name)) {
+      throw new IOException("Content package entry " + name + " already exists.");
+    }
+
+    zip.putNextEntry(new ZipEntry(name));
+    final CountingOutputStream out = new CountingOutputStream(zip);
+    content.write(out);
+    zip.closeEntry();
+    LOG.debug("Content package entry [{}] added.", name);
+    return out.getByteCount();
+  }
+
+  /**
+   * Write vault files, finish the zip and move it to the package file.
+   *
+   * @throws IOException
+   *           - IOException
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      zip.putNextEntry(new ZipEntry(FILTER_XML));
+      zip.write(getFilterXml().getBytes(Constants.ENCODING));
+      zip.closeEntry();
+
+      final Properties props = new Properties();
+      props.setProperty("name", FilenameUtils.getBaseName(packageFile.getName()));
+      props.setProperty("group", PACKAGE_GROUP);
+      props.setProperty("version", PACKAGE_VERSION);
+      zip.putNextEntry(new ZipEntry(PROPERTIES_XML));
+      props.storeToXML(zip, "Generated by aemdc", Constants.ENCODING);
+      zip.closeEntry();
+
+      zip.close();
+      closed = true;
+      Files.move(tempFile.toPath(), packageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      LOG.info("Content package {} created with {} files.", packageFile, entries.size());
+
+    } catch (final IOException e) {
+      LOG.error("Can't create content package [{}]", packageFile);
+      abort();
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void abort() {
+    if (!closed) {
+      closed = true;
+      try {
+        zip.close();
+      } catch (final IOException e) {
+        LOG.debug("Can't close content package [{}]", packageFile, e);
+      }
+      LOG.error("Content package {} is not created.", packageFile);
+    }
+    tempFile.delete();
+  }
+
+  /**
+   * Get filter.xml content
+   *
+   * @return filter.xml content
+   */
+  String getFilterXml() {
+    final StringBuilder xml = new StringBuilder();
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    xml.append("<workspaceFilter version=\"1.0\">\n");
+    for (final Map.Entry<String, String> filter : filters.entrySet()) {
+      xml.append("    <filter root=\"").append(StringEscapeUtils.escapeXml10(filter.getKey())).append("\"");
+      if (StringUtils.isNotBlank(filter.getValue())) {
+        xml.append(" mode=\"").append(filter.getValue()).append("\"");
+      }
+      xml.append("/>\n");
+    }
+    xml.append("</workspaceFilter>\n");
+    return xml.toString();
+  }
+
+  /**
+   * Convert the file path under jcr_root to the repository node path.
+   * Escaped names like "_cq_dialog" are converted to "cq:dialog",
+   * XML files except .content.xml are treated as docview files of the nodes without extension.
+   *
+   * @param path
+   *          - repository file path
+   * @return repository node path
+   */
+  static String getRepositoryPath(final String path) {
+    final StringBuilder result = new StringBuilder();
+    final String[] names = StringUtils.split(path, "/");
+    for (int i = 0; i < names.length; i++) {
+      String name = names[i];
+      if (i == names.length - 1 && name.endsWith("." + Constants.FILE_EXT_XML)) {
+        if (".content.xml".equals(name)) {
+          break;
+        }
+        name = FilenameUtils.getBaseName(name);
+      }
+      result.append("/").append(getRepositoryName(name));
+    }
+    return result.length() > 0 ? result.toString() : "/";
+  }
+
+  private static String getRepositoryName(final String name) {
+    String repositoryName = name;
+    try {
+      repositoryName = URLDecoder.decode(name.replace("+", "%2B"), Constants.ENCODING);
+    } catch (final UnsupportedEncodingException | IllegalArgumentException e) {
+      LOG.debug("Can't decode file name [{}]", name);
+    }
+    if (repositoryName.startsWith("__")) {
+      return repositoryName.substring(1);
+    }
+    final int index = repositoryName.indexOf('_', 1);
+    if (repositoryName.startsWith("_") && index > 1 && index < repositoryName.length() - 1) {
+      return repositoryName.substring(1, index) + ":" + repositoryName.substring(index + 1);
+    }
+    return repositoryName;
+  }
+
+  @Override
+  public String toString() {
+    return "content package " + packageFile;
+  }
+}
@@ -0,0 +1,195 @@
+package com.headwire.aemdc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Cached model of the template source directories shared by the configuration, help and commands.
+ * Each directory is listed one level deep with a directory stream. The listing is reused
+ * as long as the modification time of the directory is unchanged.
+ * The listing order is the same as of {@link File#listFiles()}.
+ * Directories under zip or jar archives are listed from the archive file system.
+ *
+ */
+public class DirectoryModel {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryModel.class);
+
+  private static final ConcurrentMap<String, Listing> LISTINGS = new ConcurrentHashMap<String, Listing>();
+
+  /**
+   * Constructor
+   *
+   */
+  private DirectoryModel() {
+  }
+
+  /**
+   * Get direct sub directories
+   *
+   * @param dir
+   *          - directory
+   * @return sub directories
+   */
+  public static List<File> listDirs(final File dir) {
+    final Listing listing = getListing(dir);
+    final List<File> dirs = new ArrayList<File>();
+    for (final File entry : listing.entries) {
+      if (listing.dirs.contains(entry)) {
+        dirs.add(entry);
+      }
+    }
+    return dirs;
+  }
+
+  /**
+   * Get the directory and all its sub directories recursive
+   *
+   * @param dir
+   *          - directory
+   * @return directory and sub directories
+   */
+  public static List<File> listAllDirs(final File dir) {
+    final List<File> dirs = new ArrayList<File>();
+    dirs.add(dir);
+    for (final File subDir : listDirs(dir)) {
+      dirs.addAll(listAllDirs(subDir));
+    }
+    return dirs;
+  }
+
+  /**
+   * Get files of the directory in the same order as FileUtils.listFiles
+   *
+   * @param dir
+   *          - directory
+   * @param extensions
+   *          - file extensions or null for all files
+   * @param recursive
+   *          - true to list files of sub directories
+   * @return files
+   */
+  public static List<File> listFiles(final File dir, final String[] extensions, final boolean recursive) {
+    final List<File> files = new ArrayList<File>();
+    addFiles(dir, extensions, recursive, files);
+    return files;
+  }
+
+  /**
+   * Remove all cached listings.
+   */
+  public static void clear() {
+    LISTINGS.clear();
+  }
+
+  private static void addFiles(final File dir, final String[] extensions, final boolean recursive,
+      final List<File> files) {
+    final Listing listing = getListing(dir);
+    for (final File entry : listing.entries) {
+      if (listing.dirs.contains(entry)) {
+        if (recursive) {
+          addFiles(entry, extensions, recursive, files);
+        }
+      } else if (hasExtension(entry, extensions)) {
+        files.add(entry);
+      }
+    }
+  }
+
+  private static boolean hasExtension(final File file, final String[] extensions) {
+    if (extensions == null) {
+      return true;
+    }
+    for (final String extension : extensions) {
+      if (file.getName().endsWith("." + extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get cached listing of the directory or list it again, if it changed.
+   *
+   * @param dir
+   *          - directory
+   * @return directory listing, empty if the directory can't be read
+   */
+  private static Listing getListing(final File dir) {
+    try (ArchiveUtil.ArchivePath path = ArchiveUtil.openPath(dir)) {
+      return getListing(dir, path.getPath());
+    } catch (final IOException e) {
+      LOG.debug("Can't read directory [{}].", dir);
+      return Listing.EMPTY;
+    }
+  }
+
+  /**
+   * Get cached listing of the directory or list it again, if it changed.
+   *
+   * @param dir
+   *          - directory
+   * @param path
+   *          - opened NIO path of the directory
+   * @return directory listing, empty if the directory can't be listed
+   * @throws IOException
+   *           - IOException if the directory can't be read
+   */
+  private static Listing getListing(final File dir, final Path path) throws IOException {
+    final FileTime lastModified = Files.getLastModifiedTime(path);
+
+    final String key = dir.getPath();
+    final Listing cached = LISTINGS.get(key);
+    if (cached != null && cached.lastModified.equals(lastModified)) {
+      return cached;
+    }
+
+    final Listing listing = new Listing(lastModified);
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+      for (final Path entry : stream) {
+        final File file = new File(dir, entry.getFileName().toString());
+        listing.entries.add(file);
+        if (Files.readAttributes(entry, BasicFileAttributes.class).isDirectory()) {
+          listing.dirs.add(file);
+        }
+      }
+    } catch (final IOException e) {
+      LOG.debug("Can't list directory [{}].", dir);
+      return Listing.EMPTY;
+    }
+
+    LISTINGS.put(key, listing);
+    return listing;
+  }
+
+  /**
+   * One level directory listing
+   */
+  private static class Listing {
+
+    static final Listing EMPTY = new Listing(null);
+
+    final FileTime lastModified;
+    final List<File> entries = new ArrayList<File>();
+    final Set<File> dirs = new HashSet<File>();
+
+    Listing(final FileTime lastModified) {
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -1,22 +1,37 @@
 package com.headwire.aemdc.util;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.FalseFileFilter;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Progress;
+import com.headwire.aemdc.jfr.FileEvent;
+import com.headwire.aemdc.jfr.FlightEvents;
 
 
 /**
@@ -48,7 +63,7 @@ public class FilesDirsUtil {
 
     try {
       if (StringUtils.isNotBlank(filepath)) {
-        input = new FileInputStream(filepath);
+        input = ArchiveUtil.openInputStream(new File(filepath));
         // load a properties file from class path
         props.load(input);
       } else {
@@ -110,27 +125,16 @@ public class FilesDirsUtil {
   }
 
   /**
-   * Get list of all existing root sub directories
+   * Get list of all existing root sub directories.
+   * Only the first level of the root directory is listed.
    *
    * @param rootDir
    *          - the root directory to list
    * @return list of sub directories
    */
   public static Collection<File> listRootDirs(final File rootDir) {
-    final Collection<File> dirList = new ArrayList<File>();
-
-    for (final File dir : FileUtils.listFilesAndDirs(rootDir, FalseFileFilter.INSTANCE,
-        DirectoryFileFilter.INSTANCE)) {
-
-      LOG.debug("Dir: {}", dir);
-
-      // get only root directories
-      final String name = getTemplateName(rootDir, dir);
-
-      if (StringUtils.isNotBlank(name) && !name.contains("/")) {
-        dirList.add(dir);
-      }
-    }
+    final Collection<File> dirList = DirectoryModel.listDirs(rootDir);
+    LOG.debug("Dirs: {}", dirList);
     return dirList;
   }
 
@@ -142,7 +146,7 @@ public class FilesDirsUtil {
    * @return file list
    */
   public static Collection<File> listFiles(final File rootDir) {
-    final Collection<File> fileList = FileUtils.listFiles(rootDir, null, true);
+    final Collection<File> fileList = DirectoryModel.listFiles(rootDir, null, true);
     return fileList;
   }
 
@@ -154,7 +158,7 @@ public class FilesDirsUtil {
    * @return file list
    */
   public static Collection<File> listJavaFiles(final File rootDir) {
-    final Collection<File> fileList = FileUtils.listFiles(rootDir, new String[] { Constants.FILE_EXT_JAVA }, true);
+    final Collection<File> fileList = DirectoryModel.listFiles(rootDir, new String[] { Constants.FILE_EXT_JAVA }, true);
     return fileList;
   }
 
@@ -166,7 +170,7 @@ public class FilesDirsUtil {
    * @return file list
    */
   public static Collection<File> listXmlFiles(final File rootDir) {
-    final Collection<File> fileList = FileUtils.listFiles(rootDir, new String[] { Constants.FILE_EXT_XML }, false);
+    final Collection<File> fileList = DirectoryModel.listFiles(rootDir, new String[] { Constants.FILE_EXT_XML }, false);
     return fileList;
   }
 
@@ -218,7 +222,7 @@ public class FilesDirsUtil {
    * @return template names
    */
   public static List<String> getTemplateNames(final File sourceDir) {
-    final Collection<File> fileList = FileUtils.listFiles(sourceDir, null, true);
+    final Collection<File> fileList = listFiles(sourceDir);
     final List<String> names = getTemplateNames(sourceDir, fileList);
     return names;
   }
@@ -240,4 +244,297 @@ public class FilesDirsUtil {
     return names;
   }
 
-}
\ No newline at end of file
+  /**
+   * Copy source directory to destination directory incl. empty subfolders.
+   * The source directory is walked once, all destination directories are created
+   * at once before the files are copied in parallel.
+   *
+   * @param srcDir
+   *          - source directory
+   * @param destDir
+   *          - destination directory
+   * @param threads
+   *          - max number of threads to copy files
+   * @return copied template names incl. subfolders
+   * @throws IOException
+   *           - IOException
+   */
+  public static List<String> copyDirectory(final File srcDir, final File destDir, final int threads)
+      throws IOException {
+    final List<String> dirNames = new ArrayList<String>();
+    final List<String> fileNames = new ArrayList<String>();
+
+    try (ArchiveUtil.ArchivePath archivePath = ArchiveUtil.openPath(srcDir)) {
+      final Path srcPath = archivePath.getPath();
+      Files.walkFileTree(srcPath, new SimpleFileVisitor<Path>() {
+
+        @Override
+        public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+          dirNames.add(getRelativeName(srcPath, dir));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+          if (!attrs.isDirectory()) {
+            fileNames.add(getRelativeName(srcPath, file));
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+
+    createDirectories(destDir, dirNames);
+    copyFiles(srcDir, destDir, fileNames, threads, false);
+    return fileNames;
+  }
+
+  /**
+   * Copy template files from source directory to destination directory.
+   * All missing destination directories are created at once before the files are copied in parallel.
+   *
+   * @param srcDir
+   *          - source directory
+   * @param destDir
+   *          - destination directory
+   * @param templateNames
+   *          - template names incl. subfolders
+   * @param threads
+   *          - max number of threads to copy files
+   * @throws IOException
+   *           - IOException
+   */
+  public static void copyFiles(final File srcDir, final File destDir, final List<String> templateNames,
+      final int threads) throws IOException {
+    copyFiles(srcDir, destDir, templateNames, threads, true);
+  }
+
+  /**
+   * Copy source file to destination file with zero-copy transfer and keep the file date.
+   *
+   * @param srcFile
+   *          - source file
+   * @param destFile
+   *          - destination file
+   * @throws IOException
+   *           - IOException
+   */
+  public static void copyFile(final File srcFile, final File destFile) throws IOException {
+    final File parentDir = destFile.getParentFile();
+    if (parentDir != null) {
+      Files.createDirectories(parentDir.toPath());
+    }
+    transferFile(srcFile, destFile.toPath());
+  }
+
+  /**
+   * Copy source files to the target output.
+   *
+   * @param srcDir
+   *          - source directory
+   * @param destDir
+   *          - destination directory
+   * @param templateNames
+   *          - template names incl. subfolders
+   * @param output
+   *          - target output
+   * @param progress
+   *          - progress of the generation
+   * @throws IOException
+   *           - IOException
+   */
+  public static void copyFiles(final File srcDir, final File destDir, final List<String> templateNames,
+      final TargetOutput output, final Progress progress) throws IOException {
+    progress.addFiles(templateNames.size());
+    for (final String templateName : templateNames) {
+      final File destFile = new File(destDir, templateName);
+      final long size = copyFile(new File(srcDir, templateName), destFile, output);
+      progress.getStats().fileRead(size);
+      progress.fileDone(destFile, size);
+    }
+  }
+
+  /**
+   * Stream source file to the destination file of the target output.
+   *
+   * @param srcFile
+   *          - source file
+   * @param destFile
+   *          - destination file
+   * @param output
+   *          - target output
+   * @return number of written bytes
+   * @throws IOException
+   *           - IOException
+   */
+  public static long copyFile(final File srcFile, final File destFile, final TargetOutput output)
+      throws IOException {
+    final FileEvent event = FlightEvents.beginFile();
+    final long size = output.write(destFile, new TargetOutput.Content() {
+
+      @Override
+      public void write(final OutputStream out) throws IOException {
+        try (InputStream input = ArchiveUtil.openInputStream(srcFile)) {
+          IOUtils.copy(input, out);
+        }
+      }
+    });
+    FlightEvents.endFile(event, FlightEvents.OPERATION_COPY, null, srcFile.getPath(), destFile.getPath(), size,
+        size);
+    return size;
+  }
+
+  /**
+   * Move file or directory with atomic rename. If atomic rename is not possible,
+   * for ex. across file systems, the source is copied and deleted.
+   *
+   * @param src
+   *          - source file or directory
+   * @param dest
+   *          - destination file or not existing directory
+   * @throws IOException
+   *           - IOException
+   */
+  public static void move(final File src, final File dest) throws IOException {
+    final File parentDir = dest.getParentFile();
+    if (parentDir != null) {
+      Files.createDirectories(parentDir.toPath());
+    }
+    try {
+      Files.move(src.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (final AtomicMoveNotSupportedException e) {
+      LOG.debug("Atomic move from [{}] to [{}] isn't supported, copying...", src, dest);
+      if (src.isDirectory()) {
+        copyDirectory(src, dest, 1);
+        FileUtils.deleteDirectory(src);
+      } else {
+        Files.move(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  /**
+   * Copy template files from source directory to destination directory.
+   *
+   * @param srcDir
+   *          - source directory
+   * @param destDir
+   *          - destination directory
+   * @param templateNames
+   *          - template names incl. subfolders
+   * @param threads
+   *          - max number of threads to copy files
+   * @param toCreateParentDirs
+   *          - true to create missing parent directories of the destination files
+   * @throws IOException
+   *           - IOException
+   */
+  private static void copyFiles(final File srcDir, final File destDir, final List<String> templateNames,
+      final int threads, final boolean toCreateParentDirs) throws IOException {
+    if (toCreateParentDirs) {
+      final Set<String> parentNames = new LinkedHashSet<String>();
+      for (final String name : templateNames) {
+        final int index = name.lastIndexOf('/');
+        parentNames.add(index < 0 ? "" : name.substring(0, index));
+      }
+      createDirectories(destDir, parentNames);
+    }
+
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(templateNames.size());
+    for (final String name : templateNames) {
+      tasks.add(new Callable<Void>() {
+
+        @Override
+        public Void call() throws IOException {
+          transferFile(new File(srcDir, name), new File(destDir, name).toPath());
+          return null;
+        }
+      });
+    }
+    ParallelUtil.invokeAll(tasks, threads, "copy");
+  }
+
+  /**
+   * Create destination directories
+   *
+   * @param destDir
+   *          - destination root directory
+   * @param dirNames
+   *          - directory names relative to the root directory
+   * @throws IOException
+   *           - IOException
+   */
+  private static void createDirectories(final File destDir, final Collection<String> dirNames) throws IOException {
+    for (final String name : dirNames) {
+      Files.createDirectories(new File(destDir, name).toPath());
+    }
+  }
+
+  /**
+   * Transfer file content with FileChannel.transferTo. The destination directory must exist.
+   * Archive entries are copied as streams.
+   *
+   * @param srcFile
+   *          - source file, maybe under an archive
+   * @param dest
+   *          - destination file
+   * @throws IOException
+   *           - IOException
+   */
+  private static void transferFile(final File srcFile, final Path dest) throws IOException {
+    try (ArchiveUtil.ArchivePath src = ArchiveUtil.openPath(srcFile)) {
+      transferFile(src.getPath(), dest);
+    }
+  }
+
+  /**
+   * Transfer file content with FileChannel.transferTo. The destination directory must exist.
+   * Archive entries are copied as streams.
+   *
+   * @param src
+   *          - opened source path
+   * @param dest
+   *          - destination file
+   * @throws IOException
+   *           - IOException
+   */
+  private static void transferFile(final Path src, final Path dest) throws IOException {
+    final FileEvent event = FlightEvents.beginFile();
+    if (src.getFileSystem() != FileSystems.getDefault()) {
+      Files.copy(src, dest, StandardCopyOption.REPLACE_EXISTING);
+      Files.setLastModifiedTime(dest, Files.getLastModifiedTime(src));
+      if (event != null) {
+        final long size = Files.size(dest);
+        FlightEvents.endFile(event, FlightEvents.OPERATION_COPY, null, src.toUri().toString(), dest.toString(),
+            size, size);
+      }
+      return;
+    }
+    long size = 0L;
+    try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ);
+        FileChannel out = FileChannel.open(dest, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      size = in.size();
+      long position = 0;
+      while (position < size) {
+        position += in.transferTo(position, size - position, out);
+      }
+    }
+    Files.setLastModifiedTime(dest, Files.getLastModifiedTime(src));
+    FlightEvents.endFile(event, FlightEvents.OPERATION_COPY, null, src.toString(), dest.toString(), size, size);
+  }
+
+  /**
+   * Get path name relative to the root path in unix format
+   *
+   * @param rootPath
+   *          - root path
+   * @param path
+   *          - path under the root path
+   * @return relative name
+   */
+  private static String getRelativeName(final Path rootPath, final Path path) {
+    return rootPath.relativize(path).toString().replace("\\", "/");
+  }
+
+}
@@ -5,11 +5,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -19,7 +16,6 @@ import com.headwire.aemdc.companion.Config;
 import com.headwire.aemdc.companion.Constants;
 import com.headwire.aemdc.companion.Reflection;
 import com.headwire.aemdc.companion.Resource;
-import com.headwire.aemdc.replacer.Replacer;
 import com.headwire.aemdc.runner.BasisRunner;
 import com.headwire.aemdc.runner.CompoundRunner;
 
@@ -225,7 +221,7 @@ public class Help {
     String helpText = "";
     if (config.isDynamicType(type)) {
       final File file = new File(templateHelpPath);
-      if (file.exists() && file.isFile() && file.canRead()) {
+      if (ArchiveUtil.isFile(file) && (ArchiveUtil.getArchive(file) != null || file.canRead())) {
         helpText = getTextFromFile(templateHelpPath);
       } else {
         helpText = getTextFromFile(typeHelpPath);
@@ -251,7 +247,7 @@ public class Help {
     final StringBuilder helpText = new StringBuilder();
     try {
       final File helpFile = new File(filePath);
-      final String fileText = FileUtils.readFileToString(helpFile, Constants.ENCODING);
+      final String fileText = ArchiveUtil.readFileToString(helpFile);
       helpText.append(fileText);
     } catch (final IOException e) {
       LOG.error("Sorry, can't show you help text from file [{}]", filePath);
@@ -391,7 +387,7 @@ public class Help {
     final String templateSrcPath = runner.getSourceFolder() + "/" + runnerResource.getSourceName();
 
     final File dir = new File(templateSrcPath);
-    if (!dir.exists()) {
+    if (!ArchiveUtil.exists(dir)) {
       LOG.error("Can't get place holders. Directory/file {} doesn't exist.", templateSrcPath);
     } else {
       phsList = getPlaceHolders(dir);
@@ -412,62 +408,10 @@ public class Help {
    */
   private List<String> getPlaceHolders(final File dir) {
     LOG.debug("get PH from [{}]", dir);
-    final ArrayList<String> placeholders = new ArrayList<>();
-
-    if (dir.isDirectory()) {
-      // get files list recursive only with predefined extensions
-      final String[] extensions = config.getFileExtensions();
-      final Collection<File> fileList = FileUtils.listFiles(dir, extensions, true);
-      final Iterator<File> iter = fileList.iterator();
-      while (iter.hasNext()) {
-        final File nextFile = iter.next();
-        // find place holders
-        placeholders.addAll(getPlaceHoldersFromFile(nextFile));
-      }
-    } else {
-      // find place holders
-      placeholders.addAll(getPlaceHoldersFromFile(dir));
-    }
-
-    final ArrayList<String> ret = new ArrayList<>();
-
-    for (final String ph : placeholders) {
-      if (!ret.contains(ph) && !Constants.FORBIDDEN_PLACEHOLDERS.contains(ph)) {
-        ret.add(ph);
-      }
-    }
-
-    return ret;
-  }
-
-  /**
-   * Get all placeholders from the file
-   *
-   * @param file
-   *          - file to find placeholders there
-   * @return list of placeholders
-   */
-  private List<String> getPlaceHoldersFromFile(final File file) {
-    final ArrayList<String> placeHolders = new ArrayList<>();
-    try {
-      final String text = FileUtils.readFileToString(file, Constants.ENCODING);
-      // find placeholders
-      final List<String> phList = Replacer.findTextPlaceHolders(text);
-      final Iterator<String> iter = phList.iterator();
-      while (iter.hasNext()) {
-        // add offset for help
-        String ph = iter.next();
-        ph = ph.replace("{{", "");
-        ph = ph.replace("}}", "");
-        ph = ph.trim();
-        if (!placeHolders.contains(ph)) {
-          placeHolders.add(ph);
-        }
-      }
-    } catch (final IOException e) {
-      LOG.error("Can't get place holders from {}", file);
-    }
-    return placeHolders;
+    // get placeholders from files with predefined extensions
+    final List<String> placeholders = PlaceHolderIndex.getInstance().getPlaceHolders(dir, config.getFileExtensions());
+    placeholders.removeAll(Constants.FORBIDDEN_PLACEHOLDERS);
+    return placeholders;
   }
 
   /**
@@ -0,0 +1,126 @@
+package com.headwire.aemdc.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * In-memory output of the generated target files for previews and dry runs.
+ * The rendered files are kept as byte buffers by path, nothing is written to the disk.
+ *
+ */
+public class MemoryOutput implements TargetOutput {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MemoryOutput.class);
+
+  private final ConcurrentNavigableMap<String, byte[]> files = new ConcurrentSkipListMap<String, byte[]>();
+  private final ConcurrentSkipListSet<String> roots = new ConcurrentSkipListSet<String>();
+
+  @Override
+  public boolean contains(final File file) {
+    return true;
+  }
+
+  @Override
+  public long write(final File file, final Content content) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    content.write(out);
+    files.put(getKey(file), out.toByteArray());
+    LOG.debug("File [{}] written to memory.", file);
+    return out.size();
+  }
+
+  @Override
+  public byte[] read(final File file) throws IOException {
+    final byte[] content = files.get(getKey(file));
+    if (content == null) {
+      throw new FileNotFoundException("File " + file + " is not in the memory output.");
+    }
+    return content;
+  }
+
+  @Override
+  public void addRoot(final File file, final boolean merge) {
+    roots.add(getKey(file));
+  }
+
+  @Override
+  public void close() {
+    // nothing to close
+  }
+
+  @Override
+  public void abort() {
+    // nothing to discard
+  }
+
+  /**
+   * Get content of the file
+   *
+   * @param file
+   *          - target file
+   * @return file content or null if the file is not in the output
+   */
+  public byte[] getContent(final File file) {
+    return files.get(getKey(file));
+  }
+
+  /**
+   * Get all written files in the path order
+   *
+   * @return files
+   */
+  public List<File> getFiles() {
+    final List<File> result = new ArrayList<File>();
+    for (final String path : files.keySet()) {
+      result.add(new File(path));
+    }
+    return result;
+  }
+
+  /**
+   * Get roots of the generated resources in the path order
+   *
+   * @return generated directories and files
+   */
+  public List<File> getRoots() {
+    final List<File> result = new ArrayList<File>();
+    for (final String path : roots) {
+      result.add(new File(path));
+    }
+    return result;
+  }
+
+  /**
+   * Get total size of all files
+   *
+   * @return size in bytes
+   */
+  public long getSize() {
+    long size = 0;
+    for (final Map.Entry<String, byte[]> entry : files.entrySet()) {
+      size += entry.getValue().length;
+    }
+    return size;
+  }
+
+  private static String getKey(final File file) {
+    return file.getAbsoluteFile().toPath().normalize().toString();
+  }
+
+  @Override
+  public String toString() {
+    return "memory output";
+  }
+}
@@ -0,0 +1,388 @@
+package com.headwire.aemdc.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Parallel Util to run independent or ordered tasks in a bounded thread pool.
+ * Nested calls from a pool thread, for ex. the files of a compound member of a batch row,
+ * run in the calling pool thread, so the number of threads stays bounded by the outermost pool.
+ *
+ */
+public class ParallelUtil {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelUtil.class);
+
+  /**
+   * Constructor
+   *
+   */
+  private ParallelUtil() {
+  }
+
+  /**
+   * Run all tasks and return their results in the order of the tasks.
+   * With one thread, one task or if called from a pool thread all tasks run sequentially in the caller thread.
+   * Otherwise the tasks run in a pool of the given size. If any task fails,
+   * not yet started tasks are skipped, running tasks are completed and
+   * the first error in the order of the tasks is thrown like in the sequential run
+   * with the errors of the other failed tasks as suppressed exceptions.
+   *
+   * @param tasks
+   *          - independent tasks
+   * @param threads
+   *          - max number of threads
+   * @param name
+   *          - name of the thread pool
+   * @return task results in the order of the tasks
+   * @throws IOException
+   *           - IOException of the first failed task
+   */
+  public static <T> List<T> invokeAll(final List<Callable<T>> tasks, final int threads, final String name)
+      throws IOException {
+    final List<T> results = new ArrayList<T>(tasks.size());
+
+    if (threads <= 1 || tasks.size() <= 1 || isPoolThread()) {
+      for (final Callable<T> task : tasks) {
+        results.add(call(task));
+      }
+      return results;
+    }
+
+    final int poolSize = Math.min(threads, tasks.size());
+    LOG.debug("Running {} tasks in the [{}] pool with {} threads ...", tasks.size(), name, poolSize);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(poolSize, new NamedThreadFactory(name));
+    final AtomicBoolean failed = new AtomicBoolean();
+    try {
+      final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+      for (final Callable<T> task : tasks) {
+        futures.add(executor.submit(new Callable<T>() {
+
+          @Override
+          public T call() throws Exception {
+            // fail fast: skip not started tasks after the first error
+            if (failed.get()) {
+              return null;
+            }
+            try {
+              return task.call();
+            } catch (final Exception e) {
+              failed.set(true);
+              throw e;
+            }
+          }
+        }));
+      }
+
+      // collect results and errors in the order of the tasks
+      final List<Throwable> errors = new ArrayList<Throwable>();
+      for (final Future<T> future : futures) {
+        try {
+          results.add(future.get());
+        } catch (final ExecutionException e) {
+          errors.add(e.getCause());
+        }
+      }
+
+      throwErrors(errors, tasks.size(), name);
+
+    } catch (final InterruptedException e) {
+      failed.set(true);
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } finally {
+      executor.shutdown();
+    }
+
+    return results;
+  }
+
+  /**
+   * Run all tasks in the order of their dependencies and return their results in the order of the tasks.
+   * A task starts after all tasks it depends on are completed, independent tasks run concurrently
+   * in a pool of the given size. With one thread or if called from a pool thread the tasks run sequentially
+   * in the caller thread.
+   * If any task fails, not yet started tasks are skipped with null result, running tasks are completed and
+   * the first error in the order of the tasks is thrown like in the sequential run
+   * with the errors of the other failed tasks as suppressed exceptions.
+   *
+   * @param tasks
+   *          - tasks
+   * @param dependencies
+   *          - indexes of the tasks each task depends on, in the order of the tasks
+   * @param threads
+   *          - max number of threads
+   * @param name
+   *          - name of the thread pool
+   * @return task results in the order of the tasks
+   * @throws IOException
+   *           - IOException of the first failed task or if the dependencies are cyclic
+   */
+  public static <T> List<T> invokeAll(final List<Callable<T>> tasks, final List<Set<Integer>> dependencies,
+      final int threads, final String name) throws IOException {
+    final int count = tasks.size();
+
+    // number of not completed dependencies and dependent tasks of each task
+    final int[] waiting = new int[count];
+    final List<List<Integer>> dependents = new ArrayList<List<Integer>>(count);
+    for (int i = 0; i < count; i++) {
+      dependents.add(new ArrayList<Integer>());
+    }
+    for (int i = 0; i < count; i++) {
+      for (final Integer dependency : dependencies.get(i)) {
+        if (dependency < 0 || dependency >= count || dependency == i) {
+          throw new IOException("Invalid dependency " + dependency + " of task " + i + " in the [" + name + "] pool.");
+        }
+        waiting[i]++;
+        dependents.get(dependency).add(i);
+      }
+    }
+    final int[] order = getTopologicalOrder(waiting, dependents);
+    if (order.length < count) {
+      throw new IOException("Cyclic dependencies of the tasks in the [" + name + "] pool.");
+    }
+
+    final List<T> results = new ArrayList<T>(Collections.<T> nCopies(count, null));
+
+    if (threads <= 1 || count <= 1 || isPoolThread()) {
+      for (final int i : order) {
+        results.set(i, call(tasks.get(i)));
+      }
+      return results;
+    }
+
+    final int poolSize = Math.min(threads, count);
+    LOG.debug("Running {} dependent tasks in the [{}] pool with {} threads ...", count, name, poolSize);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(poolSize, new NamedThreadFactory(name));
+    final CompletionService<Integer> completion = new ExecutorCompletionService<Integer>(executor);
+    final Map<Integer, Throwable> errors = new TreeMap<Integer, Throwable>();
+    final Map<Future<Integer>, Integer> running = new HashMap<Future<Integer>, Integer>();
+    try {
+      for (int i = 0; i < count; i++) {
+        if (waiting[i] == 0) {
+          submit(completion, running, tasks, results, i);
+        }
+      }
+
+      while (!running.isEmpty()) {
+        final Future<Integer> future = completion.take();
+        final int i = running.remove(future);
+        try {
+          future.get();
+          // start dependent tasks ready to run, unless a task failed
+          for (final int dependent : dependents.get(i)) {
+            if (--waiting[dependent] == 0 && errors.isEmpty()) {
+              submit(completion, running, tasks, results, dependent);
+            }
+          }
+        } catch (final ExecutionException e) {
+          errors.put(i, e.getCause());
+        }
+      }
+
+      throwErrors(new ArrayList<Throwable>(errors.values()), count, name);
+
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } finally {
+      executor.shutdown();
+    }
+
+    return results;
+  }
+
+  /**
+   * Submit task to the completion service
+   *
+   * @param completion
+   *          - completion service
+   * @param running
+   *          - running tasks indexes by futures
+   * @param tasks
+   *          - all tasks
+   * @param results
+   *          - results of all tasks
+   * @param index
+   *          - index of the task to submit
+   */
+  private static <T> void submit(final CompletionService<Integer> completion,
+      final Map<Future<Integer>, Integer> running, final List<Callable<T>> tasks, final List<T> results,
+      final int index) {
+    final Future<Integer> future = completion.submit(new Callable<Integer>() {
+
+      @Override
+      public Integer call() throws Exception {
+        final T result = tasks.get(index).call();
+        synchronized (results) {
+          results.set(index, result);
+        }
+        return index;
+      }
+    });
+    running.put(future, index);
+  }
+
+  /**
+   * Get tasks order where each task follows all tasks it depends on.
+   * Independent tasks keep their original order.
+   *
+   * @param waiting
+   *          - number of dependencies of each task
+   * @param dependents
+   *          - dependent tasks of each task
+   * @return tasks indexes in the topological order, shorter than tasks if the dependencies are cyclic
+   */
+  private static int[] getTopologicalOrder(final int[] waiting, final List<List<Integer>> dependents) {
+    final int[] counts = waiting.clone();
+    final PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == 0) {
+        ready.add(i);
+      }
+    }
+
+    final int[] order = new int[counts.length];
+    int size = 0;
+    while (!ready.isEmpty()) {
+      final int i = ready.poll();
+      order[size++] = i;
+      for (final int dependent : dependents.get(i)) {
+        if (--counts[dependent] == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+    return Arrays.copyOf(order, size);
+  }
+
+  /**
+   * Throw the first task error like in the sequential run, the other errors are added to it
+   * as suppressed exceptions
+   *
+   * @param errors
+   *          - task errors in the order of the tasks
+   * @param count
+   *          - number of tasks
+   * @param name
+   *          - name of the thread pool
+   * @throws IOException
+   *           - IOException of the first failed task
+   */
+  private static void throwErrors(final List<Throwable> errors, final int count, final String name)
+      throws IOException {
+    if (errors.isEmpty()) {
+      return;
+    }
+    final Throwable first = errors.get(0);
+    if (errors.size() > 1) {
+      LOG.error("{} of {} tasks in the [{}] pool failed.", errors.size(), count, name);
+      for (final Throwable error : errors.subList(1, errors.size())) {
+        if (error != first) {
+          first.addSuppressed(error);
+        }
+      }
+    }
+    rethrow(first);
+  }
+
+  /**
+   * Is the current thread a thread of a pool started by this util?
+   *
+   * @return true if the nested tasks must run in the current thread
+   */
+  static boolean isPoolThread() {
+    return Thread.currentThread() instanceof PoolThread;
+  }
+
+  /**
+   * Call task in the current thread
+   *
+   * @param task
+   *          - task
+   * @return task result
+   * @throws IOException
+   *           - IOException
+   */
+  private static <T> T call(final Callable<T> task) throws IOException {
+    try {
+      return task.call();
+    } catch (final Exception e) {
+      rethrow(e);
+      return null;
+    }
+  }
+
+  /**
+   * Throw task error as IOException, runtime exceptions and errors are thrown unchanged
+   *
+   * @param error
+   *          - task error
+   * @throws IOException
+   *           - task IOException or other checked exception wrapped in IOException
+   */
+  private static void rethrow(final Throwable error) throws IOException {
+    if (error instanceof IOException) {
+      throw (IOException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error instanceof Error) {
+      throw (Error) error;
+    }
+    throw new IOException(error);
+  }
+
+  /**
+   * Pool thread marks the nested calls
+   */
+  private static class PoolThread extends Thread {
+
+    PoolThread(final Runnable runnable, final String name) {
+      super(runnable, name);
+    }
+  }
+
+  /**
+   * Thread factory with named daemon pool threads
+   */
+  private static class NamedThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    NamedThreadFactory(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new PoolThread(runnable, "aemdc-" + name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
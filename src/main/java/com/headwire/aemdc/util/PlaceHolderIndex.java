@@ -0,0 +1,412 @@
+package com.headwire.aemdc.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.headwire.aemdc.companion.Config;
+
+
+/**
+ * Persistent index of the place holders {{ name }} in the template files.
+ * Each file is scanned once and rescanned only if its modification time or size changed.
+ * The file list of a template directory is rescanned only if a modification time
+ * of the directory or one of its sub directories changed.
+ * The index is stored in the cache folder, if the configuration snapshot is enabled.
+ * Entries of removed files and template directories are pruned, when the index is loaded
+ * and when a template directory is listed again.
+ *
+ */
+public class PlaceHolderIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PlaceHolderIndex.class);
+
+  private static final int MAGIC = 0x41454d50;
+  private static final int VERSION = 1;
+  private static final String INDEX_FILENAME = "placeholders.bin";
+  private static final Pattern PH_PATTERN = Pattern.compile("\\{\\{ (.+?) \\}\\}");
+
+  private static PlaceHolderIndex instance;
+
+  private final File indexFile;
+  private final Map<String, FileEntry> files = new HashMap<String, FileEntry>();
+  private final Map<String, TemplateEntry> templates = new HashMap<String, TemplateEntry>();
+  private boolean changed;
+
+  /**
+   * Constructor
+   *
+   * @param indexFile
+   *          - index file or null for not persistent index
+   */
+  PlaceHolderIndex(final File indexFile) {
+    this.indexFile = indexFile;
+    if (indexFile != null) {
+      read();
+    }
+  }
+
+  /**
+   * Get process wide place holder index
+   *
+   * @return place holder index
+   */
+  public static synchronized PlaceHolderIndex getInstance() {
+    if (instance == null) {
+      instance = new PlaceHolderIndex(Config.isSnapshotEnabled() ? new File(Config.getCacheFolder(), INDEX_FILENAME)
+          : null);
+    }
+    return instance;
+  }
+
+  /**
+   * Get ordered distinct place holder names in the template directory or file.
+   *
+   * @param dir
+   *          - template directory or file
+   * @param extensions
+   *          - extensions of the directory files with place holders
+   * @return place holder names in the order of their first occurrence
+   */
+  public List<String> getPlaceHolders(final File dir, final String[] extensions) {
+    final Set<String> placeHolders = new LinkedHashSet<String>();
+    for (final Occurrence occurrence : getOccurrences(dir, extensions)) {
+      placeHolders.add(occurrence.getName());
+    }
+    return new ArrayList<String>(placeHolders);
+  }
+
+  /**
+   * Get all place holder occurrences in the template directory or file.
+   *
+   * @param dir
+   *          - template directory or file
+   * @param extensions
+   *          - extensions of the directory files with place holders
+   * @return place holder occurrences in the order of the files and lines
+   */
+  public synchronized List<Occurrence> getOccurrences(final File dir, final String[] extensions) {
+    final List<Occurrence> occurrences = new ArrayList<Occurrence>();
+    for (final String path : getFiles(dir, extensions)) {
+      final FileEntry entry = getFileEntry(new File(path));
+      if (entry != null) {
+        for (int i = 0; i < entry.names.size(); i++) {
+          occurrences.add(new Occurrence(entry.names.get(i), path, entry.lines.get(i)));
+        }
+      }
+    }
+    write();
+    return occurrences;
+  }
+
+  /**
+   * Get files of the template directory from the index or list them again,
+   * if any directory changed.
+   *
+   * @param dir
+   *          - template directory or file
+   * @param extensions
+   *          - extensions of the directory files with place holders
+   * @return file paths
+   */
+  private List<String> getFiles(final File dir, final String[] extensions) {
+    if (!ArchiveUtil.isDirectory(dir)) {
+      return Collections.singletonList(dir.getAbsolutePath());
+    }
+
+    final String key = dir.getAbsolutePath() + "|" + StringUtils.join(extensions, ",");
+    final TemplateEntry cached = templates.get(key);
+    if (cached != null && cached.isValid()) {
+      return cached.files;
+    }
+
+    LOG.debug("Indexing template files in [{}] ...", dir);
+    final TemplateEntry entry = new TemplateEntry();
+    for (final File subDir : DirectoryModel.listAllDirs(dir)) {
+      entry.dirs.put(subDir.getAbsolutePath(), ArchiveUtil.lastModified(subDir));
+    }
+    for (final File file : DirectoryModel.listFiles(dir, extensions, true)) {
+      entry.files.add(file.getAbsolutePath());
+    }
+    if (cached != null) {
+      // drop removed files of the previous listing
+      for (final String path : cached.files) {
+        if (!entry.files.contains(path) && !ArchiveUtil.exists(new File(path))) {
+          files.remove(path);
+        }
+      }
+    }
+    templates.put(key, entry);
+    changed = true;
+    return entry.files;
+  }
+
+  /**
+   * Remove entries of not existing files and template directories.
+   *
+   * @return true if any entry was removed
+   */
+  private boolean prune() {
+    boolean pruned = false;
+    for (final Iterator<String> it = files.keySet().iterator(); it.hasNext();) {
+      if (!ArchiveUtil.exists(new File(it.next()))) {
+        it.remove();
+        pruned = true;
+      }
+    }
+    for (final Iterator<TemplateEntry> it = templates.values().iterator(); it.hasNext();) {
+      final TemplateEntry entry = it.next();
+      // the first directory is the template directory itself
+      if (entry.dirs.isEmpty() || !ArchiveUtil.isDirectory(new File(entry.dirs.keySet().iterator().next()))) {
+        it.remove();
+        pruned = true;
+      }
+    }
+    return pruned;
+  }
+
+  /**
+   * Get place holders of the file from the index or scan the file again, if it changed.
+   *
+   * @param file
+   *          - template file
+   * @return file entry or null if the file can't be read
+   */
+  private FileEntry getFileEntry(final File file) {
+    final String path = file.getAbsolutePath();
+    final FileEntry cached = files.get(path);
+    final long length = ArchiveUtil.length(file);
+    final long lastModified = ArchiveUtil.lastModified(file);
+    if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+      return cached;
+    }
+
+    final FileEntry entry = new FileEntry(length, lastModified);
+    try {
+      final String text = ArchiveUtil.readFileToString(file);
+      scan(text, entry);
+    } catch (final IOException e) {
+      LOG.error("Can't get place holders from {}", file);
+      files.remove(path);
+      return null;
+    }
+    files.put(path, entry);
+    changed = true;
+    return entry;
+  }
+
+  /**
+   * Find place holders and their line numbers in the text.
+   *
+   * @param text
+   *          - template text
+   * @param entry
+   *          - file entry to add place holders
+   */
+  private static void scan(final String text, final FileEntry entry) {
+    final Matcher matcher = PH_PATTERN.matcher(text);
+    int line = 1;
+    int pos = 0;
+    while (matcher.find()) {
+      for (; pos < matcher.start(); pos++) {
+        if (text.charAt(pos) == '\n') {
+          line++;
+        }
+      }
+      final String name = matcher.group().replace("{{", "").replace("}}", "").trim();
+      entry.names.add(name);
+      entry.lines.add(line);
+    }
+  }
+
+  /**
+   * Read index from the index file.
+   */
+  private void read() {
+    if (!indexFile.isFile()) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return;
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        final String path = in.readUTF();
+        final FileEntry entry = new FileEntry(in.readLong(), in.readLong());
+        for (int j = in.readInt(); j > 0; j--) {
+          entry.names.add(in.readUTF());
+          entry.lines.add(in.readInt());
+        }
+        files.put(path, entry);
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        final String key = in.readUTF();
+        final TemplateEntry entry = new TemplateEntry();
+        for (int j = in.readInt(); j > 0; j--) {
+          entry.dirs.put(in.readUTF(), in.readLong());
+        }
+        for (int j = in.readInt(); j > 0; j--) {
+          entry.files.add(in.readUTF());
+        }
+        templates.put(key, entry);
+      }
+      LOG.debug("Place holder index [{}] loaded.", indexFile);
+      changed = prune();
+
+    } catch (final IOException e) {
+      // truncated or corrupted index
+      LOG.debug("Can't read place holder index [{}].", indexFile, e);
+      files.clear();
+      templates.clear();
+    }
+  }
+
+  /**
+   * Write changed index to the index file. The file is replaced atomically.
+   */
+  private void write() {
+    if (indexFile == null || !changed) {
+      return;
+    }
+    try {
+      final File dir = indexFile.getParentFile();
+      Files.createDirectories(dir.toPath());
+      final File tempFile = File.createTempFile(indexFile.getName(), ".tmp", dir);
+      try {
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+          out.writeInt(files.size());
+          for (final Map.Entry<String, FileEntry> entry : files.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().length);
+            out.writeLong(entry.getValue().lastModified);
+            out.writeInt(entry.getValue().names.size());
+            for (int i = 0; i < entry.getValue().names.size(); i++) {
+              out.writeUTF(entry.getValue().names.get(i));
+              out.writeInt(entry.getValue().lines.get(i));
+            }
+          }
+          out.writeInt(templates.size());
+          for (final Map.Entry<String, TemplateEntry> entry : templates.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().dirs.size());
+            for (final Map.Entry<String, Long> dirEntry : entry.getValue().dirs.entrySet()) {
+              out.writeUTF(dirEntry.getKey());
+              out.writeLong(dirEntry.getValue());
+            }
+            writeStrings(out, entry.getValue().files);
+          }
+        }
+        Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        changed = false;
+        LOG.debug("Place holder index [{}] written.", indexFile);
+      } finally {
+        Files.deleteIfExists(tempFile.toPath());
+      }
+    } catch (final IOException e) {
+      LOG.debug("Can't write place holder index [{}].", indexFile, e);
+    }
+  }
+
+  private static void writeStrings(final DataOutputStream out, final Collection<String> values) throws IOException {
+    out.writeInt(values.size());
+    for (final String value : values) {
+      out.writeUTF(value);
+    }
+  }
+
+  /**
+   * Place holder occurrence in the template file
+   */
+  public static class Occurrence {
+
+    private final String name;
+    private final String path;
+    private final int line;
+
+    Occurrence(final String name, final String path, final int line) {
+      this.name = name;
+      this.path = path;
+      this.line = line;
+    }
+
+    /**
+     * @return place holder name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return template file path
+     */
+    public String getPath() {
+      return path;
+    }
+
+    /**
+     * @return line number starting from 1
+     */
+    public int getLine() {
+      return line;
+    }
+  }
+
+  /**
+   * Place holders of one file
+   */
+  private static class FileEntry {
+
+    final long length;
+    final long lastModified;
+    final List<String> names = new ArrayList<String>();
+    final List<Integer> lines = new ArrayList<Integer>();
+
+    FileEntry(final long length, final long lastModified) {
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+  }
+
+  /**
+   * Files of one template directory
+   */
+  private static class TemplateEntry {
+
+    final Map<String, Long> dirs = new LinkedHashMap<String, Long>();
+    final List<String> files = new ArrayList<String>();
+
+    boolean isValid() {
+      for (final Map.Entry<String, Long> entry : dirs.entrySet()) {
+        if (ArchiveUtil.lastModified(new File(entry.getKey())) != entry.getValue()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.headwire.aemdc.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Output of the generated target files instead of the file system,
+ * for ex. a content package zip or an in-memory output for previews and dry runs.
+ * The files are written by the commands, which can run in parallel.
+ *
+ */
+public interface TargetOutput extends Closeable {
+
+  /**
+   * Is the target file written to this output?
+   *
+   * @param file
+   *          - target file or directory
+   * @return true if the file is written to this output, false if it's created in the file system
+   */
+  boolean contains(File file);
+
+  /**
+   * Write the target file content.
+   *
+   * @param file
+   *          - target file
+   * @param content
+   *          - file content writer
+   * @return number of written bytes
+   * @throws IOException
+   *           - IOException
+   */
+  long write(File file, Content content) throws IOException;
+
+  /**
+   * Read the target file content written before.
+   *
+   * @param file
+   *          - target file
+   * @return file content
+   * @throws IOException
+   *           - if the file wasn't written or the output can't be read
+   */
+  byte[] read(File file) throws IOException;
+
+  /**
+   * Add root of the generated resource.
+   *
+   * @param file
+   *          - generated directory or file
+   * @param merge
+   *          - true to keep other existing resources under the root
+   */
+  void addRoot(File file, boolean merge);
+
+  /**
+   * Discard the output, if it wasn't closed successfully.
+   */
+  void abort();
+
+  /**
+   * Content writer of one target file
+   */
+  interface Content {
+
+    /**
+     * Write the file content. The stream must not be closed.
+     *
+     * @param out
+     *          - file output stream
+     * @throws IOException
+     *           - IOException
+     */
+    void write(OutputStream out) throws IOException;
+  }
+}
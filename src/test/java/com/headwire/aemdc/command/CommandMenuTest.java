@@ -0,0 +1,132 @@
+package com.headwire.aemdc.command;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.DynamicReplacer;
+import com.headwire.aemdc.util.ContentPackage;
+import com.headwire.aemdc.util.MemoryOutput;
+
+
+/**
+ * Command menu tests
+ *
+ */
+public class CommandMenuTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File typesDir;
+  private File jcrRoot;
+  private Config config;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+    typesDir = folder.newFolder("aemdc-files");
+    jcrRoot = folder.newFolder("jcr_root");
+    final String jcrPath = jcrRoot.getPath().replace("\\", "/");
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"), "SOURCE_TYPES_FOLDER="
+        + typesDir.getPath().replace("\\", "/") + "\nTARGET_JAVA_FOLDER=" + jcrPath + "/java\n", Constants.ENCODING);
+
+    writeFile("page/config.properties", "TEMPLATE_STRUCTURE=FILE\nTARGET_TYPE_FOLDER=" + jcrPath + "/apps/my\n");
+    writeFile("page/simple.html", "<p>{{ title }}</p>");
+    writeFile("component/config.properties",
+        "TEMPLATE_STRUCTURE=DIR\nTARGET_TYPE_FOLDER=" + jcrPath + "/apps/my/components\n");
+    writeFile("component/title/{{targetname}}.html", "<p>{{ title }}</p>");
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+  }
+
+  @Test
+  public void testOutputOperations() {
+    assertArrayEquals(new String[] { "COPY_REPLACE", "CREATE_FILE" }, CommandMenu
+        .getOutputOperations(new String[] { "COPY_DIR", "REPLACE_PH", "REPLACE_PATH_PH", "CREATE_FILE" }));
+    assertArrayEquals(new String[] { "COPY_FILE" },
+        CommandMenu.getOutputOperations(new String[] { "COPY_FILE", "REPLACE_PH" }));
+    final String[] operations = new String[] { "COPY_FILE" };
+    assertArrayEquals(operations, CommandMenu.getOutputOperations(operations));
+  }
+
+  @Test
+  public void testFileToPackage() throws IOException {
+    final Resource resource = new Resource(new String[] { "page", "simple.html", "mypage.html", "title=Hello" });
+    resource.setSourceFolderPath(new File(typesDir, "page").getPath());
+    resource.setTargetFolderPath(new File(jcrRoot, "apps/my").getPath());
+    resource.setExtensions(new String[] { "html" });
+    final File packageFile = new File(folder.getRoot(), "my-content.zip");
+    final ContentPackage contentPackage = new ContentPackage(packageFile, jcrRoot);
+    resource.setOutput(contentPackage);
+
+    final CommandMenu menu = new CommandMenu();
+    menu.setCommands(new String[] { "COPY_FILE", "REPLACE_PH" }, resource, new DynamicReplacer(resource, config),
+        config);
+    menu.runCommands();
+    contentPackage.close();
+
+    // rendered file is written only into the package
+    assertFalse(new File(jcrRoot, "apps/my/mypage.html").exists());
+    try (ZipFile zip = new ZipFile(packageFile)) {
+      assertEquals("<p>Hello</p>", IOUtils.toString(zip.getInputStream(zip.getEntry("jcr_root/apps/my/mypage.html")),
+          Constants.ENCODING));
+    }
+  }
+
+  @Test
+  public void testPathPlaceHoldersToOutput() throws IOException {
+    final File destDir = new File(jcrRoot, "apps/my/components/mytitle");
+
+    // path place holders are kept as by the run without target output
+    MemoryOutput output = runDirTemplate("COPY_DIR", "REPLACE_PH");
+    assertEquals("<p>Hello</p>",
+        new String(output.getContent(new File(destDir, "{{targetname}}.html")), Constants.ENCODING));
+    assertNull(output.getContent(new File(destDir, "mytitle.html")));
+
+    output = runDirTemplate("COPY_DIR", "REPLACE_PH", "REPLACE_PATH_PH");
+    assertEquals("<p>Hello</p>", new String(output.getContent(new File(destDir, "mytitle.html")), Constants.ENCODING));
+    assertNull(output.getContent(new File(destDir, "{{targetname}}.html")));
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  private MemoryOutput runDirTemplate(final String... operations) throws IOException {
+    final Resource resource = new Resource(new String[] { "component", "title", "mytitle", "title=Hello" });
+    resource.setSourceFolderPath(new File(typesDir, "component").getPath());
+    resource.setTargetFolderPath(new File(jcrRoot, "apps/my/components").getPath());
+    resource.setExtensions(new String[] { "html" });
+    final MemoryOutput output = new MemoryOutput();
+    resource.setOutput(output);
+
+    final CommandMenu menu = new CommandMenu();
+    menu.setCommands(operations, resource, new DynamicReplacer(resource, config), config);
+    menu.runCommands();
+    return output;
+  }
+
+  private void writeFile(final String name, final String text) throws IOException {
+    FileUtils.writeStringToFile(new File(typesDir, name), text, Constants.ENCODING);
+  }
+
+}
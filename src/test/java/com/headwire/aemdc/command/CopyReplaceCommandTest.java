@@ -0,0 +1,170 @@
+package com.headwire.aemdc.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.DynamicReplacer;
+import com.headwire.aemdc.util.MemoryOutput;
+
+
+/**
+ * Copy and replace command tests
+ *
+ */
+public class CopyReplaceCommandTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File typesDir;
+  private File targetDir;
+  private Config config;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+    typesDir = folder.newFolder("aemdc-files");
+    targetDir = folder.newFolder("target");
+    final String targetPath = targetDir.getPath().replace("\\", "/");
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"), "SOURCE_TYPES_FOLDER="
+        + typesDir.getPath().replace("\\", "/") + "\nTARGET_JAVA_FOLDER=" + targetPath + "/java\n", Constants.ENCODING);
+
+    writeFile("component/config.properties",
+        "TEMPLATE_STRUCTURE=DIR\nTARGET_TYPE_FOLDER=" + targetPath + "/components\n");
+    writeFile("component/title/{{targetname}}.html", "<div class=\"{{ title }}\"/>");
+    writeFile("component/title/sub/a.html", "<p>{{ title }}</p>");
+    writeFile("component/title/icon.png", "{{ title }}");
+    writeFile("service/config.properties",
+        "TEMPLATE_STRUCTURE=FILE\nTARGET_TYPE_FOLDER=" + targetPath + "/java/services\n");
+    writeFile("service/simple/{{java-class}}.html", "<p>{{ title }}</p>");
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+  }
+
+  @Test
+  public void testDirStructure() throws IOException {
+    final Resource resource = getResource("component", "title", "mytitle", "components");
+    execute(resource);
+
+    final File destDir = new File(targetDir, "components/mytitle");
+    assertEquals("<div class=\"Hello\"/>", read(new File(destDir, "mytitle.html")));
+    assertEquals("<p>Hello</p>", read(new File(destDir, "sub/a.html")));
+    // files with other extensions are copied as they are
+    assertEquals("{{ title }}", read(new File(destDir, "icon.png")));
+    assertFalse(new File(destDir, "{{targetname}}.html").exists());
+
+    final List<String> names = resource.getCopiedTemplateNames();
+    Collections.sort(names);
+    assertEquals(Arrays.asList("icon.png", "sub/a.html", "{{targetname}}.html"), names);
+  }
+
+  @Test
+  public void testWithoutPathPlaceHolders() throws IOException {
+    final Resource resource = getResource("component", "title", "mytitle", "components");
+    new CopyReplaceCommand(resource, config, new DynamicReplacer(resource, config), false).execute();
+
+    // only place holders in the file content are replaced
+    final File destDir = new File(targetDir, "components/mytitle");
+    assertEquals("<div class=\"Hello\"/>", read(new File(destDir, "{{targetname}}.html")));
+    assertFalse(new File(destDir, "mytitle.html").exists());
+  }
+
+  @Test
+  public void testFileStructure() throws IOException {
+    execute(getResource("service", "simple", "own/MyService", "java/services"));
+
+    // target sub package from the target name, file name from the path place holder
+    assertEquals("<p>Hello</p>", read(new File(targetDir, "java/services/own/MyService.html")));
+  }
+
+  @Test
+  public void testWarn() throws IOException {
+    final File oldFile = new File(targetDir, "components/mytitle/old.html");
+    FileUtils.writeStringToFile(oldFile, "old", Constants.ENCODING);
+    final Resource resource = getResource("component", "title", "mytitle", "components");
+    resource.setToWarnDestDir(true);
+    try {
+      execute(resource);
+      fail("Existing directory is overwritten.");
+    } catch (final IllegalStateException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+    assertTrue(oldFile.isFile());
+    assertFalse(new File(targetDir, "components/mytitle/mytitle.html").exists());
+  }
+
+  @Test
+  public void testDelete() throws IOException {
+    final File oldFile = new File(targetDir, "components/mytitle/old.html");
+    FileUtils.writeStringToFile(oldFile, "old", Constants.ENCODING);
+    final Resource resource = getResource("component", "title", "mytitle", "components");
+    resource.setToDeleteDestDir(true);
+    execute(resource);
+
+    assertFalse(oldFile.exists());
+    assertTrue(new File(targetDir, "components/mytitle/mytitle.html").isFile());
+  }
+
+  @Test
+  public void testOutput() throws IOException {
+    final Resource resource = getResource("component", "title", "mytitle", "components");
+    final MemoryOutput output = new MemoryOutput();
+    resource.setOutput(output);
+    execute(resource);
+
+    // files are written only into the output
+    final File destDir = new File(targetDir, "components/mytitle");
+    assertFalse(destDir.exists());
+    assertEquals("<div class=\"Hello\"/>",
+        new String(output.getContent(new File(destDir, "mytitle.html")), Constants.ENCODING));
+    assertEquals("{{ title }}", new String(output.getContent(new File(destDir, "icon.png")), Constants.ENCODING));
+    assertEquals(3, output.getFiles().size());
+    assertEquals(Arrays.asList(destDir.getAbsoluteFile()), output.getRoots());
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  private Resource getResource(final String type, final String sourceName, final String targetName,
+      final String targetFolder) {
+    final Resource resource = new Resource(new String[] { type, sourceName, targetName, "title=Hello" });
+    resource.setSourceFolderPath(new File(typesDir, type).getPath());
+    resource.setTargetFolderPath(new File(targetDir, targetFolder).getPath());
+    resource.setExtensions(new String[] { "html" });
+    return resource;
+  }
+
+  private void execute(final Resource resource) throws IOException {
+    new CopyReplaceCommand(resource, config, new DynamicReplacer(resource, config)).execute();
+  }
+
+  private void writeFile(final String name, final String text) throws IOException {
+    FileUtils.writeStringToFile(new File(typesDir, name), text, Constants.ENCODING);
+  }
+
+  private static String read(final File file) throws IOException {
+    return FileUtils.readFileToString(file, Constants.ENCODING);
+  }
+
+}
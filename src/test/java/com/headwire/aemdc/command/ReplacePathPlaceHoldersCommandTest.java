@@ -0,0 +1,136 @@
+package com.headwire.aemdc.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+import com.headwire.aemdc.companion.Resource;
+import com.headwire.aemdc.replacer.DynamicReplacer;
+
+
+/**
+ * Replace path place holders command tests
+ *
+ */
+public class ReplacePathPlaceHoldersCommandTest {
+
+  private static final String PH_DIR = "{{targetname}}";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Config config;
+  private Resource resource;
+  private File destDir;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+    final File typesDir = folder.newFolder("aemdc-files");
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"),
+        "SOURCE_TYPES_FOLDER=" + typesDir.getPath().replace("\\", "/") + "\n", Constants.ENCODING);
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+
+    final File targetFolder = folder.newFolder("target");
+    resource = new Resource();
+    resource.setType("component");
+    resource.setSourceName("title");
+    resource.setTargetName("mytitle");
+    resource.setTargetFolderPath(targetFolder.getPath());
+    resource.setExtensions(new String[] { "html" });
+    resource.setJcrProperties(new HashMap<String, Map<String, String>>());
+    destDir = new File(targetFolder, "mytitle");
+  }
+
+  @Test
+  public void testRename() throws IOException {
+    execute(PH_DIR + "/a.html", PH_DIR + "/sub/" + PH_DIR + ".html", "c.html");
+
+    assertTrue(new File(destDir, "mytitle/a.html").isFile());
+    assertTrue(new File(destDir, "mytitle/sub/mytitle.html").isFile());
+    assertTrue(new File(destDir, "c.html").isFile());
+    assertFalse(new File(destDir, PH_DIR).exists());
+    assertEquals(Arrays.asList("mytitle/a.html", "mytitle/sub/mytitle.html", "c.html"),
+        resource.getCopiedTemplateNames());
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    FileUtils.writeStringToFile(new File(destDir, "mytitle/old.html"), "old", Constants.ENCODING);
+    FileUtils.writeStringToFile(new File(destDir, "mytitle/a.html"), "old", Constants.ENCODING);
+    execute(PH_DIR + "/a.html", PH_DIR + "/sub/b.html");
+
+    // existing files are kept or overwritten
+    assertEquals("old", FileUtils.readFileToString(new File(destDir, "mytitle/old.html"), Constants.ENCODING));
+    assertEquals(PH_DIR + "/a.html",
+        FileUtils.readFileToString(new File(destDir, "mytitle/a.html"), Constants.ENCODING));
+    assertTrue(new File(destDir, "mytitle/sub/b.html").isFile());
+    assertFalse(new File(destDir, PH_DIR).exists());
+  }
+
+  @Test
+  public void testWarn() throws IOException {
+    resource.setToWarnDestDir(true);
+
+    // existing directory without conflicting files is merged
+    FileUtils.writeStringToFile(new File(destDir, "mytitle/old.html"), "old", Constants.ENCODING);
+    execute(PH_DIR + "/a.html");
+    assertTrue(new File(destDir, "mytitle/a.html").isFile());
+    assertTrue(new File(destDir, "mytitle/old.html").isFile());
+
+    // existing file isn't overwritten
+    try {
+      execute(PH_DIR + "/a.html");
+      fail("Existing file is overwritten.");
+    } catch (final IllegalStateException e) {
+      assertTrue(e.getMessage().contains("already exists"));
+    }
+    assertTrue(new File(destDir, PH_DIR + "/a.html").isFile());
+  }
+
+  @Test
+  public void testOtherFiles() throws IOException {
+    execute(PH_DIR + "/a.html", PH_DIR + "/b.bin", PH_DIR + ".bin");
+
+    // only files with the configured extensions are renamed
+    assertTrue(new File(destDir, "mytitle/a.html").isFile());
+    assertTrue(new File(destDir, PH_DIR + "/b.bin").isFile());
+    assertTrue(new File(destDir, PH_DIR + ".bin").isFile());
+    assertFalse(new File(destDir, "mytitle/b.bin").exists());
+    assertEquals(Arrays.asList("mytitle/a.html", PH_DIR + "/b.bin", PH_DIR + ".bin"),
+        resource.getCopiedTemplateNames());
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  private void execute(final String... templateNames) throws IOException {
+    for (final String name : templateNames) {
+      FileUtils.writeStringToFile(new File(destDir, name), name, Constants.ENCODING);
+    }
+    resource.setCopiedTemplateNames(new ArrayList<String>(Arrays.asList(templateNames)));
+    new ReplacePathPlaceHoldersCommand(resource, config, new DynamicReplacer(resource, config)).execute();
+  }
+
+}
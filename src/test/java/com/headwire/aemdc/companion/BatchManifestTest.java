@@ -0,0 +1,45 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Batch manifest tests
+ *
+ */
+public class BatchManifestTest {
+
+  @Test
+  public void testParseCsv() {
+    final List<String[]> rows = BatchManifest.parseCsv("# type,name,targetname,args...\r\n"
+        + "component,title,my-title,\"jcr:title=My, \"\"Title\"\"\"\r\n\r\n" + "service, simple ,own/MyService,");
+
+    assertEquals(2, rows.size());
+    assertArrayEquals(new String[] { "component", "title", "my-title", "jcr:title=My, \"Title\"" }, rows.get(0));
+    assertArrayEquals(new String[] { "service", "simple", "own/MyService" }, rows.get(1));
+  }
+
+  @Test
+  public void testParseJson() throws IOException {
+    final List<String[]> rows = BatchManifest
+        .parseJson("[ [\"component\", \"title\", \"my-title\", \"jcr:title=My \\\"Title\\\" \\u00e4\"],\n"
+            + "[\"service\",\"simple\",\"own/MyService\"], [] ]");
+
+    assertEquals(2, rows.size());
+    assertArrayEquals(new String[] { "component", "title", "my-title", "jcr:title=My \"Title\" \u00e4" },
+        rows.get(0));
+    assertArrayEquals(new String[] { "service", "simple", "own/MyService" }, rows.get(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testParseWrongJson() throws IOException {
+    BatchManifest.parseJson("[[\"component\", \"title\"]");
+  }
+
+}
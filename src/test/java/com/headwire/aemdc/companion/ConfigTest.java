@@ -0,0 +1,136 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Config tests
+ *
+ */
+public class ConfigTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File typesDir;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+
+    typesDir = folder.newFolder("aemdc-files");
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"),
+        "SOURCE_TYPES_FOLDER=" + typesDir.getPath().replace("\\", "/") + "\n", Constants.ENCODING);
+
+    writeDynamicConfig("service", "TEMPLATE_STRUCTURE=FILE\nSOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/service\n");
+    writeDynamicConfig("service/simple", "SOURCE_TYPE_FOLDER={{SOURCE_TYPES_FOLDER}}/service/simple/files\n");
+    writeDynamicConfig("component/title", "TEMPLATE_STRUCTURE=DIR\n");
+  }
+
+  @Test
+  public void testDynamicProperties() {
+    final Config config = new Config(folder.getRoot(), "aemdc-config.properties");
+    final String typesPath = typesDir.getPath().replace("\\", "/");
+
+    assertEquals(typesPath + "/service/simple/files",
+        config.getDynamicProperties("service", "simple").getProperty("SOURCE_TYPE_FOLDER"));
+    assertEquals("FILE", config.getDynamicProperties("service", "simple").getProperty("TEMPLATE_STRUCTURE"));
+
+    // unknown template name falls back to the type config
+    assertEquals(typesPath + "/service",
+        config.getDynamicProperties("service", "unknown").getProperty("SOURCE_TYPE_FOLDER"));
+    assertNull(config.getDynamicProperties("unknown", "simple"));
+  }
+
+  @Test
+  public void testOsgiSubfolderPlaceHolder() throws IOException {
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"),
+        "SOURCE_TYPES_FOLDER=" + typesDir.getPath().replace("\\", "/") + "\nTARGET_UI_FOLDER=ui\n"
+            + "TARGET_OSGI_SUBFOLDER={{TARGET_UI_FOLDER}}/config\nTARGET_PROJECT_ROOT={{TARGET_OSGI_SUBFOLDER}}/root\n",
+        Constants.ENCODING);
+    writeDynamicConfig("osgi", "TARGET_TYPE_FOLDER={{TARGET_OSGI_SUBFOLDER}}/osgi\n");
+    final Config config = new Config(folder.getRoot(), "aemdc-config.properties");
+
+    // the OSGi subfolder is a path place holder only in the dynamic configs
+    assertEquals("ui/config", config.getProperty("TARGET_OSGI_SUBFOLDER"));
+    assertEquals("{{TARGET_OSGI_SUBFOLDER}}/root", config.getProperty("TARGET_PROJECT_ROOT"));
+    assertEquals("ui/config/osgi", config.getDynamicProperties("osgi", null).getProperty("TARGET_TYPE_FOLDER"));
+  }
+
+  @Test
+  public void testValidateConfiguration() {
+    final Config config = new Config(folder.getRoot(), "aemdc-config.properties");
+    final int notLoadedIssues = config.validateConfiguration(false).size();
+
+    // full validation loads and checks all dynamic configs
+    final int allIssues = config.validateConfiguration().size();
+    assertTrue(allIssues > notLoadedIssues);
+    assertEquals(allIssues, config.validateConfiguration(false).size());
+  }
+
+  @Test
+  public void testSnapshot() throws IOException {
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "true");
+    final File configFile = new File(folder.getRoot(), "aemdc-config.properties");
+    final File snapshotFile = ConfigSnapshot.getSnapshotFile(configFile);
+
+    // the snapshot is written with the configs loaded until then
+    Config config = new Config(folder.getRoot(), "aemdc-config.properties");
+    assertFalse(snapshotFile.isFile());
+    assertEquals("FILE", config.getDynamicProperties("service", "simple").getProperty("TEMPLATE_STRUCTURE"));
+    config.saveSnapshot();
+    final ConfigSnapshot snapshot = ConfigSnapshot.read(snapshotFile, ConfigSnapshot.getId(configFile));
+    assertTrue(snapshot.dynamicConfigs.containsKey("service:simple"));
+    assertFalse(snapshot.dynamicConfigs.containsKey("component:title"));
+
+    // loaded from snapshot
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+    assertEquals("FILE", config.getDynamicProperties("service", "simple").getProperty("TEMPLATE_STRUCTURE"));
+    assertEquals(2, config.getDynamicTypes().size());
+    assertEquals("DIR", config.getDynamicProperties("component", "title").getProperty("TEMPLATE_STRUCTURE"));
+    config.saveSnapshot();
+    assertFalse(config.isOutdated());
+
+    // changed template config invalidates the snapshot
+    final File simpleConfig = new File(typesDir, "service/simple/config.properties");
+    writeDynamicConfig("service/simple", "TEMPLATE_STRUCTURE=DIR\n");
+    simpleConfig.setLastModified(simpleConfig.lastModified() + 2000);
+    assertTrue(config.isOutdated());
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+    assertEquals("DIR", config.getDynamicProperties("service", "simple").getProperty("TEMPLATE_STRUCTURE"));
+    config.getTemplateNames("service");
+    config.saveSnapshot();
+
+    // new template invalidates the snapshot
+    writeDynamicConfig("service/other", "TEMPLATE_STRUCTURE=DIR\n");
+    new File(typesDir, "service").setLastModified(System.currentTimeMillis() + 2000);
+    assertTrue(config.isOutdated());
+    config = new Config(folder.getRoot(), "aemdc-config.properties");
+    assertTrue(config.getTemplateNames("service").contains("other"));
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  private void writeDynamicConfig(final String path, final String text) throws IOException {
+    FileUtils.writeStringToFile(new File(typesDir, path + "/config.properties"), text, Constants.ENCODING);
+  }
+
+}
@@ -0,0 +1,191 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Daemon tests
+ *
+ */
+public class DaemonCompanionTest {
+
+  private static final String[] STOP = new String[] { Constants.PARAM_OPTION_STOP };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ServerSocket server;
+  private Thread thread;
+  private int port;
+  private String workDir;
+  private ByteArrayOutputStream console;
+
+  @Before
+  public void setUp() throws IOException, InterruptedException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+    final File projectDir = folder.newFolder("project");
+    Config.setProjectRootPath(projectDir.getPath());
+    workDir = projectDir.getCanonicalPath();
+    console = new ByteArrayOutputStream();
+
+    final DaemonCompanion daemon = new DaemonCompanion(new Config());
+    daemon.setReadTimeout(500);
+    server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    port = server.getLocalPort();
+    thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          daemon.serve(server);
+        } catch (final IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }, "aemdc daemon test");
+    thread.start();
+
+    // the token file is written when the daemon is ready
+    for (int i = 0; i < 100 && !DaemonClient.getTokenFile(port).isFile(); i++) {
+      Thread.sleep(50);
+    }
+  }
+
+  @Test
+  public void testRequest() throws IOException {
+    final String[] args = new String[] { Constants.PARAM_OPTION_STATS };
+    assertEquals(DaemonClient.EXIT_OK, send(DaemonClient.readToken(port), workDir, args));
+    // logs of the request are streamed to the client
+    assertTrue(getConsole().contains("Statistics:"));
+  }
+
+  @Test
+  public void testInvalidToken() throws IOException {
+    assertEquals(DaemonClient.EXIT_ERROR, send("wrong", workDir, STOP));
+    assertTrue(getConsole().contains("Invalid AEMDC daemon token"));
+
+    // the daemon isn't stopped
+    assertTrue(thread.isAlive());
+    assertEquals(DaemonClient.EXIT_OK, send(DaemonClient.readToken(port), workDir, new String[0]));
+  }
+
+  @Test
+  public void testTokenFile() throws IOException {
+    final File tokenFile = DaemonClient.getTokenFile(port);
+    assertEquals(64, DaemonClient.readToken(port).length());
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(tokenFile.toPath()));
+    }
+  }
+
+  @Test
+  public void testWorkDirMismatch() throws IOException {
+    final String otherDir = folder.getRoot().getCanonicalPath();
+    assertEquals(DaemonClient.EXIT_ERROR, send(DaemonClient.readToken(port), otherDir, STOP));
+    assertTrue(getConsole().contains("but the client is in " + otherDir));
+    assertTrue(thread.isAlive());
+  }
+
+  @Test
+  public void testStop() throws IOException, InterruptedException {
+    assertEquals(DaemonClient.EXIT_OK, send(DaemonClient.readToken(port), workDir, STOP));
+    thread.join(5000);
+    assertFalse(thread.isAlive());
+    assertFalse(DaemonClient.getTokenFile(port).exists());
+  }
+
+  @Test
+  public void testWrongArgumentsCount() throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      out.writeUTF(DaemonClient.readToken(port));
+      out.writeUTF(workDir);
+      out.writeInt(Integer.MAX_VALUE);
+      out.flush();
+      // connection is closed without running anything
+      new DataInputStream(socket.getInputStream()).readByte();
+      fail("Request with wrong arguments count is handled.");
+    } catch (final EOFException e) {
+      // expected
+    }
+    assertEquals(DaemonClient.EXIT_OK, send(DaemonClient.readToken(port), workDir, new String[0]));
+  }
+
+  @Test
+  public void testIdleClient() throws IOException {
+    try (Socket idle = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      // the idle client times out and the next request is handled
+      assertEquals(DaemonClient.EXIT_OK, send(DaemonClient.readToken(port), workDir, new String[0]));
+    }
+  }
+
+  @Test
+  public void testReloadConfig() throws IOException {
+    final File projectDir = new File(workDir);
+    final File typesDir = folder.newFolder("aemdc-files");
+    FileUtils.writeStringToFile(new File(projectDir, "aemdc-config.properties"),
+        "SOURCE_TYPES_FOLDER=" + typesDir.getPath().replace("\\", "/") + "\n", Constants.ENCODING);
+    FileUtils.writeStringToFile(new File(typesDir, "service/simple/config.properties"), "TEMPLATE_STRUCTURE=FILE\n",
+        Constants.ENCODING);
+
+    final DaemonCompanion daemon = new DaemonCompanion(new Config());
+    final Config config = daemon.getConfig();
+    assertFalse(config.getTemplateNames("service").contains("other"));
+    daemon.reloadConfigIfChanged();
+    assertSame(config, daemon.getConfig());
+
+    // added template in the types folder reloads the config
+    assertTrue(new File(typesDir, "service/other").mkdir());
+    new File(typesDir, "service").setLastModified(System.currentTimeMillis() + 2000);
+    daemon.reloadConfigIfChanged();
+    assertNotSame(config, daemon.getConfig());
+    assertTrue(daemon.getConfig().getTemplateNames("service").contains("other"));
+  }
+
+  @After
+  public void tearDown() throws IOException, InterruptedException {
+    if (thread.isAlive()) {
+      send(DaemonClient.readToken(port), workDir, STOP);
+      thread.join(5000);
+    }
+    server.close();
+    Config.setProjectRootPath(".");
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  private int send(final String token, final String dir, final String[] args) throws IOException {
+    return DaemonClient.send(port, token, dir, args, new PrintStream(console, true, Constants.ENCODING));
+  }
+
+  private String getConsole() throws IOException {
+    return console.toString(Constants.ENCODING);
+  }
+}
@@ -0,0 +1,53 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+
+/**
+ * Path place holder resolver tests
+ *
+ */
+public class PathPlaceHolderResolverTest {
+
+  private static final List<String> NAMES = Arrays.asList("A", "B", "C", "D");
+
+  @Test
+  public void testNestedReferences() {
+    final Properties props = new Properties();
+    props.setProperty("A", "{{B}}/a");
+    props.setProperty("B", "{{C}}/b/{{C}}");
+    props.setProperty("C", "c");
+    props.setProperty("OTHER", "{{A}}:{{ PH_NAME }}:{{UNKNOWN}}:{{D}}");
+
+    final PathPlaceHolderResolver resolver = new PathPlaceHolderResolver(props, NAMES);
+    assertTrue(resolver.getCycles().isEmpty());
+    assertEquals("c/b/c/a", resolver.getValues().get("A"));
+
+    final Properties newProps = resolver.replace(props);
+    assertEquals("c/b/c/a", newProps.getProperty("A"));
+    assertEquals("c/b/c", newProps.getProperty("B"));
+    assertEquals("c/b/c/a:{{ PH_NAME }}:{{UNKNOWN}}:{{D}}", newProps.getProperty("OTHER"));
+  }
+
+  @Test
+  public void testCyclicReferences() {
+    final Properties props = new Properties();
+    props.setProperty("A", "{{B}}/a");
+    props.setProperty("B", "{{A}}/b");
+    props.setProperty("C", "{{C}}/{{D}}");
+    props.setProperty("D", "d");
+
+    final PathPlaceHolderResolver resolver = new PathPlaceHolderResolver(props, NAMES);
+    assertEquals(Arrays.asList("A -> B -> A", "C -> C"), resolver.getCycles());
+    assertEquals("{{A}}/b/a", resolver.replace("{{A}}"));
+    assertEquals("{{C}}/d", resolver.replace("{{C}}"));
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Progress tests
+ *
+ */
+public class ProgressTest {
+
+  @Test
+  public void testFileDone() throws InterruptedIOException {
+    final List<String> events = new ArrayList<String>();
+    final Progress progress = new Progress(new Progress.Listener() {
+
+      @Override
+      public void commandStarted(final String command, final String type, final String templateName) {
+        events.add(command + " " + type + ":" + templateName);
+      }
+
+      @Override
+      public void fileDone(final File file, final int filesDone, final int filesTotal, final long bytes) {
+        events.add(file.getName() + " " + filesDone + "/" + filesTotal + " " + bytes);
+      }
+    });
+
+    progress.commandStarted("COPY_DIR", new Resource(new String[] { "component", "title", "my-title" }));
+    progress.addFiles(2);
+    progress.fileDone(new File("title.html"), 10);
+    progress.fileDone(new File("title.js"), 5);
+    // not planned file increases the total
+    progress.fileDone(new File(".content.xml"), 1);
+
+    assertEquals(3, progress.getFilesDone());
+    assertEquals(3, progress.getFilesTotal());
+    assertEquals(16, progress.getBytes());
+    assertEquals("COPY_DIR component:title", events.get(0));
+    assertEquals("title.html 1/2 10", events.get(1));
+    assertEquals(".content.xml 3/3 16", events.get(3));
+  }
+
+  @Test
+  public void testCancel() throws InterruptedIOException {
+    final Progress progress = new Progress();
+    progress.addFiles(2);
+    progress.fileDone(new File("title.html"), 10);
+    progress.cancel();
+    assertTrue(progress.isCancelled());
+
+    try {
+      progress.fileDone(new File("title.js"), 5);
+      fail("Cancelled generation must stop after the done file.");
+    } catch (final InterruptedIOException e) {
+      assertEquals(2, progress.getFilesDone());
+    }
+  }
+}
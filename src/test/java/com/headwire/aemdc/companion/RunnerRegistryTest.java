@@ -0,0 +1,64 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.headwire.aemdc.runner.BasisRunner;
+import com.headwire.aemdc.runner.RunnerFactory;
+
+
+/**
+ * Runner registry tests
+ *
+ */
+public class RunnerRegistryTest {
+
+  @Test
+  public void testFactories() {
+    final RunnerRegistry registry = RunnerRegistry.getInstance();
+    assertSame(registry, RunnerRegistry.getInstance());
+
+    // runners from reflection file
+    assertNotNull(registry.getFactory("compound"));
+    assertNotNull(registry.getFactory("config"));
+    assertFalse(registry.getFactory("config") instanceof ConfigRunnerFactory);
+
+    // third-party runner
+    assertTrue(registry.getFactory("service") instanceof ServiceRunnerFactory);
+
+    assertNull(registry.getFactory("unknown"));
+  }
+
+  /**
+   * Third-party runner factory
+   */
+  public static class ServiceRunnerFactory implements RunnerFactory {
+
+    @Override
+    public String getType() {
+      return "service";
+    }
+
+    @Override
+    public BasisRunner getRunner(final Resource resource, final Config config) {
+      return null;
+    }
+  }
+
+  /**
+   * Third-party runner factory for already registered type
+   */
+  public static class ConfigRunnerFactory extends ServiceRunnerFactory {
+
+    @Override
+    public String getType() {
+      return "config";
+    }
+  }
+
+}
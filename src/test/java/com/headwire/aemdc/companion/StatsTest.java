@@ -0,0 +1,77 @@
+package com.headwire.aemdc.companion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Statistics tests
+ *
+ */
+public class StatsTest {
+
+  @Test
+  public void testTimersAndCounters() throws InterruptedIOException {
+    final Stats stats = new Stats();
+    final Progress progress = new Progress();
+    progress.setStats(stats);
+
+    for (int i = 0; i < 2; i++) {
+      final Stats.Sample sample = stats.start(Stats.TIMER_COMMAND + "COPY_DIR");
+      stats.fileRead(10);
+      progress.fileDone(new File("title.html"), 12);
+      stats.stop(sample);
+    }
+    stats.placeHolder("jcr:title", true);
+    stats.placeHolder("unknown", false);
+
+    assertEquals(2, stats.getCount(Stats.TIMER_COMMAND + "COPY_DIR"));
+    assertEquals(0, stats.getCount(Stats.TIMER_CONFIG));
+    assertEquals(2, stats.getFilesRead());
+    assertEquals(2, stats.getFilesWritten());
+    assertEquals(24, stats.getBytesWritten());
+    assertEquals(1, stats.getHits("jcr:title"));
+    assertEquals(1, stats.getMisses("unknown"));
+
+    final List<String> report = stats.getTextReport();
+    assertTrue(report.get(1).startsWith("command COPY_DIR"));
+    assertEquals("Files read: 2 (20 bytes), files written: 2 (24 bytes)", report.get(2));
+
+    final String json = stats.getJsonReport();
+    assertTrue(json.startsWith("{\"timers\":{\"command COPY_DIR\":{\"count\":2,"));
+    assertTrue(json.endsWith("\"filesRead\":2,\"bytesRead\":20,\"filesWritten\":2,\"bytesWritten\":24,"
+        + "\"placeHolders\":{\"jcr:title\":{\"hits\":1,\"misses\":0},\"unknown\":{\"hits\":0,\"misses\":1}}}"));
+  }
+
+  @Test
+  public void testDisabled() throws InterruptedIOException {
+    final Progress progress = new Progress();
+    final Stats stats = progress.getStats();
+    assertFalse(stats.isEnabled());
+
+    final Stats.Sample sample = stats.start(Stats.TIMER_CONFIG);
+    assertNull(sample);
+    stats.stop(sample);
+    stats.fileRead(10);
+    progress.fileDone(new File("title.html"), 12);
+    stats.placeHolder("jcr:title", true);
+
+    assertEquals(0, stats.getCount(Stats.TIMER_CONFIG));
+    assertEquals(0, stats.getFilesRead());
+    assertEquals(0, stats.getFilesWritten());
+    assertEquals(0, stats.getHits("jcr:title"));
+  }
+
+  @Test
+  public void testToJson() {
+    assertEquals("\"a \\\"b\\\" \\\\ \\u000a\"", Stats.toJson("a \"b\" \\ \n"));
+  }
+}
@@ -0,0 +1,126 @@
+package com.headwire.aemdc.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Config;
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Template metadata cache tests
+ *
+ */
+public class MetadataCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File typesDir;
+  private MetadataCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    System.setProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY, folder.newFolder("cache").getPath());
+    System.setProperty(Constants.CONFIG_SNAPSHOT_PROPERTY, "false");
+
+    typesDir = folder.newFolder("aemdc-files");
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "aemdc-config.properties"),
+        "SOURCE_TYPES_FOLDER=" + typesDir.getPath().replace("\\", "/") + "\n", Constants.ENCODING);
+    new File(typesDir, "component/title").mkdirs();
+    new File(typesDir, "component/text").mkdirs();
+
+    cache = new MetadataCache(folder.getRoot(), "aemdc-config.properties");
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+    System.clearProperty(Constants.CONFIG_CACHE_FOLDER_PROPERTY);
+    System.clearProperty(Constants.CONFIG_SNAPSHOT_PROPERTY);
+  }
+
+  @Test
+  public void testMemoizedUntilInvalidated() throws IOException {
+    assertEquals(Arrays.asList("text", "title"), sorted(cache.getTemplateNames("component")));
+    assertSame(cache.getConfig(), cache.getConfig());
+
+    // not watched changes are not visible
+    FileUtils.deleteDirectory(new File(typesDir, "component/text"));
+    assertEquals(Arrays.asList("text", "title"), sorted(cache.getTemplateNames("component")));
+
+    final Object oldConfig = cache.getConfig();
+    cache.invalidate();
+    assertEquals(Collections.singletonList("title"), cache.getTemplateNames("component"));
+    assertNotSame(oldConfig, cache.getConfig());
+  }
+
+  @Test
+  public void testConfigLoadedOnce() throws Exception {
+    final int count = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<Config>> configs = new ArrayList<Future<Config>>();
+    final ExecutorService executor = Executors.newFixedThreadPool(count);
+    try {
+      for (int i = 0; i < count; i++) {
+        configs.add(executor.submit(new Callable<Config>() {
+
+          @Override
+          public Config call() throws InterruptedException {
+            start.await();
+            return cache.getConfig();
+          }
+        }));
+      }
+      start.countDown();
+
+      // concurrent first accesses get the same cached config
+      for (final Future<Config> config : configs) {
+        assertSame(cache.getConfig(), config.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInvalidatedOnTemplateChange() throws Exception {
+    cache.watch();
+    assertEquals(Arrays.asList("text", "title"), sorted(cache.getTemplateNames("component")));
+
+    new File(typesDir, "component/image").mkdirs();
+
+    // wait for the file change notification
+    List<String> names = cache.getTemplateNames("component");
+    for (int i = 0; i < 200 && names.size() < 3; i++) {
+      Thread.sleep(100);
+      names = cache.getTemplateNames("component");
+    }
+    assertEquals(Arrays.asList("image", "text", "title"), sorted(names));
+  }
+
+  private static List<String> sorted(final List<String> list) {
+    Collections.sort(list);
+    return list;
+  }
+}
@@ -0,0 +1,79 @@
+package com.headwire.aemdc.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Resource;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+/**
+ * Flight recorder events tests
+ *
+ */
+public class FlightEventsTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testNotRecording() {
+    assertNull(FlightEvents.beginCommand());
+    assertNull(FlightEvents.beginFile());
+
+    // null events are ignored
+    FlightEvents.endCommand(null, "COPY_DIR", new Resource());
+  }
+
+  @Test
+  public void testRecordedEvents() throws IOException {
+    final Resource resource = new Resource(new String[] { "component", "title", "my-title" });
+    resource.setTargetFolderPath("apps/my/components");
+    final Path file = new File(folder.getRoot(), "aemdc.jfr").toPath();
+
+    try (Recording recording = new Recording()) {
+      recording.enable(CommandEvent.class);
+      recording.enable(FileEvent.class);
+      recording.start();
+
+      final CommandEvent commandEvent = FlightEvents.beginCommand();
+      assertNotNull(commandEvent);
+      final FileEvent fileEvent = FlightEvents.beginFile();
+      FlightEvents.endFile(fileEvent, FlightEvents.OPERATION_RENDER, resource, "title/title.html",
+          "apps/my/components/my-title/my-title.html", 10, 12);
+      FlightEvents.endCommand(commandEvent, "COPY_REPLACE", resource);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertEquals(2, events.size());
+    for (final RecordedEvent event : events) {
+      assertEquals("component", event.getString("type"));
+      assertEquals("title", event.getString("template"));
+      if (event.getEventType().getName().equals(FlightEvents.NAME_PREFIX + "File")) {
+        assertEquals(FlightEvents.OPERATION_RENDER, event.getString("operation"));
+        assertEquals("title/title.html", event.getString("source"));
+        assertEquals(10, event.getLong("bytesRead"));
+        assertEquals(12, event.getLong("bytesWritten"));
+      } else {
+        assertEquals("COPY_REPLACE", event.getString("command"));
+        assertEquals("apps/my/components", event.getString("path"));
+      }
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.headwire.aemdc.replacer;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+
+/**
+ * Compiled template tests
+ *
+ */
+public class CompiledTemplateTest {
+
+  @Test
+  public void testRender() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("jcr:title", "My Title");
+    dictionary.put("name", "{{ other }}hero");
+
+    final String[] texts = { "", "no placeholders", "{{ jcr:title }}", "a {{ name }} b {{ unknown }} c",
+        "{{ x {{ name }} {{ na\nme }} {{name}} {{ jcr:title", "{{ x {{ y }}" };
+    for (final String text : texts) {
+      final CompiledTemplate template = CompiledTemplate.compile(text);
+      assertEquals(dictionary.replace(text, true), template.render(dictionary, true));
+      assertEquals(dictionary.replace(text, false), template.render(dictionary, false));
+    }
+  }
+
+}
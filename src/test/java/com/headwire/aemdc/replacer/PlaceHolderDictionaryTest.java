@@ -0,0 +1,103 @@
+package com.headwire.aemdc.replacer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.headwire.aemdc.companion.Stats;
+
+
+/**
+ * Place holders dictionary tests
+ *
+ */
+public class PlaceHolderDictionaryTest {
+
+  @Test
+  public void testReplace() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("jcr:title", "My Title");
+    dictionary.put("name", "hero");
+
+    assertEquals(dictionary.replace("title=\"{{ jcr:title }}\" {{ name }}/{{ name }}", true),
+        "title=\"My Title\" hero/hero");
+    assertEquals(dictionary.replace("{{ jcr:title }} {{ unknown }}.", true), "My Title .");
+    assertEquals(dictionary.replace("{{ jcr:title }} {{ unknown }}.", false), "My Title {{ unknown }}.");
+  }
+
+  @Test
+  public void testStats() {
+    final Stats stats = new Stats();
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("jcr:title", "My Title");
+    dictionary.setStats(stats);
+
+    dictionary.replace("{{ jcr:title }} {{ unknown }} {{ jcr:title }}", true);
+    CompiledTemplate.compile("{{ jcr:title }} {{ unknown }}").render(dictionary, false);
+
+    assertEquals(3, stats.getHits("jcr:title"));
+    assertEquals(0, stats.getMisses("jcr:title"));
+    assertEquals(2, stats.getMisses("unknown"));
+  }
+
+  @Test
+  public void testFirstValueWins() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("name", "argument");
+    dictionary.put("name", "default");
+
+    assertEquals(dictionary.replace("{{ name }}", true), "argument");
+  }
+
+  @Test
+  public void testPlaceHoldersInValues() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("first", "1");
+    dictionary.put("second", "{{ first }}-{{ third }}");
+    dictionary.put("third", "3");
+
+    // like chained replacing: "first" is already replaced before "second" is inserted
+    assertEquals(dictionary.replace("{{ second }}", true), "-3");
+    assertEquals(dictionary.replace("{{ second }}", false), "{{ first }}-3");
+  }
+
+  @Test
+  public void testNotPlaceHolders() {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("name", "hero");
+
+    assertEquals(dictionary.replace("{{name}} {{  }} {{ na\nme }} {{ name", true), "{{name}} {{  }} {{ na\nme }} {{ name");
+    assertEquals(dictionary.replace("{{ x {{ name }}", true), "{{ x hero");
+    assertEquals(dictionary.replace("{{ x {{ y }}", true), "");
+  }
+
+  @Test
+  public void testStreamingReplace() throws IOException {
+    final PlaceHolderDictionary dictionary = new PlaceHolderDictionary();
+    dictionary.put("jcr:title", "My Title");
+    dictionary.put("name", "{{ other }}hero");
+
+    // place holders are spread over the buffer boundaries
+    final StringBuilder text = new StringBuilder();
+    final String[] parts = { "{{ jcr:title }}", "a {{ name }} b {{ unknown }} c", "{{ x {{ name }}", "{{ na\nme }}",
+        "{{name}}", "{{ x {{ y }}", "{ {{", " }}" };
+    for (int i = 0; text.length() < 3 * PlaceHolderDictionary.BUFFER_SIZE; i++) {
+      text.append(parts[i % parts.length]);
+      if (i % 7 == 0) {
+        text.append("x");
+      }
+    }
+    text.append("{{ jcr:title");
+
+    for (final boolean byDefault : new boolean[] { true, false }) {
+      final StringWriter writer = new StringWriter();
+      dictionary.replace(new StringReader(text.toString()), writer, byDefault);
+      assertEquals(dictionary.replace(text.toString(), byDefault), writer.toString());
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.headwire.aemdc.runner;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+
+/**
+ * Compound runner tests
+ *
+ */
+public class CompoundRunnerTest {
+
+  private static final List<String> MEMBERS = Arrays.asList("component:title", "component:text", "model:title",
+      "osgi:config");
+  private static final List<String> TARGETS = Arrays.asList("apps/my/components", "apps/my/components",
+      "apps/my/components/models", "apps/my/config");
+
+  @Test
+  public void testOverlappingTargets() {
+    final List<Set<Integer>> dependencies = getDependencies(4);
+    CompoundRunner.orderOverlappingTargets(MEMBERS, TARGETS, dependencies);
+
+    // same and nested target folders run in the configured order, other targets run concurrently
+    assertEquals(Collections.emptySet(), dependencies.get(0));
+    assertEquals(new HashSet<Integer>(Arrays.asList(0)), dependencies.get(1));
+    assertEquals(new HashSet<Integer>(Arrays.asList(0, 1)), dependencies.get(2));
+    assertEquals(Collections.emptySet(), dependencies.get(3));
+  }
+
+  @Test
+  public void testExplicitOrderWins() {
+    // COMPOUND_ORDER: component:text>component:title
+    final List<Set<Integer>> dependencies = getDependencies(4);
+    dependencies.get(0).add(1);
+    CompoundRunner.orderOverlappingTargets(MEMBERS, TARGETS, dependencies);
+
+    assertEquals(new HashSet<Integer>(Arrays.asList(1)), dependencies.get(0));
+    assertEquals(Collections.emptySet(), dependencies.get(1));
+    assertEquals(new HashSet<Integer>(Arrays.asList(0, 1)), dependencies.get(2));
+  }
+
+  @Test
+  public void testUnknownTarget() {
+    final List<Set<Integer>> dependencies = getDependencies(2);
+    CompoundRunner.orderOverlappingTargets(MEMBERS.subList(0, 2), Arrays.asList("apps/my/components", null),
+        dependencies);
+
+    assertEquals(new HashSet<Integer>(Arrays.asList(0)), dependencies.get(1));
+  }
+
+  private static List<Set<Integer>> getDependencies(final int count) {
+    final List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>(count);
+    for (int i = 0; i < count; i++) {
+      dependencies.add(new LinkedHashSet<Integer>());
+    }
+    return dependencies;
+  }
+}
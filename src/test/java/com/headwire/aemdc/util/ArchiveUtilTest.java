@@ -0,0 +1,103 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Archive util tests
+ *
+ */
+public class ArchiveUtilTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testArchive() throws IOException {
+    final File archive = new File(folder.getRoot(), "templates.zip");
+    writeArchive(archive, "component/config.properties", "component/title/a.xml", "component/title/sub/b.html");
+
+    final File typeDir = new File(archive, "component");
+    final File templateDir = new File(typeDir, "title");
+    assertEquals(archive, ArchiveUtil.getArchive(templateDir));
+    assertNull(ArchiveUtil.getArchive(folder.getRoot()));
+
+    assertTrue(ArchiveUtil.isDirectory(typeDir));
+    assertTrue(ArchiveUtil.isFile(new File(templateDir, "a.xml")));
+    assertFalse(ArchiveUtil.exists(new File(typeDir, "unknown")));
+    assertEquals("component/config.properties",
+        ArchiveUtil.readFileToString(new File(typeDir, "config.properties")));
+    assertEquals("component/config.properties",
+        FilesDirsUtil.getProperties(new File(typeDir, "config.properties").getPath()).stringPropertyNames()
+            .iterator().next());
+
+    assertEquals(Arrays.asList("title"), FilesDirsUtil.listRootDirNames(typeDir));
+    final List<String> templateNames = FilesDirsUtil.getTemplateNames(templateDir);
+    Collections.sort(templateNames);
+    assertEquals(Arrays.asList("a.xml", "sub/b.html"), templateNames);
+
+    // copy straight from the archive entries
+    final File destDir = new File(folder.getRoot(), "dest");
+    final List<String> names = FilesDirsUtil.copyDirectory(templateDir, destDir, 2);
+    assertEquals(2, names.size());
+    assertEquals("component/title/sub/b.html",
+        FileUtils.readFileToString(new File(destDir, "sub/b.html"), Constants.ENCODING));
+  }
+
+  @Test
+  public void testChangedArchive() throws IOException {
+    final File archive = new File(folder.getRoot(), "changed.zip");
+    writeArchive(archive, "service/a.txt");
+    final File file = new File(archive, "service/a.txt");
+    assertEquals("service/a.txt", ArchiveUtil.readFileToString(file));
+
+    final ArchiveUtil.ArchivePath oldPath = ArchiveUtil.openPath(file);
+    final FileSystem oldFileSystem = oldPath.getPath().getFileSystem();
+    writeArchive(archive, "service/a.txt", "service/b.txt");
+
+    // the changed archive is reopened, the outdated one is open until its last use is finished
+    assertTrue(ArchiveUtil.isFile(new File(archive, "service/b.txt")));
+    assertTrue(oldFileSystem.isOpen());
+    assertTrue(Files.exists(oldPath.getPath()));
+    oldPath.close();
+    assertFalse(oldFileSystem.isOpen());
+
+    try (ArchiveUtil.ArchivePath newPath = ArchiveUtil.openPath(file)) {
+      assertTrue(newPath.getPath().getFileSystem().isOpen());
+    }
+    // the current file system stays open for the next use
+    assertEquals("service/a.txt", ArchiveUtil.readFileToString(file));
+  }
+
+  private static void writeArchive(final File archive, final String... names) throws IOException {
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      for (final String name : names) {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(name.getBytes(Constants.ENCODING));
+        out.closeEntry();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Content package tests
+ *
+ */
+public class ContentPackageTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRepositoryPath() {
+    assertEquals("/apps/my/components/title", ContentPackage.getRepositoryPath("/apps/my/components/title"));
+    assertEquals("/apps/my/title", ContentPackage.getRepositoryPath("/apps/my/title/.content.xml"));
+    assertEquals("/apps/my/config/com.example.Cfg",
+        ContentPackage.getRepositoryPath("/apps/my/config/com.example.Cfg.xml"));
+    assertEquals("/apps/my/title/cq:dialog", ContentPackage.getRepositoryPath("/apps/my/title/_cq_dialog"));
+    assertEquals("/apps/my/title/_private", ContentPackage.getRepositoryPath("/apps/my/title/__private"));
+  }
+
+  @Test
+  public void testPackage() throws IOException {
+    final File jcrRoot = new File(folder.getRoot(), "ui.apps/jcr_root");
+    final File packageFile = new File(folder.getRoot(), "target/my-content.zip");
+    final ContentPackage contentPackage = new ContentPackage(packageFile, jcrRoot);
+
+    assertNull(contentPackage.getPath(new File(folder.getRoot(), "core/src/Test.java")));
+    final String path = contentPackage.getPath(new File(jcrRoot, "apps/my/components/title/title.html"));
+    assertEquals("/apps/my/components/title/title.html", path);
+
+    contentPackage.write(new File(jcrRoot, "apps/my/components/title/title.html"), new TargetOutput.Content() {
+
+      @Override
+      public void write(final OutputStream out) throws IOException {
+        out.write("<div/>".getBytes(Constants.ENCODING));
+      }
+    });
+    contentPackage.addFilter("/apps/my/components/title/title.html", null);
+    contentPackage.addRoot(new File(jcrRoot, "apps/my/components/title"), true);
+    contentPackage.addFilter("/apps/my/components/title/.content.xml", null);
+    contentPackage.addFilter("/apps/my/config/com.example.Cfg.xml", null);
+    assertFalse(packageFile.exists());
+    contentPackage.close();
+
+    assertTrue(packageFile.isFile());
+    try (ZipFile zip = new ZipFile(packageFile)) {
+      assertEquals("<div/>",
+          IOUtils.toString(zip.getInputStream(zip.getEntry("jcr_root" + path)), Constants.ENCODING));
+      final String filterXml = IOUtils.toString(zip.getInputStream(zip.getEntry("META-INF/vault/filter.xml")),
+          Constants.ENCODING);
+      assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<workspaceFilter version=\"1.0\">\n"
+          + "    <filter root=\"/apps/my/components/title\" mode=\"update\"/>\n"
+          + "    <filter root=\"/apps/my/config/com.example.Cfg\"/>\n</workspaceFilter>\n", filterXml);
+      assertTrue(zip.getEntry("META-INF/vault/properties.xml") != null);
+    }
+    assertEquals(1, packageFile.getParentFile().list().length);
+  }
+
+  @Test
+  public void testAbort() throws IOException {
+    final File packageFile = new File(folder.getRoot(), "my-content.zip");
+    final ContentPackage contentPackage = new ContentPackage(packageFile, folder.getRoot());
+    contentPackage.abort();
+    assertFalse(packageFile.exists());
+    assertEquals(0, folder.getRoot().list().length);
+  }
+
+}
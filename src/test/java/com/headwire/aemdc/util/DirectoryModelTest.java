@@ -0,0 +1,51 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Directory model tests
+ *
+ */
+public class DirectoryModelTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testListing() throws IOException {
+    final File root = folder.getRoot();
+    for (final String path : new String[] { "b/x.xml", "a/y/z.java", "a/c.xml", "d.txt", "e/f/g/h.xml" }) {
+      FileUtils.writeStringToFile(new File(root, path), path, Constants.ENCODING);
+    }
+    new File(root, "empty").mkdir();
+
+    // same order as commons-io
+    assertEquals(new ArrayList<File>(FileUtils.listFiles(root, null, true)),
+        DirectoryModel.listFiles(root, null, true));
+    assertEquals(new ArrayList<File>(FileUtils.listFiles(root, new String[] { "xml" }, true)),
+        DirectoryModel.listFiles(root, new String[] { "xml" }, true));
+    assertEquals(Arrays.asList(new File(root, "d.txt")), DirectoryModel.listFiles(root, null, false));
+    assertEquals(4, DirectoryModel.listDirs(root).size());
+    assertEquals(8, DirectoryModel.listAllDirs(root).size());
+
+    // changed directory is listed again
+    new File(root, "new").mkdir();
+    assertEquals(5, DirectoryModel.listDirs(root).size());
+
+    assertEquals(0, DirectoryModel.listDirs(new File(root, "unknown")).size());
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Files and dirs util tests
+ *
+ */
+public class FilesDirsUtilTest {
+
+  private static final List<String> NAMES = Arrays.asList("a.html", "sub/b.xml", "sub/deep/c.java",
+      "sub/deep/{{targetname}}.html");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCopyDirectory() throws IOException {
+    final File srcDir = createTemplate();
+    final File emptyDir = new File(srcDir, "empty");
+    assertTrue(emptyDir.mkdir());
+    final File destDir = new File(folder.getRoot(), "dest");
+
+    final List<String> names = FilesDirsUtil.copyDirectory(srcDir, destDir, 4);
+    Collections.sort(names);
+    assertEquals(NAMES, names);
+    assertCopied(srcDir, destDir);
+    // empty directories are copied too
+    assertTrue(new File(destDir, "empty").isDirectory());
+  }
+
+  @Test
+  public void testCopyFiles() throws IOException {
+    final File srcDir = createTemplate();
+    final File destDir = new File(folder.getRoot(), "dest");
+
+    FilesDirsUtil.copyFiles(srcDir, destDir, NAMES, 1);
+    assertCopied(srcDir, destDir);
+  }
+
+  private File createTemplate() throws IOException {
+    final File srcDir = folder.newFolder("template");
+    long lastModified = 1000000000000L;
+    for (final String name : NAMES) {
+      final File file = new File(srcDir, name);
+      FileUtils.writeStringToFile(file, "content of " + name, Constants.ENCODING);
+      assertTrue(file.setLastModified(lastModified));
+      lastModified += 60000L;
+    }
+    return srcDir;
+  }
+
+  private static void assertCopied(final File srcDir, final File destDir) throws IOException {
+    for (final String name : NAMES) {
+      final File destFile = new File(destDir, name);
+      assertEquals("content of " + name, FileUtils.readFileToString(destFile, Constants.ENCODING));
+      // file date is kept
+      assertEquals(new File(srcDir, name).lastModified(), destFile.lastModified());
+    }
+  }
+
+}
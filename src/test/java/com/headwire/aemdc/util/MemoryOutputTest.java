@@ -0,0 +1,54 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Memory output tests
+ *
+ */
+public class MemoryOutputTest {
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    final File root = new File("target/memory-output");
+    final File file = new File(root, "apps/my/title/title.html");
+    final MemoryOutput output = new MemoryOutput();
+
+    output.write(file, new TargetOutput.Content() {
+
+      @Override
+      public void write(final OutputStream out) throws IOException {
+        out.write("<div/>".getBytes(Constants.ENCODING));
+      }
+    });
+    output.addRoot(file.getParentFile(), true);
+
+    assertArrayEquals("<div/>".getBytes(Constants.ENCODING),
+        output.read(new File(root, "apps/my/../my/title/title.html")));
+    assertEquals(Arrays.asList(file.getAbsoluteFile()), output.getFiles());
+    assertEquals(Arrays.asList(file.getParentFile().getAbsoluteFile()), output.getRoots());
+    assertEquals(6, output.getSize());
+    assertNull(output.getContent(new File(root, "unknown.html")));
+    assertFalse(root.exists());
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testReadUnknown() throws IOException {
+    new MemoryOutput().read(new File("unknown.html"));
+  }
+
+}
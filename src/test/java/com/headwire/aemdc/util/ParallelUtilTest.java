@@ -0,0 +1,187 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+
+/**
+ * Parallel util tests
+ *
+ */
+public class ParallelUtilTest {
+
+  @Test
+  public void testResultsOrder() throws IOException {
+    final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+    for (int i = 0; i < 100; i++) {
+      final int number = i;
+      tasks.add(new Callable<Integer>() {
+
+        @Override
+        public Integer call() throws Exception {
+          Thread.sleep(number % 3);
+          return number;
+        }
+      });
+    }
+
+    for (final int threads : new int[] { 1, 4 }) {
+      final List<Integer> results = ParallelUtil.invokeAll(tasks, threads, "test");
+      assertEquals(tasks.size(), results.size());
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(Integer.valueOf(i), results.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testNestedTasks() throws IOException {
+    final Set<String> threadNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+    for (int i = 0; i < 8; i++) {
+      tasks.add(new Callable<Integer>() {
+
+        @Override
+        public Integer call() throws Exception {
+          final String outerThread = Thread.currentThread().getName();
+          final List<Callable<String>> nestedTasks = new ArrayList<Callable<String>>();
+          for (int j = 0; j < 8; j++) {
+            nestedTasks.add(new Callable<String>() {
+
+              @Override
+              public String call() throws Exception {
+                Thread.sleep(1);
+                threadNames.add(Thread.currentThread().getName());
+                return Thread.currentThread().getName();
+              }
+            });
+          }
+          // nested tasks run in the thread of the outer task
+          for (final String nestedThread : ParallelUtil.invokeAll(nestedTasks, 4, "nested")) {
+            assertEquals(outerThread, nestedThread);
+          }
+          return nestedTasks.size();
+        }
+      });
+    }
+
+    assertEquals(Collections.nCopies(8, 8), ParallelUtil.invokeAll(tasks, 4, "outer"));
+    assertTrue(threadNames.size() <= 4);
+  }
+
+  @Test
+  public void testErrors() {
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for (int i = 0; i < 4; i++) {
+      final int number = i;
+      tasks.add(new Callable<Void>() {
+
+        @Override
+        public Void call() throws Exception {
+          Thread.sleep(50);
+          throw new IOException("Error " + number);
+        }
+      });
+    }
+
+    try {
+      ParallelUtil.invokeAll(tasks, 4, "test");
+      fail("IOException expected");
+    } catch (final IOException e) {
+      // all tasks are started at once, the first error is thrown with the other errors
+      assertEquals("Error 0", e.getMessage());
+      assertEquals(3, e.getSuppressed().length);
+      assertEquals("Error 1", e.getSuppressed()[0].getMessage());
+      assertNull(e.getCause());
+    }
+  }
+
+  @Test
+  public void testSameErrorsSequentialAndParallel() {
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    tasks.add(new Callable<Void>() {
+
+      @Override
+      public Void call() throws Exception {
+        throw new FileNotFoundException("missing.html");
+      }
+    });
+    tasks.add(new Callable<Void>() {
+
+      @Override
+      public Void call() throws Exception {
+        return null;
+      }
+    });
+
+    for (final int threads : new int[] { 1, 4 }) {
+      try {
+        ParallelUtil.invokeAll(tasks, threads, "test");
+        fail("FileNotFoundException expected");
+      } catch (final IOException e) {
+        assertTrue(e instanceof FileNotFoundException);
+        assertEquals("missing.html", e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testDependencies() throws IOException {
+    // 0 <- 1 <- 3, 0 <- 2, 4 independent
+    final List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>();
+    dependencies.add(new HashSet<Integer>());
+    dependencies.add(new HashSet<Integer>(Arrays.asList(0)));
+    dependencies.add(new HashSet<Integer>(Arrays.asList(0)));
+    dependencies.add(new HashSet<Integer>(Arrays.asList(1)));
+    dependencies.add(new HashSet<Integer>());
+
+    for (final int threads : new int[] { 1, 4 }) {
+      final List<Integer> finished = Collections.synchronizedList(new ArrayList<Integer>());
+      final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+      for (int i = 0; i < dependencies.size(); i++) {
+        final int number = i;
+        tasks.add(new Callable<Integer>() {
+
+          @Override
+          public Integer call() throws Exception {
+            Thread.sleep(10);
+            finished.add(number);
+            return number;
+          }
+        });
+      }
+
+      final List<Integer> results = ParallelUtil.invokeAll(tasks, dependencies, threads, "test");
+      assertEquals(Arrays.asList(0, 1, 2, 3, 4), results);
+      assertTrue(finished.indexOf(0) < finished.indexOf(1));
+      assertTrue(finished.indexOf(0) < finished.indexOf(2));
+      assertTrue(finished.indexOf(1) < finished.indexOf(3));
+    }
+
+    // cyclic dependencies
+    dependencies.get(0).add(3);
+    try {
+      ParallelUtil.invokeAll(new ArrayList<Callable<Integer>>(Collections.<Callable<Integer>> nCopies(5, null)),
+          dependencies, 4, "test");
+      fail("IOException expected");
+    } catch (final IOException e) {
+      assertTrue(e.getMessage().startsWith("Cyclic"));
+    }
+  }
+
+}
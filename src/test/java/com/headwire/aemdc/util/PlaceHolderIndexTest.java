@@ -0,0 +1,94 @@
+package com.headwire.aemdc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.headwire.aemdc.companion.Constants;
+
+
+/**
+ * Place holder index tests
+ *
+ */
+public class PlaceHolderIndexTest {
+
+  private static final String[] EXTENSIONS = { "xml", "html" };
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testIndex() throws IOException {
+    final File dir = folder.newFolder("template");
+    final File indexFile = new File(folder.getRoot(), "placeholders.bin");
+    final File xmlFile = new File(dir, "a/.content.xml");
+    FileUtils.writeStringToFile(xmlFile, "<x\n  a=\"{{ title }}\"\n  b=\"{{ desc }}{{ title }}\"/>",
+        Constants.ENCODING);
+    FileUtils.writeStringToFile(new File(dir, "a/b.txt"), "{{ ignored }}", Constants.ENCODING);
+
+    PlaceHolderIndex index = new PlaceHolderIndex(indexFile);
+    assertEquals(Arrays.asList("title", "desc"), index.getPlaceHolders(dir, EXTENSIONS));
+
+    final List<PlaceHolderIndex.Occurrence> occurrences = index.getOccurrences(dir, EXTENSIONS);
+    assertEquals(3, occurrences.size());
+    assertEquals(xmlFile.getAbsolutePath(), occurrences.get(1).getPath());
+    assertEquals("desc", occurrences.get(1).getName());
+    assertEquals(3, occurrences.get(1).getLine());
+
+    // changed and new files are indexed again
+    FileUtils.writeStringToFile(xmlFile, "{{ name }}", Constants.ENCODING);
+    final File newDir = new File(dir, "c");
+    FileUtils.writeStringToFile(new File(newDir, "c.html"), "{{ name }} {{ text }}", Constants.ENCODING);
+    new File(dir, "a").setLastModified(System.currentTimeMillis() + 10000);
+    newDir.setLastModified(System.currentTimeMillis() + 10000);
+    final List<String> placeHolders = index.getPlaceHolders(dir, EXTENSIONS);
+    assertEquals(2, placeHolders.size());
+    assertEquals(Arrays.asList("name", "text"), placeHolders);
+
+    // persistent index
+    index = new PlaceHolderIndex(indexFile);
+    assertEquals(placeHolders, index.getPlaceHolders(dir, EXTENSIONS));
+    assertEquals(Arrays.asList("name"), index.getPlaceHolders(xmlFile, EXTENSIONS));
+  }
+
+  @Test
+  public void testPrune() throws IOException {
+    final File dir = folder.newFolder("template");
+    final File otherDir = folder.newFolder("other");
+    final File indexFile = new File(folder.getRoot(), "placeholders.bin");
+    final File xmlFile = new File(dir, "a.xml");
+    FileUtils.writeStringToFile(xmlFile, "{{ title }}", Constants.ENCODING);
+    FileUtils.writeStringToFile(new File(dir, "b.xml"), "{{ text }}", Constants.ENCODING);
+    FileUtils.writeStringToFile(new File(otherDir, "c.xml"), "{{ name }}", Constants.ENCODING);
+
+    PlaceHolderIndex index = new PlaceHolderIndex(indexFile);
+    index.getPlaceHolders(dir, EXTENSIONS);
+    index.getPlaceHolders(otherDir, EXTENSIONS);
+    final long size = indexFile.length();
+
+    // removed file of a listed again template is dropped
+    assertTrue(xmlFile.delete());
+    dir.setLastModified(System.currentTimeMillis() + 10000);
+    assertEquals(Arrays.asList("text"), index.getPlaceHolders(dir, EXTENSIONS));
+    assertTrue(indexFile.length() < size);
+
+    // removed template directory is dropped when the index is loaded
+    FileUtils.deleteDirectory(otherDir);
+    final long sizeBefore = indexFile.length();
+    index = new PlaceHolderIndex(indexFile);
+    index.getPlaceHolders(dir, EXTENSIONS);
+    assertTrue(indexFile.length() < sizeBefore);
+    assertEquals(Arrays.asList("text"), index.getPlaceHolders(dir, EXTENSIONS));
+  }
+
+}